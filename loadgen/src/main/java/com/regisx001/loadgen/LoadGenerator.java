@@ -0,0 +1,304 @@
+package com.regisx001.loadgen;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Open-loop load generator for the tweet ingest API.
+ *
+ * <p>
+ * Requests are issued on a fixed schedule ({@code start + i / rate}) no matter
+ * how slowly the server answers, each on its own virtual thread. Latency is
+ * measured from the <em>intended</em> send time, so a stalled server shows up as
+ * queueing delay in every request it held back instead of a single slow sample
+ * (coordinated omission). Service time, measured from the actual send time, is
+ * recorded alongside for comparison. Requests that would exceed
+ * {@code -max-in-flight} are dropped and have no latency, so a run with drops
+ * understates its percentiles; such a run exits with status 3 unless
+ * {@code -allow-drops true} is given.
+ *
+ * <pre>
+ * java -jar loadgen.jar run -ramp 100:800:100:30s -out results.json
+ * java -jar loadgen.jar compare baseline.json results.json -max-regression 10
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final String[] WORDS = {
+            "great", "awful", "love", "hate", "service", "product", "launch", "update",
+            "happy", "angry", "fast", "slow", "support", "price", "quality", "today"
+    };
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final URI ingestUri;
+    private final String source;
+    private final int sources;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Duration timeout;
+    private final PipelineSampler sampler;
+
+    private LoadGenerator(HttpClient client, ObjectMapper objectMapper, String baseUrl, long waitMs, String source,
+            int sources, int maxInFlight, Duration timeout) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.ingestUri = URI.create(baseUrl + "/api/tweets" + (waitMs > 0 ? "?wait=" + waitMs : ""));
+        this.source = source;
+        this.sources = sources;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.timeout = timeout;
+        this.sampler = new PipelineSampler(client, objectMapper, baseUrl);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            System.exit(1);
+        }
+        switch (args[0]) {
+            case "run" -> {
+                if (!run(options(args, 1))) {
+                    System.exit(3);
+                }
+            }
+            case "compare" -> {
+                if (args.length < 3) {
+                    usage();
+                    System.exit(1);
+                }
+                Map<String, String> options = options(args, 3);
+                double maxRegression = Double.parseDouble(options.getOrDefault("max-regression", "10"));
+                boolean regressed = RunComparison.compare(mapper(), Path.of(args[1]), Path.of(args[2]),
+                        maxRegression, System.out);
+                System.exit(regressed ? 2 : 0);
+            }
+            default -> {
+                usage();
+                System.exit(1);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Run
+    // -------------------------------------------------------------------------
+
+    /**
+     * Runs a profile and writes its results.
+     *
+     * @return {@code false} if requests were dropped and drops are not allowed
+     */
+    private static boolean run(Map<String, String> options) throws Exception {
+        RampProfile profile;
+        if (options.containsKey("ramp")) {
+            profile = RampProfile.ramp(options.get("ramp"));
+        } else {
+            profile = RampProfile.parse(options.getOrDefault("profile", "100:30s"));
+        }
+        String baseUrl = options.getOrDefault("url", "http://localhost:8090");
+        Duration timeout = Duration.ofMillis(Long.parseLong(options.getOrDefault("timeout-ms", "10000")));
+        Path out = Path.of(options.getOrDefault("out", "results.json"));
+
+        ObjectMapper objectMapper = mapper();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(executor)
+                    .connectTimeout(timeout)
+                    .build();
+            LoadGenerator generator = new LoadGenerator(client, objectMapper, baseUrl,
+                    Long.parseLong(options.getOrDefault("wait-ms", "0")),
+                    options.getOrDefault("source", "loadgen"),
+                    Integer.parseInt(options.getOrDefault("sources", "1")),
+                    Integer.parseInt(options.getOrDefault("max-in-flight", "10000")),
+                    timeout);
+            System.out.printf(Locale.ROOT, "Target %s, %d steps, %s total%n",
+                    generator.ingestUri, profile.steps().size(), profile.totalDuration());
+            RunResult result = generator.run(profile, executor, options.get("label"), baseUrl);
+            objectMapper.writeValue(out.toFile(), result);
+            System.out.println("Results written to " + out);
+
+            long scheduled = result.steps().stream().mapToLong(RunResult.StepResult::scheduled).sum();
+            long dropped = result.steps().stream().mapToLong(RunResult.StepResult::dropped).sum();
+            if (dropped == 0) {
+                return true;
+            }
+            System.out.printf(Locale.ROOT,
+                    "%d of %d scheduled requests were dropped at -max-in-flight %d and are missing from the "
+                            + "latency percentiles; raise -max-in-flight or lower the rate%n",
+                    dropped, scheduled, generator.maxInFlight);
+            return Boolean.parseBoolean(options.getOrDefault("allow-drops", "false"));
+        }
+    }
+
+    private RunResult run(RampProfile profile, ExecutorService executor, String label, String baseUrl)
+            throws InterruptedException {
+        Instant startedAt = Instant.now();
+        List<StepRecorder> recorders = new ArrayList<>();
+        List<Double> throughputs = new ArrayList<>();
+        long sequence = 0;
+        long processedBefore = sampler.processed();
+        for (RampProfile.Step step : profile.steps()) {
+            StepRecorder recorder = new StepRecorder(step);
+            recorders.add(recorder);
+            sequence = runStep(step, recorder, executor, sequence);
+            long processedAfter = sampler.processed();
+            throughputs.add(processedBefore >= 0 && processedAfter >= 0
+                    ? (processedAfter - processedBefore) / (step.duration().toNanos() / 1e9)
+                    : null);
+            processedBefore = processedAfter;
+            print(step, recorder.result(throughputs.getLast()));
+        }
+        // Wait for stragglers so every scheduled request is accounted for.
+        if (inFlight.tryAcquire(maxInFlight, timeout.toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+
+        List<RunResult.StepResult> steps = new ArrayList<>();
+        for (int i = 0; i < recorders.size(); i++) {
+            steps.add(recorders.get(i).result(throughputs.get(i)));
+        }
+        return new RunResult(label, baseUrl, startedAt, steps, sampler.latency());
+    }
+
+    /**
+     * Issues the requests of one step on its fixed schedule and returns the next
+     * sequence number. Requests that would exceed the in-flight limit are counted
+     * as dropped rather than delayed, so the schedule never slips.
+     */
+    private long runStep(RampProfile.Step step, StepRecorder recorder, ExecutorService executor, long sequence) {
+        double intervalNanos = 1e9 / step.ratePerSecond();
+        long count = Math.round(step.ratePerSecond() * step.duration().toNanos() / 1e9);
+        long stepStart = System.nanoTime();
+        for (long i = 0; i < count; i++) {
+            long intended = stepStart + (long) (i * intervalNanos);
+            long delay;
+            while ((delay = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            recorder.scheduled();
+            if (!inFlight.tryAcquire()) {
+                recorder.dropped();
+                continue;
+            }
+            long seq = sequence++;
+            executor.execute(() -> send(seq, intended, recorder));
+        }
+        long remaining = stepStart + step.duration().toNanos() - System.nanoTime();
+        if (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+        return sequence;
+    }
+
+    private void send(long seq, long intended, StepRecorder recorder) {
+        int status = -1;
+        long started = System.nanoTime();
+        try {
+            recorder.sent();
+            HttpRequest request = HttpRequest.newBuilder(ingestUri)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body(seq)))
+                    .build();
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            // Counted as an io_error below.
+        } finally {
+            recorder.completed(status, intended, started, System.nanoTime());
+            inFlight.release();
+        }
+    }
+
+    /**
+     * Builds a unique tweet. The backend normalises digits away before its
+     * duplicate filter and result cache, so the sequence number is spelled in
+     * letters to keep every text distinct.
+     */
+    private String body(long seq) {
+        String text = WORDS[(int) (seq % WORDS.length)] + " " + WORDS[(int) ((seq / 7) % WORDS.length)]
+                + " loadgen " + letters(seq);
+        String tweetSource = sources > 1 ? source + "-" + (seq % sources) : source;
+        Map<String, String> payload = Map.of("text", text, "source", tweetSource);
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String letters(long value) {
+        StringBuilder sb = new StringBuilder();
+        long v = value;
+        do {
+            sb.append((char) ('a' + v % 26));
+            v /= 26;
+        } while (v > 0);
+        return sb.toString();
+    }
+
+    private static void print(RampProfile.Step step, RunResult.StepResult result) {
+        System.out.printf(Locale.ROOT,
+                "rate %8.1f/s  sent %7d  failed %6d  achieved %8.1f/s  p50 %8.2f ms  p99 %8.2f ms"
+                        + "  p99.9 %8.2f ms  dropped %6d  pipeline %s%n",
+                step.ratePerSecond(), result.sent(), result.failed(), result.achievedRate(),
+                result.latency().p50Ms(), result.latency().p99Ms(), result.latency().p999Ms(), result.dropped(),
+                result.pipelineThroughput() != null
+                        ? String.format(Locale.ROOT, "%.1f/s", result.pipelineThroughput())
+                        : "n/a");
+    }
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    private static ObjectMapper mapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    private static Map<String, String> options(String[] args, int from) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = from; i < args.length; i++) {
+            if (!args[i].startsWith("-") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected -name value, got '" + args[i] + "'");
+            }
+            options.put(args[i].substring(1), args[++i]);
+        }
+        return options;
+    }
+
+    private static void usage() {
+        System.err.println("""
+                Usage:
+                  loadgen run [-url http://localhost:8090] [-profile 100:30s,200:30s | -ramp 100:800:100:30s]
+                              [-wait-ms 0] [-source loadgen] [-sources 1] [-max-in-flight 10000]
+                              [-timeout-ms 10000] [-allow-drops false] [-label name] [-out results.json]
+                  loadgen compare <baseline.json> <candidate.json> [-max-regression 10]""");
+    }
+}
@@ -0,0 +1,63 @@
+package com.regisx001.loadgen;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads pipeline progress from the analytics API: the number of processed
+ * tweets ({@code summary.totalProcessed} of {@code /api/analytics/report}) and
+ * the per-stage latency report ({@code /api/analytics/latency}).
+ */
+final class PipelineSampler {
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final URI reportUri;
+    private final URI latencyUri;
+
+    PipelineSampler(HttpClient client, ObjectMapper objectMapper, String baseUrl) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.reportUri = URI.create(baseUrl + "/api/analytics/report?bucket=minute&minutes=1");
+        this.latencyUri = URI.create(baseUrl + "/api/analytics/latency");
+    }
+
+    /**
+     * Returns the number of processed tweets.
+     *
+     * @return the processed count, or {@code -1} if the API could not be read
+     */
+    long processed() {
+        JsonNode report = get(reportUri);
+        return report != null ? report.path("summary").path("totalProcessed").asLong(-1) : -1;
+    }
+
+    /**
+     * Returns the backend's per-stage latency report.
+     *
+     * @return the report, or {@code null} if it could not be read
+     */
+    JsonNode latency() {
+        return get(latencyUri);
+    }
+
+    private JsonNode get(URI uri) {
+        try {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 ? objectMapper.readTree(response.body()) : null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+}
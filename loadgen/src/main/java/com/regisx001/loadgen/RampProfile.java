@@ -0,0 +1,98 @@
+package com.regisx001.loadgen;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sequence of fixed-rate steps the generator runs through.
+ *
+ * @param steps the steps, in order
+ */
+public record RampProfile(List<Step> steps) {
+
+    /**
+     * One step of the profile.
+     *
+     * @param ratePerSecond the arrival rate held during the step
+     * @param duration      how long the step lasts
+     */
+    public record Step(double ratePerSecond, Duration duration) {
+    }
+
+    /**
+     * Parses an explicit profile such as {@code 100:30s,200:30s,400:1m}.
+     *
+     * @param spec comma-separated {@code rate:duration} entries
+     * @return the profile
+     * @throws IllegalArgumentException if the spec is malformed
+     */
+    public static RampProfile parse(String spec) {
+        List<Step> steps = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected rate:duration, got '" + entry + "'");
+            }
+            steps.add(step(Double.parseDouble(parts[0]), parseDuration(parts[1])));
+        }
+        return new RampProfile(List.copyOf(steps));
+    }
+
+    /**
+     * Parses a linear stepped ramp such as {@code 100:800:100:30s}: from 100/s
+     * to 800/s in increments of 100/s, holding each rate for 30 s.
+     *
+     * @param spec {@code start:end:increment:duration}
+     * @return the profile
+     * @throws IllegalArgumentException if the spec is malformed
+     */
+    public static RampProfile ramp(String spec) {
+        String[] parts = spec.trim().split(":");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Expected start:end:increment:duration, got '" + spec + "'");
+        }
+        double start = Double.parseDouble(parts[0]);
+        double end = Double.parseDouble(parts[1]);
+        double increment = Double.parseDouble(parts[2]);
+        Duration duration = parseDuration(parts[3]);
+        if (increment <= 0) {
+            throw new IllegalArgumentException("Ramp increment must be positive");
+        }
+        List<Step> steps = new ArrayList<>();
+        for (double rate = start; rate <= end + 1e-9; rate += increment) {
+            steps.add(step(rate, duration));
+        }
+        return new RampProfile(List.copyOf(steps));
+    }
+
+    /**
+     * Returns the total duration of all steps.
+     *
+     * @return the profile duration
+     */
+    public Duration totalDuration() {
+        return steps.stream().map(Step::duration).reduce(Duration.ZERO, Duration::plus);
+    }
+
+    private static Step step(double rate, Duration duration) {
+        if (rate <= 0 || duration.isZero() || duration.isNegative()) {
+            throw new IllegalArgumentException("Steps need a positive rate and duration");
+        }
+        return new Step(rate, duration);
+    }
+
+    static Duration parseDuration(String value) {
+        String v = value.trim();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+}
@@ -0,0 +1,76 @@
+package com.regisx001.loadgen;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two runs step by step. Steps are matched by position, so both runs
+ * should use the same profile. Dropped requests are shown next to the
+ * percentiles, since the percentiles leave them out.
+ */
+final class RunComparison {
+
+    private RunComparison() {
+    }
+
+    /**
+     * Prints a per-step comparison of two result files.
+     *
+     * @param objectMapper  the mapper to read the files with
+     * @param baseline      the baseline result file
+     * @param candidate     the candidate result file
+     * @param maxRegression the largest acceptable p99 increase, in percent
+     * @param out           where to print the table
+     * @return {@code true} if any step's p99 latency regressed by more than
+     *         {@code maxRegression} percent, or the candidate dropped more
+     *         requests than the baseline in any step
+     * @throws IOException if a file cannot be read
+     */
+    static boolean compare(ObjectMapper objectMapper, Path baseline, Path candidate, double maxRegression,
+            PrintStream out) throws IOException {
+        RunResult base = objectMapper.readValue(baseline.toFile(), RunResult.class);
+        RunResult cand = objectMapper.readValue(candidate.toFile(), RunResult.class);
+        List<RunResult.StepResult> baseSteps = base.steps();
+        List<RunResult.StepResult> candSteps = cand.steps();
+        if (baseSteps.size() != candSteps.size()) {
+            out.printf(Locale.ROOT, "Warning: %d baseline steps vs %d candidate steps, comparing the first %d%n",
+                    baseSteps.size(), candSteps.size(), Math.min(baseSteps.size(), candSteps.size()));
+        }
+
+        out.printf(Locale.ROOT, "%-10s %21s %29s %29s %17s %21s%n",
+                "rate/s", "achieved/s", "p99 ms", "p99.9 ms", "dropped", "pipeline/s");
+        boolean regressed = false;
+        for (int i = 0; i < Math.min(baseSteps.size(), candSteps.size()); i++) {
+            RunResult.StepResult b = baseSteps.get(i);
+            RunResult.StepResult c = candSteps.get(i);
+            double p99Delta = delta(b.latency().p99Ms(), c.latency().p99Ms());
+            boolean stepRegressed = p99Delta > maxRegression;
+            boolean moreDrops = c.dropped() > b.dropped();
+            regressed |= stepRegressed || moreDrops;
+            out.printf(Locale.ROOT,
+                    "%-10.1f %9.1f -> %9.1f %9.2f -> %9.2f %+5.0f%% %9.2f -> %9.2f %+5.0f%% %7d -> %7d %9s -> %9s%s%s%n",
+                    c.targetRate(),
+                    b.achievedRate(), c.achievedRate(),
+                    b.latency().p99Ms(), c.latency().p99Ms(), p99Delta,
+                    b.latency().p999Ms(), c.latency().p999Ms(), delta(b.latency().p999Ms(), c.latency().p999Ms()),
+                    b.dropped(), c.dropped(),
+                    rate(b.pipelineThroughput()), rate(c.pipelineThroughput()),
+                    stepRegressed ? "  REGRESSION" : "",
+                    moreDrops ? "  DROPS" : "");
+        }
+        return regressed;
+    }
+
+    private static double delta(double base, double candidate) {
+        return base > 0 ? (candidate - base) * 100.0 / base : 0;
+    }
+
+    private static String rate(Double value) {
+        return value != null ? String.format(Locale.ROOT, "%.1f", value) : "n/a";
+    }
+}
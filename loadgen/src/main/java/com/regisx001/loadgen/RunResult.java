@@ -0,0 +1,85 @@
+package com.regisx001.loadgen;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Results of one load-generator run, written as JSON so runs can be compared
+ * step by step.
+ *
+ * @param label         a free-form label for the run (e.g. the branch)
+ * @param target        the URL the requests were sent to
+ * @param startedAt     the time the first step started
+ * @param steps         the per-step results, in profile order
+ * @param serverLatency the backend's per-stage latency report at the end of the
+ *                      run, if it could be fetched
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RunResult(
+        String label,
+        String target,
+        Instant startedAt,
+        List<StepResult> steps,
+        JsonNode serverLatency) {
+
+    /**
+     * Results of one fixed-rate step.
+     *
+     * @param targetRate         the intended arrival rate per second
+     * @param durationSeconds    the step duration
+     * @param scheduled          the requests the schedule called for
+     * @param sent               the requests actually sent
+     * @param dropped            scheduled requests not sent because the
+     *                           in-flight limit was reached
+     * @param succeeded          responses with a 2xx status
+     * @param failed             non-2xx responses and transport errors
+     * @param statusCounts       responses per HTTP status, plus
+     *                           {@code "io_error"} for transport failures
+     * @param achievedRate       responses received per second of the step
+     * @param latency            latency from the intended send time, corrected
+     *                           for coordinated omission
+     * @param serviceTime        latency from the actual send time
+     * @param pipelineThroughput tweets processed per second by the pipeline over
+     *                           the step, from the analytics API
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record StepResult(
+            double targetRate,
+            double durationSeconds,
+            long scheduled,
+            long sent,
+            long dropped,
+            long succeeded,
+            long failed,
+            Map<String, Long> statusCounts,
+            double achievedRate,
+            LatencySummary latency,
+            LatencySummary serviceTime,
+            Double pipelineThroughput) {
+    }
+
+    /**
+     * Percentiles of a latency histogram, in milliseconds.
+     *
+     * @param count  the number of samples
+     * @param meanMs the mean
+     * @param p50Ms  the median
+     * @param p90Ms  the 90th percentile
+     * @param p99Ms  the 99th percentile
+     * @param p999Ms the 99.9th percentile
+     * @param maxMs  the maximum
+     */
+    public record LatencySummary(
+            long count,
+            double meanMs,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.regisx001.loadgen;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Thread-safe counters and latency histograms of one step. Requests are
+ * attributed to the step they were scheduled in, even if they complete later.
+ */
+final class StepRecorder {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final RampProfile.Step step;
+
+    private final Latencies latency = new Latencies();
+    private final Latencies serviceTime = new Latencies();
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Map<String, LongAdder> statusCounts = new ConcurrentHashMap<>();
+
+    StepRecorder(RampProfile.Step step) {
+        this.step = step;
+    }
+
+    void scheduled() {
+        scheduled.increment();
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    void sent() {
+        sent.increment();
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param status   the HTTP status, or {@code -1} for a transport error
+     * @param intended the nanoTime the request was scheduled for
+     * @param started  the nanoTime the request was actually sent
+     * @param finished the nanoTime the response (or error) arrived
+     */
+    void completed(int status, long intended, long started, long finished) {
+        latency.record(finished - intended);
+        serviceTime.record(finished - started);
+        if (status >= 200 && status < 300) {
+            succeeded.increment();
+        } else {
+            failed.increment();
+        }
+        statusCounts.computeIfAbsent(status < 0 ? "io_error" : Integer.toString(status), k -> new LongAdder())
+                .increment();
+    }
+
+    RunResult.StepResult result(Double pipelineThroughput) {
+        double seconds = step.duration().toNanos() / 1e9;
+        Map<String, Long> statuses = new TreeMap<>();
+        statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+        return new RunResult.StepResult(step.ratePerSecond(), seconds, scheduled.sum(), sent.sum(), dropped.sum(),
+                succeeded.sum(), failed.sum(), statuses, (succeeded.sum() + failed.sum()) / seconds,
+                latency.summary(), serviceTime.summary(), pipelineThroughput);
+    }
+
+    /**
+     * A latency histogram that can be summarised while late responses are
+     * still being recorded: values go into a {@link Recorder}, and each
+     * summary first moves the recorder's stable interval snapshot into the
+     * running total.
+     */
+    private static final class Latencies {
+
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+        private final Histogram total = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private Histogram interval;
+
+        void record(long nanos) {
+            recorder.recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+        }
+
+        synchronized RunResult.LatencySummary summary() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return new RunResult.LatencySummary(total.getTotalCount(),
+                    total.getMean() / 1e6,
+                    total.getValueAtPercentile(50) / 1e6,
+                    total.getValueAtPercentile(90) / 1e6,
+                    total.getValueAtPercentile(99) / 1e6,
+                    total.getValueAtPercentile(99.9) / 1e6,
+                    total.getMaxValue() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+#!/usr/bin/env python3
+"""
+Generates the small model exports and expected predictions used by
+SentimentModelParityTest when no real Spark export is available.
+
+The expected predictions are computed with an independent, plain-Python
+re-implementation of the Spark ML pipeline semantics (regex cleaning,
+Tokenizer split("\\s"), StopWordsRemover, CountVectorizer, IDF and
+multinomial/binomial LogisticRegression), on texts taken from
+data/twitter/twitter_validation.csv plus a few hand-written edge cases.
+
+For a parity check against the real pipeline, run the training job (it
+writes spark_sentiment_model_export.json and spark_sentiment_parity.jsonl)
+and point the test at it:
+
+    mvn test -Dtest=SentimentModelParityTest -Dscoring.parity.dir=data/models
+
+Usage:
+    python3 scripts/scoring/generate_parity_fixture.py
+"""
+import csv
+import json
+import math
+import os
+import random
+import re
+from collections import Counter
+
+ROOT = os.path.dirname(os.path.dirname(os.path.dirname(os.path.abspath(__file__))))
+CSV_PATH = os.path.join(ROOT, "data", "twitter", "twitter_validation.csv")
+OUT_DIR = os.path.join(ROOT, "src", "test", "resources", "scoring")
+
+# Spark's StopWordsRemover.loadDefaultStopWords("english")
+STOP_WORDS = set("""
+i me my myself we our ours ourselves you your yours yourself yourselves he him
+his himself she her hers herself it its itself they them their theirs
+themselves what which who whom this that these those am is are was were be
+been being have has had having do does did doing a an the and but if or
+because as until while of at by for with about against between into through
+during before after above below to from up down in out on off over under
+again further then once here there when where why how all any both each few
+more most other some such no nor not only own same so than too very s t can
+will just don should now d ll m o re ve y ain aren couldn didn doesn hadn hasn
+haven isn ma mightn mustn needn shan shouldn wasn weren won wouldn
+""".split())
+
+EDGE_CASES = [
+    "",
+    " ",
+    "@someone",
+    "@someone great game",
+    "Check this out http://t.co/abc LOVE it",
+    "HTTP://EXAMPLE.COM terrible",
+    "http",
+    "İstanbul is amazing",
+    "\tTabs\tand\nnewlines\r\nhere ",
+    "hate hate hate hate",
+    "emoji only 😀😀😀",
+    "email@example.com support was awful",
+    "under_score @user_name_1 #hashtag",
+]
+
+
+def clean(text):
+    text = text.lower()
+    text = re.sub(r"http\S+", "", text, flags=re.ASCII)
+    text = re.sub(r"@\w+", "", text, flags=re.ASCII)
+    text = re.sub(r"[^a-zA-Z\s]", "", text, flags=re.ASCII)
+    text = re.sub(r"\s+", " ", text, flags=re.ASCII)
+    return text
+
+
+def tokenize(text):
+    """Java String.split("\\s"): keeps leading empty tokens, drops trailing ones."""
+    if text == "":
+        return [""]
+    tokens = re.split(r"[ \t\n\x0b\f\r]", text)
+    while tokens and tokens[-1] == "":
+        tokens.pop()
+    return tokens
+
+
+def features(text):
+    return [t for t in tokenize(clean(text)) if t not in STOP_WORDS]
+
+
+def fit_vocabulary(docs, vocab_size, min_df):
+    df = Counter()
+    tf = Counter()
+    for doc in docs:
+        tf.update(doc)
+        df.update(set(doc))
+    terms = [t for t in tf if df[t] >= min_df]
+    terms.sort(key=lambda t: (-tf[t], t))
+    vocab = terms[:vocab_size]
+    m = len(docs)
+    idf = [math.log((m + 1.0) / (df[t] + 1.0)) for t in vocab]
+    return vocab, idf
+
+
+def predict(model, text):
+    index = {t: i for i, t in enumerate(model["vocabulary"])}
+    counts = Counter(index[t] for t in features(text) if t in index)
+    x = {j: c * model["idf"][j] for j, c in counts.items()}
+    margins = [b + sum(row[j] * v for j, v in x.items())
+               for row, b in zip(model["coefficients"], model["intercepts"])]
+    labels = model["labels"]
+    if model["family"] == "binomial":
+        p1 = 1.0 / (1.0 + math.exp(-margins[0]))
+        return (labels[1], p1) if margins[0] > 0 else (labels[0], 1.0 - p1)
+    best = max(range(len(margins)), key=lambda k: (margins[k], -k))
+    top = margins[best]
+    total = sum(math.exp(m - top) for m in margins)
+    return labels[best], 1.0 / total
+
+
+def write(name, model, texts):
+    with open(os.path.join(OUT_DIR, f"{name}-model.json"), "w") as f:
+        json.dump(model, f)
+    with open(os.path.join(OUT_DIR, f"{name}-predictions.jsonl"), "w") as f:
+        for text in texts:
+            label, score = predict(model, text)
+            f.write(json.dumps({"text": text, "label": label, "score": score}) + "\n")
+
+
+def main():
+    with open(CSV_PATH, newline="", encoding="utf-8") as f:
+        texts = [row[3] for row in csv.reader(f) if len(row) >= 4 and row[3]]
+
+    docs = [features(t) for t in texts]
+    vocab, idf = fit_vocabulary(docs, vocab_size=1500, min_df=3)
+    rng = random.Random(42)
+
+    multinomial = {
+        "version": "fixture-multinomial",
+        "family": "multinomial",
+        "labels": ["Negative", "Positive", "Neutral"],
+        "vocabulary": vocab,
+        "idf": idf,
+        "coefficients": [[rng.gauss(0, 0.4) for _ in vocab] for _ in range(3)],
+        "intercepts": [rng.gauss(0, 0.2) for _ in range(3)],
+    }
+    binomial = {
+        "version": "fixture-binomial",
+        "family": "binomial",
+        "labels": ["Negative", "Positive"],
+        "vocabulary": vocab,
+        "idf": idf,
+        "coefficients": [[rng.gauss(0, 0.4) for _ in vocab]],
+        "intercepts": [rng.gauss(0, 0.2)],
+    }
+
+    samples = EDGE_CASES + texts[:400]
+    write("multinomial", multinomial, samples)
+    write("binomial", binomial, samples)
+    print(f"Wrote fixtures for {len(samples)} texts and {len(vocab)} terms to {OUT_DIR}")
+
+
+if __name__ == "__main__":
+    main()
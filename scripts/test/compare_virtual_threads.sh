@@ -0,0 +1,115 @@
+#!/bin/bash
+# =============================================================================
+# compare_virtual_threads.sh — Platform vs virtual thread comparison run
+#
+# Starts the backend jar twice, once per threading mode, drives the same
+# open-loop load profile at both with the loadgen module and reports:
+#   - Per-step achieved rate, p99 / p99.9 latency and pipeline throughput
+#     (loadgen compare, platform as the baseline, virtual as the candidate)
+#   - Virtual-thread pinning events (jdk.VirtualThreadPinned) from a JFR recording
+#
+# Usage:
+#   ./compare_virtual_threads.sh [OPTIONS]
+#
+# Options:
+#   -j  JAR       Backend jar                     (default: target/core-0.0.1-SNAPSHOT.jar)
+#   -l  JAR       Load generator jar              (default: loadgen/target/loadgen.jar)
+#   -r  PROFILE   loadgen ramp (from:to:step:dur) (default: 500:4000:500:30s)
+#   -m  N         Max requests in flight          (default: 10000)
+#   -o  DIR       Output directory                (default: target/vt-compare)
+#   -h            Show this help
+# =============================================================================
+
+set -euo pipefail
+
+# ── Defaults ──────────────────────────────────────────────────────────────────
+JAR="target/core-0.0.1-SNAPSHOT.jar"
+LOADGEN="loadgen/target/loadgen.jar"
+RAMP="500:4000:500:30s"
+MAX_IN_FLIGHT=10000
+OUT_DIR="target/vt-compare"
+PORT=8090
+
+# ── Colours ───────────────────────────────────────────────────────────────────
+RED='\033[0;31m'; GREEN='\033[0;32m'; YELLOW='\033[1;33m'
+CYAN='\033[0;36m'; BOLD='\033[1m'; RESET='\033[0m'
+
+# ── Argument parsing ──────────────────────────────────────────────────────────
+usage() {
+  sed -n '3,21p' "$0" | sed 's/^# \{0,2\}//'
+  exit 0
+}
+
+while getopts "j:l:r:m:o:h" opt; do
+  case $opt in
+    j) JAR=$OPTARG ;;
+    l) LOADGEN=$OPTARG ;;
+    r) RAMP=$OPTARG ;;
+    m) MAX_IN_FLIGHT=$OPTARG ;;
+    o) OUT_DIR=$OPTARG ;;
+    h) usage ;;
+    *) echo "Unknown option: -$OPTARG"; exit 1 ;;
+  esac
+done
+
+for tool in curl java jfr; do
+  if ! command -v "$tool" >/dev/null; then
+    echo -e "${RED}Missing required tool: ${tool}${RESET}"; exit 1
+  fi
+done
+[[ -f "$JAR" ]] || { echo -e "${RED}Jar not found: ${JAR} (run mvn package)${RESET}"; exit 1; }
+[[ -f "$LOADGEN" ]] || { echo -e "${RED}Jar not found: ${LOADGEN} (run mvn -f loadgen/pom.xml package)${RESET}"; exit 1; }
+
+# 10k client sockets plus 10k server sockets need a high descriptor limit
+ulimit -n 65536 2>/dev/null || echo -e "${YELLOW}Could not raise ulimit -n, high connection counts may fail${RESET}"
+mkdir -p "$OUT_DIR"
+
+APP_PID=""
+cleanup() { [[ -n "$APP_PID" ]] && kill "$APP_PID" 2>/dev/null || true; }
+trap cleanup EXIT
+
+# ── One run per mode ──────────────────────────────────────────────────────────
+run_mode() {
+  local mode=$1 virtual=$2
+  local jfr_file="${OUT_DIR}/${mode}.jfr"
+
+  echo -e "${CYAN}${BOLD}▶ ${mode}${RESET} (spring.threads.virtual.enabled=${virtual})"
+  java -XX:StartFlightRecording=filename="${jfr_file}",settings=profile,+jdk.VirtualThreadPinned#enabled=true,+jdk.VirtualThreadPinned#threshold=20ms \
+    -jar "$JAR" \
+    --spring.threads.virtual.enabled="$virtual" \
+    --ingest.rate-limit.enabled=false \
+    --server.port="$PORT" > "${OUT_DIR}/${mode}.log" 2>&1 &
+  APP_PID=$!
+
+  for _ in $(seq 1 60); do
+    curl -sf "http://localhost:${PORT}/api/health" >/dev/null && break
+    sleep 1
+  done
+
+  java -jar "$LOADGEN" run -url "http://localhost:${PORT}" -ramp "$RAMP" \
+    -max-in-flight "$MAX_IN_FLIGHT" -label "$mode" -out "${OUT_DIR}/${mode}.json" | tee "${OUT_DIR}/${mode}-load.txt"
+
+  kill "$APP_PID"; wait "$APP_PID" 2>/dev/null || true; APP_PID=""
+
+  local pinned
+  pinned=$(jfr summary "$jfr_file" | awk '$1 == "jdk.VirtualThreadPinned" { print $2 }')
+  echo "${mode} ${pinned:-0}" >> "${OUT_DIR}/pinned.txt"
+}
+
+: > "${OUT_DIR}/pinned.txt"
+run_mode platform false
+run_mode virtual true
+
+# ── Summary ───────────────────────────────────────────────────────────────────
+echo ""
+echo -e "${BOLD}platform -> virtual${RESET}"
+status=0
+java -jar "$LOADGEN" compare "${OUT_DIR}/platform.json" "${OUT_DIR}/virtual.json" \
+  | tee "${OUT_DIR}/summary.txt" || status=$?
+echo ""
+echo -e "${BOLD}Mode        pinned${RESET}"
+while read -r m n; do printf "%-12s%s\n" "$m" "$n"; done < "${OUT_DIR}/pinned.txt" | tee -a "${OUT_DIR}/summary.txt"
+echo ""
+echo -e "${GREEN}Results written to ${OUT_DIR}/summary.txt${RESET}"
+echo -e "Pinned stacks: ${CYAN}jfr print --events jdk.VirtualThreadPinned ${OUT_DIR}/virtual.jfr${RESET}"
+exit "$status"
@@ -2,9 +2,15 @@ from pyspark.ml.functions import vector_to_array
 from pyspark.sql.functions import expr
 from pyspark.ml import PipelineModel
 from pyspark.sql import SparkSession
-from pyspark.sql.functions import col, from_json, to_json, struct, udf, lower, regexp_replace
+from pyspark.sql.functions import col, from_json, to_json, struct, udf, lower, regexp_replace, lit, array, concat, when
+from pyspark.sql.streaming import StreamingQueryListener
 from pyspark.sql.types import StructType, StructField, StringType, LongType, DoubleType
+from kafka import KafkaConsumer, TopicPartition
+from kafka.structs import OffsetAndMetadata
+import json
 import random
+import os
+import time
 
 # 1. Create Spark session
 spark = (
@@ -13,6 +19,8 @@ spark = (
     # .master("local[*]")
     .config("spark.shuffle.service.enabled", "false")
     .config("spark.dynamicAllocation.enabled", "false")
+    # Publish query progress as driver gauges on /metrics/json/ (UI port 4040+)
+    .config("spark.sql.streaming.metricsEnabled", "true")
     .getOrCreate()
 )
 
@@ -24,6 +32,11 @@ model = PipelineModel.load(model_path)
 
 print("✓ Model loaded successfully")
 
+# Reported with every prediction so the backend can key cached results by model
+model_version = os.environ.get("MODEL_VERSION") or str(
+    int(os.path.getmtime(os.path.join(model_path, "metadata"))))
+print(f"✓ Model version: {model_version}")
+
 
 print("=" * 60)
 print("Spark Streaming with TRAINED Sentiment Model")
@@ -43,6 +56,8 @@ kafka_df = (
     .option("subscribe", "tweets.raw")
     .option("startingOffsets", "latest")
     .option("failOnDataLoss", "false")
+    # Stage timestamps (x-ts-*) travel as headers and are passed on to the output
+    .option("includeHeaders", "true")
     .load()
 )
 
@@ -54,12 +69,20 @@ schema = StructType([
 ])
 
 messages = kafka_df.select(
-    col("value").cast("string").alias("json_string")
+    col("value").cast("string").alias("json_string"),
+    col("headers")
 )
 
 parsed_df = messages.select(
-    from_json(col("json_string"), schema).alias("data")
-).select("data.*")
+    from_json(col("json_string"), schema).alias("data"),
+    col("headers")
+).select("data.*", "headers")
+
+# Stage timestamps in epoch nanoseconds: start of the micro-batch that read the
+# tweet, and the moment its prediction was produced
+parsed_df = parsed_df.withColumn(
+    "spark_in_ns", expr("unix_micros(current_timestamp()) * 1000"))
+epoch_nanos = udf(lambda: time.time_ns(), LongType()).asNondeterministic()
 
 parsed_df = parsed_df.withColumnRenamed("text", "cleaned_text")
 
@@ -85,24 +108,93 @@ predictions = predictions.withColumn(
 processed_df = predictions.select(
     col("tweetId"),
     col("predicted_label").alias("sentiment"),
-    col("prob_array")[col("prediction").cast("int")].alias("score")
-)
+    col("prob_array")[col("prediction").cast("int")].alias("score"),
+    col("headers"),
+    col("spark_in_ns")
+).withColumn("spark_out_ns", epoch_nanos())
 
 # Select output columns
 output_df = processed_df.select(
     col("tweetId"),
     col("sentiment"),
-    col("score")
+    col("score"),
+    col("headers"),
+    col("spark_in_ns"),
+    col("spark_out_ns")
 )
 
+
+def ts_header(key, column):
+    """Kafka header holding epoch nanoseconds as a decimal string."""
+    return struct(lit(key).alias("key"), col(column).cast("string").cast("binary").alias("value"))
+
+
+stage_headers = array(ts_header("x-ts-spark-in", "spark_in_ns"),
+                      ts_header("x-ts-spark-out", "spark_out_ns"))
+
 # Convert to JSON for Kafka
 kafka_output = output_df.select(
-    to_json(struct(col("tweetId"), col("sentiment"), col("score"))).alias("value")
+    to_json(struct(col("tweetId"), col("sentiment"), col("score"),
+                   lit(model_version).alias("modelVersion"))).alias("value"),
+    when(col("headers").isNull(), stage_headers)
+    .otherwise(concat(col("headers"), stage_headers)).alias("headers")
 )
 
-# 5. Write back to Kafka
+# 5. Report progress as a consumer group
+# Structured Streaming keeps its Kafka offsets in the checkpoint and never
+# commits them, so the backend's lag monitor could not see this job. After
+# every micro-batch the end offsets it read up to are committed to a named
+# group; the commit is only a progress report and is never read back.
+progress_group = os.environ.get("SPARK_PROGRESS_GROUP", "spark-tweet-sentiment")
+
+
+def offset_and_metadata(offset):
+    # kafka-python >= 2.1 added leader_epoch to OffsetAndMetadata
+    if len(OffsetAndMetadata._fields) == 3:
+        return OffsetAndMetadata(offset, "", -1)
+    return OffsetAndMetadata(offset, "")
+
+
+class ProgressCommitter(StreamingQueryListener):
+    def __init__(self):
+        self.consumer = KafkaConsumer(bootstrap_servers=kafka_server,
+                                      group_id=progress_group,
+                                      enable_auto_commit=False)
+
+    def onQueryStarted(self, event):
+        pass
+
+    def onQueryProgress(self, event):
+        offsets = {}
+        for source in event.progress.sources:
+            # {"tweets.raw": {"0": 1234, "1": 1180}}, the next offset to read
+            end = json.loads(source.endOffset) if source.endOffset else {}
+            if not isinstance(end, dict):
+                continue
+            for topic, partitions in end.items():
+                for partition, offset in partitions.items():
+                    offsets[TopicPartition(topic, int(partition))] = offset_and_metadata(offset)
+        if not offsets:
+            return
+        try:
+            self.consumer.commit(offsets)
+        except Exception as ex:
+            print(f"⚠ Could not commit progress for group {progress_group}: {ex}")
+
+    def onQueryIdle(self, event):
+        pass
+
+    def onQueryTerminated(self, event):
+        self.consumer.close()
+
+
+spark.streams.addListener(ProgressCommitter())
+print(f"✓ Committing progress as consumer group: {progress_group}")
+
+# 6. Write back to Kafka
 query = (
     kafka_output.writeStream
+    .queryName("tweet-sentiment")
     .format("kafka")
     .option("kafka.bootstrap.servers", kafka_server)
     .option("topic", "tweets.processed")
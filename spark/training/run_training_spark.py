@@ -10,7 +10,9 @@ from pyspark.ml.feature import (
 )
 from pyspark.ml.classification import LogisticRegression
 from pyspark.ml.evaluation import MulticlassClassificationEvaluator
+from pyspark.ml.functions import vector_to_array
 from pyspark.sql.functions import col, lower, regexp_replace, when
+import json
 import os
 
 
@@ -32,6 +34,8 @@ def main():
     train_path = f"{base_path}/twitter/twitter_training.csv"
     validation_path = f"{base_path}/twitter/twitter_validation.csv"
     model_output_path = f"{base_path}/models/spark_sentiment_model"
+    export_output_path = f"{base_path}/models/spark_sentiment_model_export.json"
+    parity_output_path = f"{base_path}/models/spark_sentiment_parity.jsonl"
 
     print(f"Loading training data from: {train_path}")
     print(f"Loading validation data from: {validation_path}")
@@ -92,6 +96,9 @@ def main():
         when(col("target") == "Irrelevant", "Neutral").otherwise(col("target"))
     )
 
+    # keep the raw text so parity samples can be replayed through the backend
+    val_df = val_df.withColumn("raw_text", col("cleaned_text"))
+
     val_df = val_df.withColumn("cleaned_text", lower(col("cleaned_text")))
     val_df = val_df.withColumn("cleaned_text", regexp_replace(
         col("cleaned_text"), r"http\S+", ""))
@@ -199,8 +206,56 @@ def main():
 
     print("Model saved successfully.")
 
+    # ===============================
+    # EXPORT FOR IN-JVM SCORING
+    # ===============================
+
+    export_model(model, label_model.labels, model_output_path, export_output_path)
+    export_parity_samples(predictions, parity_output_path)
+
     spark.stop()
 
 
+def export_model(model, labels, model_path, path):
+    """Writes vocabulary, IDF weights and LR coefficients as plain JSON so the
+    backend can score tweets without Spark (see SentimentModel.java)."""
+    cv_model, idf_model, lr_model = model.stages[2], model.stages[3], model.stages[4]
+    coefficients = lr_model.coefficientMatrix.toArray()
+
+    export = {
+        # same fallback as the streaming job so both report the same version
+        "version": os.environ.get("MODEL_VERSION") or str(
+            int(os.path.getmtime(os.path.join(model_path, "metadata")))),
+        "family": "binomial" if coefficients.shape[0] == 1 else "multinomial",
+        "labels": list(labels),
+        "vocabulary": list(cv_model.vocabulary),
+        "idf": idf_model.idf.toArray().tolist(),
+        "coefficients": coefficients.tolist(),
+        "intercepts": lr_model.interceptVector.toArray().tolist(),
+    }
+    with open(path, "w") as f:
+        json.dump(export, f)
+    print(f"Exported model for in-JVM scoring to {path}")
+
+
+def export_parity_samples(predictions, path, limit=1000):
+    """Writes raw text and Spark's prediction for a sample of validation rows,
+    used by SentimentModelParityTest."""
+    rows = (
+        predictions
+        .withColumn("prob_array", vector_to_array(col("probability")))
+        .select(
+            col("raw_text").alias("text"),
+            col("predicted_label").alias("label"),
+            col("prob_array")[col("prediction").cast("int")].alias("score"))
+        .limit(limit)
+        .collect()
+    )
+    with open(path, "w") as f:
+        for row in rows:
+            f.write(json.dumps(row.asDict()) + "\n")
+    print(f"Exported {len(rows)} parity samples to {path}")
+
+
 if __name__ == "__main__":
     main()
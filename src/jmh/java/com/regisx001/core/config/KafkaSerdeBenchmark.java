@@ -0,0 +1,83 @@
+package com.regisx001.core.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.regisx001.core.domain.dto.ProcessedTweetEvent;
+import com.regisx001.core.domain.dto.TweetEvent;
+
+/**
+ * Per-record cost of the Kafka value serde as configured in
+ * {@link KafkaProducerConfig} and {@link KafkaConsumerConfig}: serializing a
+ * {@link TweetEvent} for {@code tweets.raw} (type headers included) and
+ * deserializing a {@link ProcessedTweetEvent} as written by Spark, without type
+ * headers, through the {@link ErrorHandlingDeserializer} wrapper.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaSerdeBenchmark {
+
+    private JsonSerializer<TweetEvent> serializer;
+    private ErrorHandlingDeserializer<Object> deserializer;
+
+    private TweetEvent tweetEvent;
+    private byte[] processedPayload;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        serializer.configure(Map.of(), false);
+
+        Map<String, Object> props = new HashMap<>();
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, ProcessedTweetEvent.class.getName());
+        deserializer = new ErrorHandlingDeserializer<>();
+        deserializer.configure(props, false);
+
+        tweetEvent = new TweetEvent("1048576",
+                "Just installed the update and the app feels so much faster, great job @devteam https://t.co/x1y2z3",
+                1_767_225_600L);
+        processedPayload = "{\"tweetId\":\"1048576\",\"sentiment\":\"Positive\",\"score\":0.8731,\"modelVersion\":\"1767225600\"}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeTweetEvent() {
+        return serializer.serialize("tweets.raw", new RecordHeaders(), tweetEvent);
+    }
+
+    @Benchmark
+    public Object deserializeProcessedTweetEvent() {
+        return deserializer.deserialize("tweets.processed", new RecordHeaders(), processedPayload);
+    }
+}
@@ -0,0 +1,80 @@
+package com.regisx001.core.domain.entities;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.type.format.jackson.JacksonJsonFormatMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-entity cost of Hibernate's {@code jsonb} mapping of the two {@link Tweet}
+ * map columns, using the Jackson format mapper Hibernate selects with
+ * jackson-databind on the classpath.
+ * <ul>
+ * <li>{@code write}: binding both columns on insert or update</li>
+ * <li>{@code read}: extracting both columns on load, plus the deep copy of each
+ * Hibernate keeps as the dirty-checking snapshot (a JSON round trip)</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TweetJsonMappingBenchmark {
+
+    private JacksonJsonFormatMapper formatMapper;
+    private Type mapType;
+
+    private Map<String, Object> rawData;
+    private Map<String, Object> processedData;
+    private String rawJson;
+    private String processedJson;
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+        formatMapper = new JacksonJsonFormatMapper();
+        mapType = Tweet.class.getDeclaredField("rawData").getGenericType();
+
+        // Shapes written by TweetService and TweetConsumer
+        rawData = new HashMap<>();
+        rawData.put("text", "Just installed the update and the app feels so much faster, great job @devteam https://t.co/x1y2z3");
+        rawData.put("source", "api");
+        rawData.put("contentHash", "9f3b2c4d5e6a7b8c");
+        processedData = new HashMap<>();
+        processedData.put("sentiment", "POSITIVE");
+        processedData.put("score", 0.8731);
+
+        rawJson = formatMapper.toString(rawData, mapType);
+        processedJson = formatMapper.toString(processedData, mapType);
+    }
+
+    @Benchmark
+    public void write(Blackhole bh) {
+        bh.consume(formatMapper.toString(rawData, mapType));
+        bh.consume(formatMapper.toString(processedData, mapType));
+    }
+
+    @Benchmark
+    public void read(Blackhole bh) {
+        Map<String, Object> raw = formatMapper.fromString(rawJson, mapType);
+        Map<String, Object> processed = formatMapper.fromString(processedJson, mapType);
+        bh.consume(raw);
+        bh.consume(processed);
+        bh.consume(formatMapper.fromString(formatMapper.toString(raw, mapType), mapType));
+        bh.consume(formatMapper.fromString(formatMapper.toString(processed, mapType), mapType));
+    }
+}
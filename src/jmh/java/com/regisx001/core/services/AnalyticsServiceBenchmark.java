@@ -0,0 +1,68 @@
+package com.regisx001.core.services;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.regisx001.core.domain.dto.SentimentTimePoint;
+
+/**
+ * Cost of pivoting the native time-series rows into gap-filled
+ * {@link SentimentTimePoint}s, per report. 60 buckets is the dashboard's 1-hour
+ * minute view, 1440 a day of minutes; {@code downsampled} additionally reduces
+ * the series to 500 points with LTTB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsServiceBenchmark {
+
+    private static final String[] SENTIMENTS = { "NEGATIVE", "NEUTRAL", "POSITIVE" };
+
+    @Param({ "60", "1440" })
+    private int buckets;
+
+    private long first;
+
+    private List<Object[]> rows;
+
+    @Setup
+    public void setUp() {
+        // Same shape as TweetRepository.sentimentTimeSeries: one row per bucket
+        // and sentiment, ordered by bucket
+        first = LocalDateTime.of(2026, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        rows = new ArrayList<>(buckets * SENTIMENTS.length);
+        for (int i = 0; i < buckets; i++) {
+            for (String sentiment : SENTIMENTS) {
+                rows.add(new Object[] { first + i * 60L, sentiment, (long) (i % 17 + 1) });
+            }
+        }
+    }
+
+    @Benchmark
+    public List<SentimentTimePoint> pivotTimeSeries() {
+        return AnalyticsService.pivotTimeSeries(rows, first, 60, buckets, 0);
+    }
+
+    @Benchmark
+    public List<SentimentTimePoint> downsampled() {
+        return AnalyticsService.pivotTimeSeries(rows, first, 60, buckets, 500);
+    }
+}
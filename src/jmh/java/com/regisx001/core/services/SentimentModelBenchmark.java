@@ -0,0 +1,71 @@
+package com.regisx001.core.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Throughput of in-JVM scoring with {@link SentimentModel}, over the texts of
+ * the parity fixture (real tweets from the validation set plus edge cases).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SentimentModelBenchmark {
+
+    private SentimentModel model;
+    private String[] texts;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/scoring/multinomial-model.json")) {
+            model = SentimentModel.load(in);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/scoring/multinomial-predictions.jsonl"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(objectMapper.readTree(line).path("text").asText());
+            }
+        }
+        texts = lines.toArray(String[]::new);
+    }
+
+    @Benchmark
+    public SentimentModel.Prediction predict() {
+        String text = texts[next];
+        next = next + 1 == texts.length ? 0 : next + 1;
+        return model.predict(text);
+    }
+
+    @Benchmark
+    public int clean() {
+        String text = texts[next];
+        next = next + 1 == texts.length ? 0 : next + 1;
+        return TextNormalizer.clean(text, TextNormalizer.buffer(2 * text.length()));
+    }
+}
@@ -0,0 +1,37 @@
+package com.regisx001.core.services;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link TweetConsumer#mapSentiment} over the labels Spark produces,
+ * plus the fallback paths (lower case, padded, unknown).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TweetConsumerBenchmark {
+
+    private final String[] labels = { "Positive", "Negative", "Neutral", "Irrelevant", "positive", " Neutral ",
+            "Mixed" };
+    private int next;
+
+    @Benchmark
+    public String mapSentiment() {
+        String label = labels[next];
+        next = next + 1 == labels.length ? 0 : next + 1;
+        return TweetConsumer.mapSentiment(label);
+    }
+}
@@ -0,0 +1,94 @@
+package com.regisx001.core.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * In-JVM scoring of a burst of concurrent requests, each on its own task, as
+ * Tomcat runs them: on a 200-thread platform pool (Tomcat's default) or on one
+ * virtual thread per request ({@code spring.threads.virtual.enabled}). Platform
+ * threads reuse their {@link SentimentModel} scratch through a thread local;
+ * virtual threads borrow one from the model's bounded pool.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadScoringBenchmark {
+
+    private static final int REQUESTS = 1000;
+
+    @Param({ "platform", "virtual" })
+    private String threads;
+
+    private SentimentModel model;
+    private String[] texts;
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/scoring/multinomial-model.json")) {
+            model = SentimentModel.load(in);
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/scoring/multinomial-predictions.jsonl"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(objectMapper.readTree(line).path("text").asText());
+            }
+        }
+        texts = lines.toArray(String[]::new);
+        executor = threads.equals("virtual") ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(200);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+
+    /**
+     * Scores {@value #REQUESTS} texts, one task each, and waits for all.
+     */
+    @Benchmark
+    public double burst() throws Exception {
+        List<Future<SentimentModel.Prediction>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            String text = texts[i % texts.length];
+            futures.add(executor.submit(() -> model.predict(text)));
+        }
+        double sum = 0;
+        for (Future<SentimentModel.Prediction> future : futures) {
+            sum += future.get().score();
+        }
+        return sum;
+    }
+}
@@ -28,7 +28,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins(allowedOrigins)
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
-                .exposedHeaders("Content-Type", "Last-Event-ID")
+                .exposedHeaders("Content-Type", "Last-Event-ID", "Retry-After", "ETag", "Last-Modified")
                 .allowCredentials(false)
                 .maxAge(3600);
     }
@@ -5,13 +5,17 @@ import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -34,6 +38,33 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    /**
+     * Upper bound on the records returned by one poll, so a slow database
+     * never has more than one small batch in flight per consumer.
+     */
+    @Value("${spring.kafka.consumer.max-poll-records:100}")
+    private int maxPollRecords;
+
+    /**
+     * Whether listener containers run their consumers on virtual threads.
+     */
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Registry the Kafka client metrics are bound to.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a new KafkaConsumerConfig.
+     *
+     * @param meterRegistry the registry the consumer client metrics are bound to
+     */
+    public KafkaConsumerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Creates the ConsumerFactory.
      * 
@@ -44,6 +75,7 @@ public class KafkaConsumerConfig {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
         // Wrap deserializers with ErrorHandlingDeserializer
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
@@ -61,7 +93,10 @@ public class KafkaConsumerConfig {
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "com.regisx001.core.domain.dto.ProcessedTweetEvent");
 
-        return new DefaultKafkaConsumerFactory<>(props);
+        DefaultKafkaConsumerFactory<String, Object> factory = new DefaultKafkaConsumerFactory<>(props);
+        // Boot binds client metrics only for its own factory
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     /**
@@ -73,6 +108,10 @@ public class KafkaConsumerConfig {
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        if (virtualThreads) {
+            // Boot only applies this to its own factory, not to this one
+            factory.getContainerProperties().setListenerTaskExecutor(new VirtualThreadTaskExecutor("kafka-listener-"));
+        }
         return factory;
     }
 }
@@ -7,11 +7,14 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import com.regisx001.core.domain.dto.TweetEvent;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +30,23 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${spring.kafka.producer.max-block-ms:10000}")
+    private long maxBlockMs;
+
+    /**
+     * Registry the Kafka client metrics are bound to.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a new KafkaProducerConfig.
+     *
+     * @param meterRegistry the registry the producer client metrics are bound to
+     */
+    public KafkaProducerConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Creates the ProducerFactory for TweetEvent.
      * 
@@ -38,7 +58,11 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        DefaultKafkaProducerFactory<String, TweetEvent> factory = new DefaultKafkaProducerFactory<>(configProps);
+        // Boot binds client metrics only for its own factory
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     /**
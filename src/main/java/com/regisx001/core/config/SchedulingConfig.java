@@ -0,0 +1,13 @@
+package com.regisx001.core.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling {@code @Scheduled} background tasks such as
+ * limiter housekeeping.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
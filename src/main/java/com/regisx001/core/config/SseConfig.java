@@ -0,0 +1,45 @@
+package com.regisx001.core.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Configuration class for the scheduler SSE streams run their blocking work
+ * on.
+ */
+@Configuration
+public class SseConfig {
+
+    /**
+     * Maximum number of threads running blocking SSE work at once.
+     */
+    @Value("${sse.blocking-threads:8}")
+    private int blockingThreads;
+
+    /**
+     * Whether the blocking work runs on virtual threads.
+     */
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Creates the bounded scheduler for blocking JPA, JDBC and admin calls made
+     * by SSE streams, keeping them off Reactor's parallel (timer) scheduler.
+     * In virtual-thread mode the workers are virtual threads; the cap stays, as
+     * it protects the connection pool rather than the thread budget.
+     *
+     * @return the SSE blocking scheduler
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler sseBlockingScheduler() {
+        if (virtualThreads) {
+            return Schedulers.newBoundedElastic(blockingThreads, 10_000,
+                    Thread.ofVirtual().name("sse-blocking-", 0).factory(), 60);
+        }
+        return Schedulers.newBoundedElastic(blockingThreads, 10_000, "sse-blocking");
+    }
+}
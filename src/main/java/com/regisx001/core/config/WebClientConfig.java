@@ -1,10 +1,17 @@
 package com.regisx001.core.config;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
 @Configuration
 public class WebClientConfig {
 
@@ -15,4 +22,25 @@ public class WebClientConfig {
     public WebClient colabWebClient() {
         return WebClient.builder().baseUrl(COLAB_URL).build();
     }
+
+    /**
+     * Client for the Spark master and driver UIs, backed by a small pool of
+     * kept-alive connections and bounded by the health probe timeout.
+     *
+     * @return the Spark WebClient
+     */
+    @Bean
+    public WebClient sparkWebClient() {
+        ConnectionProvider pool = ConnectionProvider.builder("spark-probe")
+                .maxConnections(16)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5_000)
+                .responseTimeout(Duration.ofSeconds(5));
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(4 * 1024 * 1024))
+                .build();
+    }
 }
@@ -0,0 +1,45 @@
+package com.regisx001.core.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import com.regisx001.core.controllers.DashboardWebSocketHandler;
+
+/**
+ * Configuration class for the dashboard WebSocket endpoint.
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    /**
+     * Origins allowed to open the socket; the same list as for CORS.
+     */
+    @Value("${cors.allowed-origins:http://localhost:5173,http://localhost:4173}")
+    private String[] allowedOrigins;
+
+    private final DashboardWebSocketHandler dashboardWebSocketHandler;
+
+    /**
+     * Constructs a new WebSocketConfig.
+     *
+     * @param dashboardWebSocketHandler the handler of {@code /ws/dashboard}
+     */
+    public WebSocketConfig(DashboardWebSocketHandler dashboardWebSocketHandler) {
+        this.dashboardWebSocketHandler = dashboardWebSocketHandler;
+    }
+
+    /**
+     * Registers the multiplexed dashboard channel.
+     *
+     * @param registry the WebSocketHandlerRegistry
+     */
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(dashboardWebSocketHandler, "/ws/dashboard")
+                .setAllowedOrigins(allowedOrigins);
+    }
+}
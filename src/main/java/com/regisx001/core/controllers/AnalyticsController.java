@@ -6,6 +6,9 @@ import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
@@ -13,13 +16,25 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.regisx001.core.domain.dto.AnalyticsReport;
+import com.regisx001.core.domain.dto.ColumnarAnalyticsReport;
 import com.regisx001.core.domain.dto.LiveTweetDto;
+import com.regisx001.core.domain.dto.PipelineLatency;
+import com.regisx001.core.domain.dto.TrendingTerms;
 import com.regisx001.core.domain.entities.Tweet;
 import com.regisx001.core.repository.TweetRepository;
+import com.regisx001.core.services.AnalyticsDeltaEncoder;
+import com.regisx001.core.services.AnalyticsReportCache;
 import com.regisx001.core.services.AnalyticsService;
+import com.regisx001.core.services.PipelineLatencyTracker;
+import com.regisx001.core.services.SseStreamService;
+import com.regisx001.core.services.TimeBucket;
+import com.regisx001.core.services.TrendingTermTracker;
 
+import jakarta.servlet.http.HttpServletResponse;
 import reactor.core.publisher.Flux;
 
 /**
@@ -39,15 +54,45 @@ public class AnalyticsController {
      */
     private final TweetRepository tweetRepository;
 
+    /**
+     * Builder of the periodic SSE streams.
+     */
+    private final SseStreamService sseStreamService;
+
+    /**
+     * Per-stage pipeline latency figures.
+     */
+    private final PipelineLatencyTracker pipelineLatencyTracker;
+
+    /**
+     * Cache and validators of the REST reports.
+     */
+    private final AnalyticsReportCache analyticsReportCache;
+
+    /**
+     * Heavy-hitter sketches of the trending terms.
+     */
+    private final TrendingTermTracker trendingTermTracker;
+
     /**
      * Constructs a new AnalyticsController with the specified services.
      *
-     * @param analyticsService the service for generating analytics reports
-     * @param tweetRepository  the repository to access tweet records
+     * @param analyticsService       the service for generating analytics reports
+     * @param tweetRepository        the repository to access tweet records
+     * @param sseStreamService       the builder of the periodic SSE streams
+     * @param pipelineLatencyTracker the per-stage pipeline latency recorder
+     * @param analyticsReportCache   the cache of the REST reports
+     * @param trendingTermTracker    the trending-term sketches
      */
-    public AnalyticsController(AnalyticsService analyticsService, TweetRepository tweetRepository) {
+    public AnalyticsController(AnalyticsService analyticsService, TweetRepository tweetRepository,
+            SseStreamService sseStreamService, PipelineLatencyTracker pipelineLatencyTracker,
+            AnalyticsReportCache analyticsReportCache, TrendingTermTracker trendingTermTracker) {
         this.analyticsService = analyticsService;
         this.tweetRepository = tweetRepository;
+        this.sseStreamService = sseStreamService;
+        this.pipelineLatencyTracker = pipelineLatencyTracker;
+        this.analyticsReportCache = analyticsReportCache;
+        this.trendingTermTracker = trendingTermTracker;
     }
 
     // ---------------------------------------------------------------
@@ -57,23 +102,82 @@ public class AnalyticsController {
     /**
      * Streams a full analytics report over Server-Sent Events (SSE).
      *
-     * @param bucket  the bucket type for aggregation (e.g., "hour")
-     * @param hours   the time range in hours
-     * @param minutes the time range in minutes (overrides hours if non-negative)
+     * @param bucket    the bucket width (e.g., "hour", "5s", "15m", "6h")
+     * @param hours     the time range in hours
+     * @param minutes   the time range in minutes (overrides hours if
+     *                  non-negative)
+     * @param maxPoints the most time-series points per report (0 = no limit)
      * @return a Flux of ServerSentEvent containing the current analytics report
+     * @throws ResponseStatusException with 400 if the bucket or point limit is
+     *                                 invalid
      */
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<AnalyticsReport>> analyticsStream(
             @RequestParam(defaultValue = "hour") String bucket,
             @RequestParam(defaultValue = "60") int hours,
-            @RequestParam(defaultValue = "-1") int minutes) {
+            @RequestParam(defaultValue = "-1") int minutes,
+            @RequestParam(defaultValue = "0") int maxPoints) {
         int effectiveMinutes = minutes >= 0 ? minutes : hours * 60;
-        return Flux.interval(Duration.ZERO, Duration.ofSeconds(5))
-                .map(seq -> ServerSentEvent.<AnalyticsReport>builder()
-                        .id(String.valueOf(seq))
-                        .event("analytics")
-                        .data(analyticsService.getReport(bucket, effectiveMinutes))
-                        .build());
+        TimeBucket timeBucket = timeBucket(bucket, effectiveMinutes, maxPoints);
+        return sseStreamService.poll("analytics", Duration.ofSeconds(5), "analytics",
+                () -> analyticsService.getReport(timeBucket, effectiveMinutes, maxPoints));
+    }
+
+    /**
+     * Streams the analytics report with a columnar time series
+     * ({@code format=columnar}): parallel count arrays instead of one object per
+     * bucket.
+     *
+     * @param bucket    the bucket width (e.g., "hour", "5s", "15m", "6h")
+     * @param hours     the time range in hours
+     * @param minutes   the time range in minutes (overrides hours if
+     *                  non-negative)
+     * @param maxPoints the most time-series points per report (0 = no limit)
+     * @return a Flux of ServerSentEvent containing the current columnar report
+     * @throws ResponseStatusException with 400 if the bucket or point limit is
+     *                                 invalid
+     */
+    @GetMapping(value = "/stream", params = "format=columnar", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ColumnarAnalyticsReport>> columnarAnalyticsStream(
+            @RequestParam(defaultValue = "hour") String bucket,
+            @RequestParam(defaultValue = "60") int hours,
+            @RequestParam(defaultValue = "-1") int minutes,
+            @RequestParam(defaultValue = "0") int maxPoints) {
+        int effectiveMinutes = minutes >= 0 ? minutes : hours * 60;
+        TimeBucket timeBucket = timeBucket(bucket, effectiveMinutes, maxPoints);
+        return sseStreamService.poll("analytics", Duration.ofSeconds(5), "analytics",
+                () -> analyticsService.getColumnarReport(timeBucket, effectiveMinutes, maxPoints));
+    }
+
+    /**
+     * Streams the analytics report as deltas ({@code format=delta}): a
+     * {@code snapshot} event with the full columnar report first, then
+     * {@code delta} events carrying only the changed and appended buckets and
+     * the summary if it changed. Ticks without changes send nothing. Every
+     * connection, including a reconnect with {@code Last-Event-ID}, starts with
+     * a new snapshot.
+     *
+     * @param bucket    the bucket width (e.g., "hour", "5s", "15m", "6h")
+     * @param hours     the time range in hours
+     * @param minutes   the time range in minutes (overrides hours if
+     *                  non-negative)
+     * @param maxPoints the most time-series points per report (0 = no limit)
+     * @return a Flux of ServerSentEvent containing a snapshot, then deltas
+     * @throws ResponseStatusException with 400 if the bucket or point limit is
+     *                                 invalid
+     * @see AnalyticsDeltaEncoder
+     */
+    @GetMapping(value = "/stream", params = "format=delta", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> deltaAnalyticsStream(
+            @RequestParam(defaultValue = "hour") String bucket,
+            @RequestParam(defaultValue = "60") int hours,
+            @RequestParam(defaultValue = "-1") int minutes,
+            @RequestParam(defaultValue = "0") int maxPoints) {
+        int effectiveMinutes = minutes >= 0 ? minutes : hours * 60;
+        TimeBucket timeBucket = timeBucket(bucket, effectiveMinutes, maxPoints);
+        AnalyticsDeltaEncoder encoder = new AnalyticsDeltaEncoder();
+        return sseStreamService.pollEvents("analytics", Duration.ofSeconds(5),
+                seq -> encoder.encode(analyticsService.getColumnarReport(timeBucket, effectiveMinutes, maxPoints)));
     }
 
     // ---------------------------------------------------------------
@@ -87,34 +191,179 @@ public class AnalyticsController {
      */
     @GetMapping(value = "/live-feed/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<List<LiveTweetDto>>> liveFeedStream() {
-        return Flux.interval(Duration.ZERO, Duration.ofSeconds(5))
-                .map(seq -> ServerSentEvent.<List<LiveTweetDto>>builder()
-                        .id(String.valueOf(seq))
-                        .event("live-feed")
-                        .data(analyticsService.getLiveFeed(10))
-                        .build());
+        return sseStreamService.poll("live-feed", Duration.ofSeconds(5), "live-feed",
+                () -> analyticsService.getLiveFeed(10));
     }
 
     // ---------------------------------------------------------------
     // REST snapshot — one-shot report
-    // GET /api/analytics/report?bucket=hour&hours=24
+    // GET /api/analytics/report?bucket=15m&hours=24&maxPoints=500&quantiles=true
     // ---------------------------------------------------------------
     /**
      * Retrieves a point-in-time overall analytics report.
      *
-     * @param bucket  the bucket type for aggregation (default: "hour")
-     * @param hours   how many hours back to look (default: 60)
-     * @param minutes how many minutes to look back (overrides hours if
-     *                non-negative, default: -1)
-     * @return a ResponseEntity containing the analytics report
+     * @param bucket    the bucket width (default: "hour"; e.g. "5s", "15m",
+     *                  "6h")
+     * @param hours     how many hours back to look (default: 60)
+     * @param minutes   how many minutes to look back (overrides hours if
+     *                  non-negative, default: -1)
+     * @param maxPoints the most time-series points to return; longer series are
+     *                  downsampled (default: 0 = no limit)
+     * @param quantiles whether to add the p10/p50/p90 score series of each
+     *                  sentiment (default: false)
+     * @param request   the request, checked for If-None-Match and
+     *                  If-Modified-Since
+     * @return a ResponseEntity containing the analytics report, or {@code null}
+     *         after a 304 Not Modified has been set up
+     * @throws ResponseStatusException with 400 if the bucket or point limit is
+     *                                 invalid
      */
     @GetMapping("/report")
     public ResponseEntity<AnalyticsReport> report(
             @RequestParam(defaultValue = "hour") String bucket,
             @RequestParam(defaultValue = "60") int hours,
-            @RequestParam(defaultValue = "-1") int minutes) {
+            @RequestParam(defaultValue = "-1") int minutes,
+            @RequestParam(defaultValue = "0") int maxPoints,
+            @RequestParam(defaultValue = "false") boolean quantiles,
+            ServletWebRequest request) {
+        int effectiveMinutes = minutes >= 0 ? minutes : hours * 60;
+        TimeBucket timeBucket = timeBucket(bucket, effectiveMinutes, maxPoints);
+        AnalyticsReportCache.Version version = analyticsReportCache.version(timeBucket, effectiveMinutes, maxPoints,
+                quantiles);
+        if (notModified(request, version)) {
+            return null;
+        }
+        return conditional(version).body(analyticsReportCache.report(version));
+    }
+
+    /**
+     * Retrieves the analytics report with a columnar time series
+     * ({@code format=columnar}). Like every JSON endpoint it can also be
+     * requested as CBOR ({@code Accept: application/cbor}) or Smile
+     * ({@code Accept: application/x-jackson-smile}).
+     *
+     * @param bucket    the bucket width (default: "hour"; e.g. "5s", "15m",
+     *                  "6h")
+     * @param hours     how many hours back to look (default: 60)
+     * @param minutes   how many minutes to look back (overrides hours if
+     *                  non-negative, default: -1)
+     * @param maxPoints the most time-series points to return; longer series are
+     *                  downsampled (default: 0 = no limit)
+     * @param quantiles whether to add the p10/p50/p90 score series of each
+     *                  sentiment (default: false)
+     * @param request   the request, checked for If-None-Match and
+     *                  If-Modified-Since
+     * @return a ResponseEntity containing the columnar report, or {@code null}
+     *         after a 304 Not Modified has been set up
+     * @throws ResponseStatusException with 400 if the bucket or point limit is
+     *                                 invalid
+     */
+    @GetMapping(value = "/report", params = "format=columnar")
+    public ResponseEntity<ColumnarAnalyticsReport> columnarReport(
+            @RequestParam(defaultValue = "hour") String bucket,
+            @RequestParam(defaultValue = "60") int hours,
+            @RequestParam(defaultValue = "-1") int minutes,
+            @RequestParam(defaultValue = "0") int maxPoints,
+            @RequestParam(defaultValue = "false") boolean quantiles,
+            ServletWebRequest request) {
         int effectiveMinutes = minutes >= 0 ? minutes : hours * 60;
-        return ResponseEntity.ok(analyticsService.getReport(bucket, effectiveMinutes));
+        TimeBucket timeBucket = timeBucket(bucket, effectiveMinutes, maxPoints);
+        AnalyticsReportCache.Version version = analyticsReportCache.version(timeBucket, effectiveMinutes, maxPoints,
+                quantiles);
+        if (notModified(request, version)) {
+            return null;
+        }
+        return conditional(version).body(analyticsReportCache.columnar(version));
+    }
+
+    /**
+     * Answers a conditional GET whose validators still match with 304 Not
+     * Modified, before the report is built.
+     */
+    private static boolean notModified(ServletWebRequest request, AnalyticsReportCache.Version version) {
+        if (!request.checkNotModified(version.etag(), version.lastModifiedMillis())) {
+            return false;
+        }
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return true;
+    }
+
+    /**
+     * Starts a 200 response carrying the validators of the report. Caches must
+     * revalidate ({@code no-cache}), and JSON, CBOR and Smile are cached
+     * apart ({@code Vary: Accept}).
+     */
+    private static ResponseEntity.BodyBuilder conditional(AnalyticsReportCache.Version version) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(version.etag())
+                .lastModified(version.lastModifiedMillis());
+    }
+
+    /**
+     * Parses and checks the time-series parameters up front, so a bad request
+     * is rejected before an SSE stream starts.
+     */
+    private static TimeBucket timeBucket(String bucket, int lookbackMinutes, int maxPoints) {
+        if (maxPoints != 0 && maxPoints < 3) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxPoints must be 0 or at least 3");
+        }
+        try {
+            TimeBucket timeBucket = TimeBucket.parse(bucket);
+            timeBucket.count(lookbackMinutes);
+            return timeBucket;
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // REST — trending terms and hashtags per sentiment
+    // GET /api/analytics/trending?window=5m&sentiment=NEGATIVE&limit=10
+    // ---------------------------------------------------------------
+    /**
+     * Retrieves the most frequent terms and hashtags of each sentiment in a
+     * sliding window, from streaming heavy-hitter sketches.
+     *
+     * @param window    the window: {@code 5m}, {@code 1h} or {@code 24h}
+     *                  (default: 1h)
+     * @param sentiment only report this sentiment (POSITIVE, NEGATIVE or
+     *                  NEUTRAL; default: all three)
+     * @param limit     the most terms per sentiment (default: 10)
+     * @return a ResponseEntity containing the trending terms
+     * @throws ResponseStatusException with 400 if a parameter is invalid
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<TrendingTerms> trending(
+            @RequestParam(defaultValue = "1h") String window,
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(
+                    trendingTermTracker.trending(TrendingTermTracker.Window.parse(window), sentiment, limit));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // REST — per-stage pipeline latency
+    // GET /api/analytics/latency
+    // ---------------------------------------------------------------
+    /**
+     * Retrieves the latency percentiles of each pipeline stage, from ingestion
+     * to the persisted sentiment result.
+     *
+     * @return a ResponseEntity containing the per-stage latency figures
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<PipelineLatency> latency() {
+        return ResponseEntity.ok(pipelineLatencyTracker.report());
     }
 
     // ---------------------------------------------------------------
@@ -0,0 +1,315 @@
+package com.regisx001.core.controllers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.regisx001.core.domain.dto.ColumnarAnalyticsReport;
+import com.regisx001.core.domain.dto.DashboardCommand;
+import com.regisx001.core.services.AnalyticsDeltaEncoder;
+import com.regisx001.core.services.DashboardTopicHub;
+import com.regisx001.core.services.DashboardTopicHub.TopicMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Multiplexed dashboard channel at {@code /ws/dashboard}: one WebSocket
+ * carries every dashboard stream instead of one SSE connection each.
+ * <p>
+ * The client sends JSON commands ({@link DashboardCommand}) to subscribe to
+ * and unsubscribe from the topics of {@link DashboardTopicHub}, each under a
+ * channel ID of its choosing and at its own period. Data frames are the
+ * three-element array {@code [channelId, event, payload]}, where the event is
+ * named as on the matching SSE stream: JSON text frames by default, CBOR
+ * binary frames when the socket is opened with {@code ?encoding=cbor}. Control
+ * replies ({@code subscribed}, {@code error}) are JSON objects. The
+ * {@code analytics} topic is sent as a {@code snapshot} event followed by
+ * {@code delta} events, encoded per channel by an
+ * {@link AnalyticsDeltaEncoder}; subscribing again under the same ID restarts
+ * it with a snapshot.
+ * <p>
+ * Writes go through a {@link ConcurrentWebSocketSessionDecorator}. The thread
+ * that holds its send lock writes to the socket; a frame sent while another
+ * frame is being written is queued in the decorator instead. So each channel
+ * has at most one frame of its own in flight, and keeps only its latest
+ * message while that frame blocks, but frames of the other channels still
+ * queue behind it. The queue is bounded by {@code ws.buffer-size-limit}
+ * bytes, and a client whose write stays blocked for
+ * {@code ws.send-time-limit-ms} or whose queue passes that limit is
+ * disconnected.
+ */
+@Slf4j
+@Component
+public class DashboardWebSocketHandler extends TextWebSocketHandler {
+
+    private final DashboardTopicHub hub;
+    private final JsonMapper jsonMapper;
+    private final CBORMapper cborMapper;
+    private final int maxSessions;
+    private final int maxChannels;
+    private final int sendTimeLimitMillis;
+    private final int bufferSizeLimit;
+
+    private final ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final Counter rejectedSessions;
+
+    /**
+     * Constructs a new DashboardWebSocketHandler.
+     *
+     * @param hub                 the shared topic producers
+     * @param jsonMapper          the mapper of commands and JSON frames
+     * @param cborMapper          the mapper of CBOR frames
+     * @param meterRegistry       the registry connection metrics are bound to
+     * @param maxSessions         the most open connections
+     * @param maxChannels         the most channels per connection
+     * @param sendTimeLimitMillis the longest a write may block before the
+     *                            client is disconnected
+     * @param bufferSizeLimit     the most bytes buffered for a client before it
+     *                            is disconnected
+     */
+    public DashboardWebSocketHandler(DashboardTopicHub hub, JsonMapper jsonMapper, CBORMapper cborMapper,
+            MeterRegistry meterRegistry,
+            @Value("${ws.max-sessions:200}") int maxSessions,
+            @Value("${ws.max-channels-per-session:16}") int maxChannels,
+            @Value("${ws.send-time-limit-ms:10000}") int sendTimeLimitMillis,
+            @Value("${ws.buffer-size-limit:524288}") int bufferSizeLimit) {
+        this.hub = hub;
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = cborMapper;
+        this.maxSessions = maxSessions;
+        this.maxChannels = maxChannels;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.bufferSizeLimit = bufferSizeLimit;
+        Gauge.builder("ws.sessions", sessions, AtomicInteger::get)
+                .description("Open dashboard WebSocket connections")
+                .register(meterRegistry);
+        this.rejectedSessions = Counter.builder("ws.sessions.rejected")
+                .description("Dashboard WebSocket connections refused at the session cap")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        if (sessions.incrementAndGet() > maxSessions) {
+            sessions.decrementAndGet();
+            rejectedSessions.increment();
+            session.close(CloseStatus.SERVICE_OVERLOAD);
+            return;
+        }
+        String encoding = session.getUri() == null ? null
+                : UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("encoding");
+        connections.put(session.getId(), new Connection(
+                new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMillis, bufferSizeLimit),
+                "cbor".equalsIgnoreCase(encoding)));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        Connection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+        DashboardCommand command;
+        try {
+            command = jsonMapper.readValue(message.getPayload(), DashboardCommand.class);
+        } catch (JacksonException ex) {
+            connection.control("error", 0, "Malformed command");
+            return;
+        }
+        if (command == null) {
+            // a "null" text frame parses to no command at all
+            connection.control("error", 0, "Malformed command");
+            return;
+        }
+        switch (command.op() == null ? "" : command.op()) {
+            case "subscribe" -> connection.subscribe(command);
+            case "unsubscribe" -> connection.unsubscribe(command.id());
+            default -> connection.control("error", command.id(), "Unknown op '" + command.op() + "'");
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws IOException {
+        log.debug("Dashboard WebSocket {} failed: {}", session.getId(), exception.getMessage());
+        session.close(CloseStatus.SERVER_ERROR);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Connection connection = connections.remove(session.getId());
+        if (connection != null) {
+            connection.close();
+            sessions.decrementAndGet();
+        }
+    }
+
+    // ---------------------------------------------------------------
+    // Per-connection state
+    // ---------------------------------------------------------------
+
+    private final class Connection {
+
+        private final WebSocketSession session;
+        private final boolean cbor;
+        private final ConcurrentHashMap<Integer, Disposable> channels = new ConcurrentHashMap<>();
+
+        Connection(WebSocketSession session, boolean cbor) {
+            this.session = session;
+            this.cbor = cbor;
+        }
+
+        void subscribe(DashboardCommand command) {
+            int id = command.id();
+            if (!channels.containsKey(id) && channels.size() >= maxChannels) {
+                control("error", id, "At most " + maxChannels + " channels per connection");
+                return;
+            }
+            TopicChannel channel = new TopicChannel(id, command.topic(),
+                    "analytics".equals(command.topic()) ? new AnalyticsDeltaEncoder() : null);
+            Disposable subscription;
+            try {
+                subscription = hub.topic(command.topic(), command.params(),
+                        command.periodMs() == null ? null : Duration.ofMillis(command.periodMs()))
+                        // while this channel's write blocks, keep only its latest
+                        // message; frames queued by the decorator for other
+                        // channels count against ws.buffer-size-limit
+                        .onBackpressureLatest()
+                        .publishOn(Schedulers.boundedElastic(), 1)
+                        .subscribe(channel::send, ex -> failed(id, ex));
+            } catch (IllegalArgumentException ex) {
+                control("error", id, ex.getMessage());
+                return;
+            }
+            Disposable previous = channels.put(id, subscription);
+            if (previous != null) {
+                previous.dispose();
+            }
+            control("subscribed", id, null);
+        }
+
+        void failed(int id, Throwable ex) {
+            log.warn("Dashboard WebSocket {} channel {} failed", session.getId(), id, ex);
+            // the failed subscription is already disposed; free its slot
+            channels.values().removeIf(Disposable::isDisposed);
+            control("error", id, "Channel failed: " + ex.getMessage());
+        }
+
+        void unsubscribe(int id) {
+            Disposable subscription = channels.remove(id);
+            if (subscription != null) {
+                subscription.dispose();
+            }
+        }
+
+        void close() {
+            channels.values().forEach(Disposable::dispose);
+            channels.clear();
+        }
+
+        void control(String op, int id, String message) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("op", op);
+            body.put("id", id);
+            if (message != null) {
+                body.put("message", message);
+            }
+            write(new TextMessage(jsonMapper.writeValueAsString(body)));
+        }
+
+        void write(WebSocketMessage<?> message) {
+            try {
+                session.sendMessage(message);
+            } catch (IOException | RuntimeException ex) {
+                // includes the decorator's SessionLimitExceededException, which
+                // has already closed the session
+                log.debug("Dropping dashboard WebSocket {}: {}", session.getId(), ex.getMessage());
+                try {
+                    session.close(CloseStatus.SESSION_NOT_RELIABLE);
+                } catch (IOException closeEx) {
+                    // already gone; afterConnectionClosed cleans up
+                }
+            }
+        }
+
+        /**
+         * One subscribed topic of the connection.
+         */
+        private final class TopicChannel {
+
+            private final int id;
+            private final String topic;
+            private final AnalyticsDeltaEncoder encoder;
+
+            TopicChannel(int id, String topic, AnalyticsDeltaEncoder encoder) {
+                this.id = id;
+                this.topic = topic;
+                this.encoder = encoder;
+            }
+
+            void send(TopicMessage message) {
+                String eventName;
+                byte[] payload;
+                if (encoder != null) {
+                    ServerSentEvent<Object> event = encoder.encode((ColumnarAnalyticsReport) message.payload());
+                    if (event == null) {
+                        return;
+                    }
+                    eventName = event.event();
+                    payload = cbor ? cborMapper.writeValueAsBytes(event.data())
+                            : jsonMapper.writeValueAsBytes(event.data());
+                } else {
+                    eventName = topic;
+                    payload = cbor ? message.cbor() : message.json();
+                }
+                write(cbor ? new BinaryMessage(cborFrame(eventName, payload))
+                        : new TextMessage(jsonFrame(eventName, payload)));
+            }
+
+            private byte[] jsonFrame(String eventName, byte[] payload) {
+                byte[] prefix = ("[" + id + "," + jsonMapper.writeValueAsString(eventName) + ",")
+                        .getBytes(StandardCharsets.UTF_8);
+                byte[] frame = new byte[prefix.length + payload.length + 1];
+                System.arraycopy(prefix, 0, frame, 0, prefix.length);
+                System.arraycopy(payload, 0, frame, prefix.length, payload.length);
+                frame[frame.length - 1] = ']';
+                return frame;
+            }
+
+            private byte[] cborFrame(String eventName, byte[] payload) {
+                ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.length + 24);
+                // definite-length array of three items: the ID, event and payload
+                frame.write(0x83);
+                frame.writeBytes(cborMapper.writeValueAsBytes(id));
+                frame.writeBytes(cborMapper.writeValueAsBytes(eventName));
+                frame.writeBytes(payload);
+                return frame.toByteArray();
+            }
+        }
+    }
+}
@@ -10,12 +10,15 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.regisx001.core.domain.dto.ConsumerGroupLag;
 import com.regisx001.core.domain.dto.DetailedHealthReport;
 import com.regisx001.core.domain.dto.HealthReport;
 import com.regisx001.core.domain.dto.IntentHealthResponse;
+import com.regisx001.core.domain.dto.PostgresDiagnostics;
 import com.regisx001.core.domain.dto.ServiceHealth;
-import com.regisx001.core.services.HealthCheckService;
-import com.regisx001.core.services.IntentHealthService;
+import com.regisx001.core.services.HealthSnapshotCollector;
+import com.regisx001.core.services.PostgresDiagnosticsService;
+import com.regisx001.core.services.SseStreamService;
 
 import reactor.core.publisher.Flux;
 
@@ -24,12 +27,15 @@ import reactor.core.publisher.Flux;
 // @RequiredArgsConstructor
 public class HealthController {
 
-    private final HealthCheckService healthCheckService;
-    private final IntentHealthService intentHealthService;
+    private final HealthSnapshotCollector healthSnapshotCollector;
+    private final PostgresDiagnosticsService postgresDiagnosticsService;
+    private final SseStreamService sseStreamService;
 
-    public HealthController(HealthCheckService healthCheckService, IntentHealthService intentHealthService) {
-        this.healthCheckService = healthCheckService;
-        this.intentHealthService = intentHealthService;
+    public HealthController(HealthSnapshotCollector healthSnapshotCollector,
+            PostgresDiagnosticsService postgresDiagnosticsService, SseStreamService sseStreamService) {
+        this.healthSnapshotCollector = healthSnapshotCollector;
+        this.postgresDiagnosticsService = postgresDiagnosticsService;
+        this.sseStreamService = sseStreamService;
     }
 
     // ---------------------------------------------------------------
@@ -38,12 +44,7 @@ public class HealthController {
     // ---------------------------------------------------------------
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<HealthReport>> healthStream() {
-        return Flux.interval(Duration.ZERO, Duration.ofSeconds(3))
-                .map(seq -> ServerSentEvent.<HealthReport>builder()
-                        .id(String.valueOf(seq))
-                        .event("health")
-                        .data(buildReport())
-                        .build());
+        return sseStreamService.poll("health", Duration.ofSeconds(3), "health", this::buildReport);
     }
 
     // ---------------------------------------------------------------
@@ -52,12 +53,17 @@ public class HealthController {
     // ---------------------------------------------------------------
     @GetMapping(value = "/details/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<DetailedHealthReport>> detailsStream() {
-        return Flux.interval(Duration.ZERO, Duration.ofSeconds(3))
-                .map(seq -> ServerSentEvent.<DetailedHealthReport>builder()
-                        .id(String.valueOf(seq))
-                        .event("health-details")
-                        .data(buildDetailedReport())
-                        .build());
+        return sseStreamService.poll("health-details", Duration.ofSeconds(3), "health-details",
+                this::buildDetailedReport);
+    }
+
+    // ---------------------------------------------------------------
+    // SSE – consumer-group lag stream (every 3 s)
+    // GET /api/health/lag/stream
+    // ---------------------------------------------------------------
+    @GetMapping(value = "/lag/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<List<ConsumerGroupLag>>> lagStream() {
+        return sseStreamService.poll("consumer-lag", Duration.ofSeconds(3), "consumer-lag", this::consumerLag);
     }
 
     // ---------------------------------------------------------------
@@ -66,13 +72,8 @@ public class HealthController {
     // ---------------------------------------------------------------
     @GetMapping(value = "/intent/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<ServerSentEvent<IntentHealthResponse>> intentHealthStream() {
-        return Flux.interval(Duration.ZERO, Duration.ofSeconds(3))
-                .flatMap(seq -> intentHealthService.fetchHealth()
-                        .map(health -> ServerSentEvent.<IntentHealthResponse>builder()
-                                .id(String.valueOf(seq))
-                                .event("intent-health")
-                                .data(health)
-                                .build()));
+        return sseStreamService.poll("intent-health", Duration.ofSeconds(3), "intent-health",
+                () -> healthSnapshotCollector.snapshot().details().intent());
     }
 
     // ---------------------------------------------------------------
@@ -91,35 +92,55 @@ public class HealthController {
         return ResponseEntity.status("UP".equals(report.overall()) ? 200 : 207).body(report);
     }
 
+    @GetMapping("/lag")
+    public ResponseEntity<List<ConsumerGroupLag>> lag() {
+        return ResponseEntity.ok(consumerLag());
+    }
+
     @GetMapping("/postgres")
     public ResponseEntity<ServiceHealth> postgresHealth() {
-        return toResponse(healthCheckService.checkPostgres());
+        return toResponse(healthSnapshotCollector.snapshot().service("PostgreSQL"));
+    }
+
+    // Latest scheduled sample; 404 unless health.postgres.diagnostics.enabled
+    @GetMapping("/postgres/diagnostics")
+    public ResponseEntity<PostgresDiagnostics> postgresDiagnostics() {
+        if (!postgresDiagnosticsService.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        PostgresDiagnostics diagnostics = postgresDiagnosticsService.latest();
+        return diagnostics != null ? ResponseEntity.ok(diagnostics) : ResponseEntity.noContent().build();
     }
 
     @GetMapping("/kafka")
     public ResponseEntity<ServiceHealth> kafkaHealth() {
-        return toResponse(healthCheckService.checkKafka());
+        return toResponse(healthSnapshotCollector.snapshot().service("Kafka"));
     }
 
     @GetMapping("/spark")
     public ResponseEntity<ServiceHealth> sparkHealth() {
-        return toResponse(healthCheckService.checkSpark());
+        return toResponse(healthSnapshotCollector.snapshot().service("Spark"));
+    }
+
+    @GetMapping("/intent")
+    public ResponseEntity<ServiceHealth> intentHealth() {
+        return toResponse(healthSnapshotCollector.snapshot().service("Intent"));
     }
 
+    // ---------------------------------------------------------------
+    // All endpoints read the collector's shared snapshot; none probe.
     // ---------------------------------------------------------------
 
     private HealthReport buildReport() {
-        return HealthReport.of(List.of(
-                healthCheckService.checkPostgres(),
-                healthCheckService.checkKafka(),
-                healthCheckService.checkSpark()));
+        return healthSnapshotCollector.snapshot().report();
     }
 
     private DetailedHealthReport buildDetailedReport() {
-        return DetailedHealthReport.of(
-                healthCheckService.postgresMetrics(),
-                healthCheckService.kafkaMetrics(),
-                healthCheckService.sparkMetrics());
+        return healthSnapshotCollector.snapshot().details();
+    }
+
+    private List<ConsumerGroupLag> consumerLag() {
+        return healthSnapshotCollector.snapshot().details().kafka().consumerGroups();
     }
 
     private ResponseEntity<ServiceHealth> toResponse(ServiceHealth health) {
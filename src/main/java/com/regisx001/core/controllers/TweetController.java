@@ -2,15 +2,23 @@ package com.regisx001.core.controllers;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.regisx001.core.domain.dto.SourceRateStats;
 import com.regisx001.core.domain.entities.Tweet;
+import com.regisx001.core.services.DuplicateTextFilter;
+import com.regisx001.core.services.SourceRateLimiter;
 import com.regisx001.core.services.TweetService;
 
 /**
@@ -26,32 +34,84 @@ public class TweetController {
     private final TweetService tweetService;
 
     /**
-     * Constructs a new TweetController with the specified TweetService.
+     * Per-source admission control applied before a tweet is ingested.
+     */
+    private final SourceRateLimiter sourceRateLimiter;
+
+    /**
+     * Optional duplicate-text suppression applied before a tweet is ingested.
+     */
+    private final DuplicateTextFilter duplicateTextFilter;
+
+    /**
+     * Constructs a new TweetController with the specified services.
      *
-     * @param tweetService the service to be used for tweet operations
+     * @param tweetService        the service to be used for tweet operations
+     * @param sourceRateLimiter   the limiter guarding ingestion per source
+     * @param duplicateTextFilter the dedup stage in front of ingestion
      */
-    public TweetController(TweetService tweetService) {
+    public TweetController(TweetService tweetService, SourceRateLimiter sourceRateLimiter,
+            DuplicateTextFilter duplicateTextFilter) {
         this.tweetService = tweetService;
+        this.sourceRateLimiter = sourceRateLimiter;
+        this.duplicateTextFilter = duplicateTextFilter;
     }
 
     /**
      * Creates a new tweet based on the provided payload.
      *
      * @param payload a map containing the tweet text and optionally its source
-     * @return a ResponseEntity containing the created tweet, or a bad request
-     *         response if the text is invalid
+     * @return a ResponseEntity containing the created tweet, a bad request
+     *         response if the text is invalid, 429 with Retry-After if the
+     *         source has exhausted its rate limit, or 202 without a body if the
+     *         text is a duplicate and duplicates are dropped
      */
     @PostMapping
     public ResponseEntity<Tweet> createTweet(@RequestBody Map<String, String> payload) {
         String text = payload.get("text");
-        String source = payload.getOrDefault("source", "api");
-        if (text == null || text.isBlank()) {
-            return ResponseEntity.badRequest().build();
+        String source = source(payload);
+        ResponseEntity<Tweet> rejection = checkAdmission(text, source);
+        if (rejection != null) {
+            return rejection;
+        }
+        boolean duplicate = duplicateTextFilter.checkAndRecord(text);
+        if (duplicate && duplicateTextFilter.mode() == DuplicateTextFilter.Mode.DROP) {
+            return ResponseEntity.accepted().build();
         }
-        Tweet created = tweetService.createTweet(text, source);
+        Tweet created = tweetService.createTweet(text, source, duplicate);
         return ResponseEntity.ok(created);
     }
 
+    /**
+     * Creates a new tweet and waits up to {@code wait} milliseconds for its
+     * sentiment result without holding a request thread.
+     *
+     * @param payload a map containing the tweet text and optionally its source
+     * @param wait    the maximum time to wait for the result, in milliseconds
+     * @return a future of a ResponseEntity containing the processed tweet, or
+     *         202 with the unprocessed tweet (and its ID) if the result did not
+     *         arrive in time; rejections are answered as in
+     *         {@link #createTweet(Map)}
+     */
+    @PostMapping(params = "wait")
+    public CompletableFuture<ResponseEntity<Tweet>> createTweetAndWait(@RequestBody Map<String, String> payload,
+            @RequestParam long wait) {
+        String text = payload.get("text");
+        String source = source(payload);
+        ResponseEntity<Tweet> rejection = checkAdmission(text, source);
+        if (rejection != null) {
+            return CompletableFuture.completedFuture(rejection);
+        }
+        boolean duplicate = duplicateTextFilter.checkAndRecord(text);
+        if (duplicate && duplicateTextFilter.mode() == DuplicateTextFilter.Mode.DROP) {
+            return CompletableFuture.completedFuture(ResponseEntity.accepted().build());
+        }
+        return tweetService.createTweetAndWait(text, source, duplicate, wait)
+                .thenApply(tweet -> tweet.getProcessedAt() != null
+                        ? ResponseEntity.ok(tweet)
+                        : ResponseEntity.accepted().body(tweet));
+    }
+
     /**
      * Retrieves a list of all tweets.
      *
@@ -61,4 +121,45 @@ public class TweetController {
     public ResponseEntity<List<Tweet>> listTweets() {
         return ResponseEntity.ok(tweetService.getAllTweets());
     }
+
+    /**
+     * Returns the ingest source of a payload; a missing, null or blank source
+     * is {@code api}.
+     */
+    private static String source(Map<String, String> payload) {
+        String source = payload.get("source");
+        return source == null || source.isBlank() ? "api" : source;
+    }
+
+    /**
+     * Validates the payload and applies the per-source rate limit.
+     *
+     * @param text   the tweet text
+     * @param source the ingest source
+     * @return the rejection response, or {@code null} if the tweet is admitted
+     */
+    private ResponseEntity<Tweet> checkAdmission(String text, String source) {
+        if (text == null || text.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        long waitNanos = sourceRateLimiter.tryAcquire(source);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1;
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .build();
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the admission-control state of every tracked ingest source.
+     *
+     * @return a ResponseEntity containing limits, observed rates and rejection
+     *         counts per source
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<List<SourceRateStats>> rateLimits() {
+        return ResponseEntity.ok(sourceRateLimiter.stats());
+    }
 }
@@ -0,0 +1,30 @@
+package com.regisx001.core.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Change to the analytics state, sent as the {@code delta} event of the delta
+ * stream ({@code format=delta}). A client holding {@code baseVersion} applies
+ * it as follows: drop points before {@code start}, drop the buckets in
+ * {@code removed}, then insert or replace the buckets in {@code upserts}. A
+ * client holding any other version must reconnect to get a new snapshot.
+ *
+ * @param version     the state version after applying this delta
+ * @param baseVersion the state version this delta applies to
+ * @param summary     the new summary, or {@code null} if unchanged
+ * @param start       the start of the window's first bucket, in epoch seconds
+ * @param removed     bucket numbers (relative to {@code start}) no longer in
+ *                    the series, or {@code null} if none; only happens when the
+ *                    series is downsampled
+ * @param upserts     changed and new buckets; {@code upserts.index} holds their
+ *                    bucket numbers relative to {@code start}
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AnalyticsDelta(
+                long version,
+                long baseVersion,
+                AnalyticsSummary summary,
+                long start,
+                int[] removed,
+                ColumnarTimeSeries upserts) {
+}
@@ -2,14 +2,30 @@ package com.regisx001.core.domain.dto;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Represents a comprehensive analytics report containing global summary metrics
  * and a time-series of sentiment data points.
  *
- * @param summary    the overall analytics summary
- * @param timeSeries the sequence of sentiment points over time
+ * @param summary        the overall analytics summary
+ * @param timeSeries     the sequence of sentiment points over time
+ * @param scoreQuantiles the score quantiles of each point, or {@code null} if
+ *                       not requested
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record AnalyticsReport(
                 AnalyticsSummary summary,
-                List<SentimentTimePoint> timeSeries) {
+                List<SentimentTimePoint> timeSeries,
+                SentimentScoreQuantiles scoreQuantiles) {
+
+    /**
+     * Creates a report without score quantiles.
+     *
+     * @param summary    the overall analytics summary
+     * @param timeSeries the sequence of sentiment points over time
+     */
+    public AnalyticsReport(AnalyticsSummary summary, List<SentimentTimePoint> timeSeries) {
+        this(summary, timeSeries, null);
+    }
 }
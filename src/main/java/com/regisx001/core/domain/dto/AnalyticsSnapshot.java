@@ -0,0 +1,16 @@
+package com.regisx001.core.domain.dto;
+
+/**
+ * Full analytics state sent as the {@code snapshot} event of the delta stream
+ * ({@code format=delta}); later {@link AnalyticsDelta} events apply on top of
+ * it.
+ *
+ * @param version    the state version; the next delta's {@code baseVersion}
+ * @param summary    the overall analytics summary
+ * @param timeSeries the full columnar time series
+ */
+public record AnalyticsSnapshot(
+                long version,
+                AnalyticsSummary summary,
+                ColumnarTimeSeries timeSeries) {
+}
@@ -0,0 +1,30 @@
+package com.regisx001.core.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * {@link AnalyticsReport} with the time series in columnar form, returned for
+ * {@code format=columnar}.
+ *
+ * @param summary        the overall analytics summary
+ * @param timeSeries     the sentiment counts per bucket, one array per
+ *                       sentiment
+ * @param scoreQuantiles the score quantiles of each point, or {@code null} if
+ *                       not requested
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ColumnarAnalyticsReport(
+                AnalyticsSummary summary,
+                ColumnarTimeSeries timeSeries,
+                SentimentScoreQuantiles scoreQuantiles) {
+
+    /**
+     * Creates a report without score quantiles.
+     *
+     * @param summary    the overall analytics summary
+     * @param timeSeries the sentiment counts per bucket
+     */
+    public ColumnarAnalyticsReport(AnalyticsSummary summary, ColumnarTimeSeries timeSeries) {
+        this(summary, timeSeries, null);
+    }
+}
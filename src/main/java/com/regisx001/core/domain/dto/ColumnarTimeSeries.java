@@ -0,0 +1,30 @@
+package com.regisx001.core.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Sentiment time series in columnar form: one array per sentiment instead of
+ * one object per bucket, so keys and timestamps are not repeated per point.
+ * Bucket {@code i} starts at {@code start + i * step}. If the series was
+ * downsampled, {@code index} holds the bucket number of each kept point;
+ * otherwise it is omitted and the arrays cover every bucket.
+ * <p>
+ * Times are the stored local date-times read as UTC epoch seconds, i.e. the
+ * same instants the ISO strings of {@link SentimentTimePoint} name.
+ *
+ * @param start    the start of the first bucket, in epoch seconds
+ * @param step     the bucket width in seconds
+ * @param index    the bucket number of each point, or {@code null} if dense
+ * @param positive the positive count of each point
+ * @param negative the negative count of each point
+ * @param neutral  the neutral count of each point
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ColumnarTimeSeries(
+                long start,
+                long step,
+                int[] index,
+                long[] positive,
+                long[] negative,
+                long[] neutral) {
+}
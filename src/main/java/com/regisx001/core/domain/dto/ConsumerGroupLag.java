@@ -0,0 +1,47 @@
+package com.regisx001.core.domain.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Lag of one consumer group on one topic.
+ *
+ * @param groupId          the consumer group ID
+ * @param topic            the topic name
+ * @param totalLag         the sum of the partition lags, in records
+ * @param lagRatePerSecond the smoothed change of the total lag per second;
+ *                         positive while the group falls behind, negative
+ *                         while it catches up, absent on the first sample
+ * @param secondsToCatchUp the estimated time until the lag reaches zero at
+ *                         the current rate; absent while the lag is not
+ *                         shrinking
+ * @param partitions       the per-partition offsets and lag
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ConsumerGroupLag(
+                String groupId,
+                String topic,
+                long totalLag,
+                Double lagRatePerSecond,
+                Long secondsToCatchUp,
+                List<PartitionLag> partitions) {
+
+        /**
+         * Offsets and lag of a single partition.
+         *
+         * @param partition       the partition number
+         * @param endOffset       the log end offset
+         * @param committedOffset the offset committed by the group, absent if the
+         *                        group has not committed on this partition
+         * @param lag             the records between the committed and the end
+         *                        offset
+         */
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public record PartitionLag(
+                        int partition,
+                        long endOffset,
+                        Long committedOffset,
+                        long lag) {
+        }
+}
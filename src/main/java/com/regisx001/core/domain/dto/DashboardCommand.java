@@ -0,0 +1,21 @@
+package com.regisx001.core.domain.dto;
+
+import java.util.Map;
+
+/**
+ * Command sent by a client over the dashboard WebSocket.
+ *
+ * @param op       {@code subscribe} or {@code unsubscribe}
+ * @param id       the client-chosen channel ID the data frames are tagged with
+ * @param topic    the topic to subscribe to (subscribe only)
+ * @param params   the topic parameters, or {@code null} (subscribe only)
+ * @param periodMs the time between messages, or {@code null} for the topic's
+ *                 default (subscribe only)
+ */
+public record DashboardCommand(
+                String op,
+                int id,
+                String topic,
+                Map<String, String> params,
+                Long periodMs) {
+}
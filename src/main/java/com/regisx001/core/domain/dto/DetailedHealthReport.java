@@ -13,21 +13,25 @@ import java.time.Instant;
  * @param kafka     detailed metrics and health info for the Kafka cluster
  * @param spark     detailed metrics and health info for the Apache Spark
  *                  cluster
+ * @param intent    health and system metrics reported by the intent service
  */
 public record DetailedHealthReport(
                 String overall,
                 Instant timestamp,
                 PostgresMetrics postgres,
                 KafkaMetrics kafka,
-                SparkMetrics spark) {
+                SparkMetrics spark,
+                IntentHealthResponse intent) {
 
-        public static DetailedHealthReport of(PostgresMetrics pg, KafkaMetrics kafka, SparkMetrics spark) {
+        public static DetailedHealthReport of(PostgresMetrics pg, KafkaMetrics kafka, SparkMetrics spark,
+                        IntentHealthResponse intent) {
                 boolean allUp = "UP".equals(pg.status())
                                 && "UP".equals(kafka.status())
-                                && "UP".equals(spark.status());
+                                && "UP".equals(spark.status())
+                                && intent.modelsLoaded();
                 return new DetailedHealthReport(
                                 allUp ? "UP" : "DEGRADED",
                                 Instant.now(),
-                                pg, kafka, spark);
+                                pg, kafka, spark, intent);
         }
 }
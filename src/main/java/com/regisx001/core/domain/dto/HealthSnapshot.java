@@ -0,0 +1,30 @@
+package com.regisx001.core.domain.dto;
+
+import java.time.Instant;
+
+/**
+ * An immutable result of one health collection round, shared by every health
+ * endpoint and stream until the next round replaces it.
+ *
+ * @param report      the simple per-service health report
+ * @param details     the detailed metrics report
+ * @param collectedAt the time the collection round finished
+ */
+public record HealthSnapshot(
+        HealthReport report,
+        DetailedHealthReport details,
+        Instant collectedAt) {
+
+    /**
+     * Returns the simple health of a single service.
+     *
+     * @param service the service name as reported (e.g. "Kafka")
+     * @return the service health, or {@code null} if not part of the report
+     */
+    public ServiceHealth service(String service) {
+        return report.services().stream()
+                .filter(s -> s.service().equals(service))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -7,13 +7,15 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 /**
  * Metrics and cluster status information for an Apache Kafka deployment.
  *
- * @param status      the overarching status of the Kafka cluster
- * @param latencyMs   the response latency in milliseconds to retrieve metrics
- * @param message     an optional message regarding the cluster status
- * @param brokerCount the number of available active broker nodes
- * @param topicCount  the total number of topics within the cluster
- * @param topics      detailed information about specific metrics-relevant
- *                    topics
+ * @param status         the overarching status of the Kafka cluster
+ * @param latencyMs      the response latency in milliseconds to retrieve
+ *                       metrics
+ * @param message        an optional message regarding the cluster status
+ * @param brokerCount    the number of available active broker nodes
+ * @param topicCount     the total number of topics within the cluster
+ * @param topics         detailed information about specific metrics-relevant
+ *                       topics
+ * @param consumerGroups the lag of every consumer group on the watched topics
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record KafkaMetrics(
@@ -22,7 +24,8 @@ public record KafkaMetrics(
                 String message,
                 int brokerCount,
                 int topicCount,
-                List<TopicInfo> topics) {
+                List<TopicInfo> topics,
+                List<ConsumerGroupLag> consumerGroups) {
 
         /**
          * Information about a specific Kafka topic.
@@ -0,0 +1,39 @@
+package com.regisx001.core.domain.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Latency of each stage a Spark-scored tweet goes through, from
+ * {@code POST /api/tweets} to the persisted result.
+ *
+ * @param collectedAt   the time the figures were read
+ * @param windowSeconds the sliding window the percentiles cover
+ * @param stages        the per-stage figures, in pipeline order
+ */
+public record PipelineLatency(
+                Instant collectedAt,
+                long windowSeconds,
+                List<StageLatency> stages) {
+
+        /**
+         * Latency figures of one stage.
+         *
+         * @param stage  the stage name
+         * @param count  the number of samples since startup
+         * @param meanMs the mean latency since startup in milliseconds
+         * @param maxMs  the maximum latency within the window in milliseconds
+         * @param p50Ms  the median within the window in milliseconds
+         * @param p99Ms  the 99th percentile within the window in milliseconds
+         * @param p999Ms the 99.9th percentile within the window in milliseconds
+         */
+        public record StageLatency(
+                        String stage,
+                        long count,
+                        double meanMs,
+                        double maxMs,
+                        double p50Ms,
+                        double p99Ms,
+                        double p999Ms) {
+        }
+}
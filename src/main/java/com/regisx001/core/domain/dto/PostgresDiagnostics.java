@@ -0,0 +1,115 @@
+package com.regisx001.core.domain.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Periodically sampled PostgreSQL diagnostics: table health, index cache
+ * efficiency, the most expensive statements and connection pool saturation.
+ *
+ * @param collectedAt       the time the sample was taken
+ * @param tables            statistics of the watched tables, most dead
+ *                          tuples first
+ * @param indexes           cache statistics of the indexes on those tables
+ * @param statements        the most expensive statements by total execution
+ *                          time
+ * @param statementsMessage why statement statistics are missing, if they are
+ * @param pool              the application connection pool state
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PostgresDiagnostics(
+                Instant collectedAt,
+                List<TableStats> tables,
+                List<IndexStats> indexes,
+                List<StatementStats> statements,
+                String statementsMessage,
+                PoolStats pool) {
+
+        /**
+         * Statistics of one table from {@code pg_stat_user_tables}.
+         *
+         * @param table                the table name
+         * @param liveTuples           the estimated number of live rows
+         * @param deadTuples           the estimated number of dead rows
+         * @param deadTupleRatio       dead rows as a fraction of all rows
+         * @param sequentialScans      the number of sequential scans
+         * @param sequentialTuplesRead the rows fetched by sequential scans
+         * @param indexScans           the number of index scans
+         * @param totalBytes           the size including indexes and TOAST
+         * @param lastAutovacuum       when autovacuum last ran on the table
+         * @param lastAutoanalyze      when autoanalyze last ran on the table
+         */
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public record TableStats(
+                        String table,
+                        long liveTuples,
+                        long deadTuples,
+                        double deadTupleRatio,
+                        long sequentialScans,
+                        long sequentialTuplesRead,
+                        long indexScans,
+                        long totalBytes,
+                        Instant lastAutovacuum,
+                        Instant lastAutoanalyze) {
+        }
+
+        /**
+         * Cache statistics of one index from {@code pg_statio_user_indexes}.
+         *
+         * @param table      the indexed table
+         * @param index      the index name
+         * @param indexScans the number of scans using the index
+         * @param blocksRead the index blocks read from disk
+         * @param blocksHit  the index blocks found in shared buffers
+         * @param hitRatio   the fraction of block requests served from cache,
+         *                   absent before the index is used
+         */
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        public record IndexStats(
+                        String table,
+                        String index,
+                        long indexScans,
+                        long blocksRead,
+                        long blocksHit,
+                        Double hitRatio) {
+        }
+
+        /**
+         * One statement from {@code pg_stat_statements}.
+         *
+         * @param query       the normalised statement text
+         * @param calls       the number of executions
+         * @param totalTimeMs the total execution time in milliseconds
+         * @param meanTimeMs  the mean execution time in milliseconds
+         * @param rows        the total number of rows returned or affected
+         */
+        public record StatementStats(
+                        String query,
+                        long calls,
+                        double totalTimeMs,
+                        double meanTimeMs,
+                        long rows) {
+        }
+
+        /**
+         * State of the application's Hikari connection pool.
+         *
+         * @param active          connections currently in use
+         * @param idle            connections idle in the pool
+         * @param total           connections currently open
+         * @param max             the maximum pool size
+         * @param threadsAwaiting threads waiting for a connection
+         * @param saturation      active plus waiting threads as a fraction of
+         *                        the maximum pool size
+         */
+        public record PoolStats(
+                        int active,
+                        int idle,
+                        int total,
+                        int max,
+                        int threadsAwaiting,
+                        double saturation) {
+        }
+}
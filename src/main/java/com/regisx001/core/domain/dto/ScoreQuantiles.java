@@ -0,0 +1,16 @@
+package com.regisx001.core.domain.dto;
+
+/**
+ * Sentiment score quantiles of one sentiment, one entry per time-series point.
+ * An entry is {@code null} where the point's buckets hold no tweets of that
+ * sentiment.
+ *
+ * @param p10 the 10th percentile of each point
+ * @param p50 the median of each point
+ * @param p90 the 90th percentile of each point
+ */
+public record ScoreQuantiles(
+                Double[] p10,
+                Double[] p50,
+                Double[] p90) {
+}
@@ -0,0 +1,15 @@
+package com.regisx001.core.domain.dto;
+
+/**
+ * Score quantile series of each sentiment, aligned with the points of the
+ * report's time series (UNKNOWN is counted as neutral, like the counts).
+ *
+ * @param positive the quantiles of positive scores
+ * @param negative the quantiles of negative scores
+ * @param neutral  the quantiles of neutral scores
+ */
+public record SentimentScoreQuantiles(
+                ScoreQuantiles positive,
+                ScoreQuantiles negative,
+                ScoreQuantiles neutral) {
+}
@@ -6,7 +6,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
  * Represents the health status of a specific service.
  *
  * @param service   the name of the service
- * @param status    the health status (e.g., UP, DOWN)
+ * @param status    the health status (e.g., UP, DOWN, TIMEOUT)
  * @param message   an optional message or error reason
  * @param latencyMs the latency to the service in milliseconds, if applicable
  */
@@ -24,4 +24,8 @@ public record ServiceHealth(
     public static ServiceHealth down(String service, String reason) {
         return new ServiceHealth(service, "DOWN", reason, null);
     }
+
+    public static ServiceHealth timeout(String service, long deadlineMs) {
+        return new ServiceHealth(service, "TIMEOUT", "No response within " + deadlineMs + " ms", null);
+    }
 }
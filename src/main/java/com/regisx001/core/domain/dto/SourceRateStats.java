@@ -0,0 +1,25 @@
+package com.regisx001.core.domain.dto;
+
+/**
+ * Admission-control statistics for a single ingest source.
+ *
+ * @param source               the source the bucket is keyed by
+ * @param limitPerSecond       the configured refill rate (0 = unlimited)
+ * @param burst                the configured bucket capacity
+ * @param availableTokens      the tokens currently left in the bucket
+ * @param currentRatePerSecond the admitted rate observed over the last sweep
+ *                             interval
+ * @param admitted             the number of admitted requests since the bucket
+ *                             was created
+ * @param rejected             the number of rejected requests since the bucket
+ *                             was created
+ */
+public record SourceRateStats(
+                String source,
+                double limitPerSecond,
+                int burst,
+                double availableTokens,
+                double currentRatePerSecond,
+                long admitted,
+                long rejected) {
+}
@@ -7,18 +7,20 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 /**
  * Health and performance metrics for an Apache Spark cluster.
  *
- * @param status        the overall status of the cluster (e.g., UP, DOWN)
- * @param latencyMs     the latency for the metrics request in milliseconds
- * @param message       an optional error or status message
- * @param masterUrl     the URL of the Spark Master node
- * @param aliveWorkers  the number of currently active workers
- * @param totalCores    the total number of CPU cores across all workers
- * @param usedCores     the current number of cores being used
- * @param totalMemoryMb the total available memory in megabytes
- * @param usedMemoryMb  the amount of currently used memory in megabytes
- * @param activeApps    the number of active running applications
- * @param completedApps the number of applications that have finished running
- * @param workers       the list of details for each worker node
+ * @param status           the overall status of the cluster (e.g., UP, DOWN)
+ * @param latencyMs        the latency for the metrics request in milliseconds
+ * @param message          an optional error or status message
+ * @param masterUrl        the URL of the Spark Master node
+ * @param aliveWorkers     the number of currently active workers
+ * @param totalCores       the total number of CPU cores across all workers
+ * @param usedCores        the current number of cores being used
+ * @param totalMemoryMb    the total available memory in megabytes
+ * @param usedMemoryMb     the amount of currently used memory in megabytes
+ * @param activeApps       the number of active running applications
+ * @param completedApps    the number of applications that have finished running
+ * @param workers          the list of details for each worker node
+ * @param streamingQueries the progress of the running Structured Streaming
+ *                         queries, read from the driver UI
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record SparkMetrics(
@@ -33,7 +35,8 @@ public record SparkMetrics(
                 long usedMemoryMb,
                 int activeApps,
                 int completedApps,
-                List<WorkerInfo> workers) {
+                List<WorkerInfo> workers,
+                List<StreamingQueryMetrics> streamingQueries) {
 
         /**
          * Represents the status and resource utilization of a single Spark worker node.
@@ -0,0 +1,43 @@
+package com.regisx001.core.domain.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress of one Spark Structured Streaming query, read from the driver's
+ * metrics endpoint.
+ *
+ * @param application            the Spark application ID
+ * @param query                  the query name
+ * @param inputRowsPerSecond     the latest rate at which rows arrived
+ * @param processedRowsPerSecond the latest rate at which rows were processed
+ * @param batchDurationMs        the duration of the latest micro-batch
+ * @param keepingUp              whether, over the retained history,
+ *                               micro-batches processed rows at least as fast
+ *                               as they arrived
+ * @param history                the retained samples, oldest first
+ */
+public record StreamingQueryMetrics(
+                String application,
+                String query,
+                double inputRowsPerSecond,
+                double processedRowsPerSecond,
+                long batchDurationMs,
+                boolean keepingUp,
+                List<Sample> history) {
+
+        /**
+         * A single progress sample.
+         *
+         * @param timestamp              when the sample was taken
+         * @param inputRowsPerSecond     the input rate at that time
+         * @param processedRowsPerSecond the processing rate at that time
+         * @param batchDurationMs        the latest batch duration at that time
+         */
+        public record Sample(
+                        Instant timestamp,
+                        double inputRowsPerSecond,
+                        double processedRowsPerSecond,
+                        long batchDurationMs) {
+        }
+}
@@ -0,0 +1,13 @@
+package com.regisx001.core.domain.dto;
+
+/**
+ * A term or hashtag with its estimated number of tweets in a window.
+ *
+ * @param term  the lower-cased term, or the hashtag with its {@code #}
+ * @param count the estimated number of tweets containing it; a Count-Min
+ *              estimate, never below the true count
+ */
+public record TrendingTerm(
+                String term,
+                long count) {
+}
@@ -0,0 +1,25 @@
+package com.regisx001.core.domain.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The most frequent terms and hashtags of each sentiment in a sliding window,
+ * most frequent first. A sentiment that was not asked for is omitted.
+ *
+ * @param window        the window label ({@code 5m}, {@code 1h} or
+ *                      {@code 24h})
+ * @param windowSeconds the window length in seconds
+ * @param positive      the top terms of positive tweets
+ * @param negative      the top terms of negative tweets
+ * @param neutral       the top terms of neutral tweets
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TrendingTerms(
+                String window,
+                long windowSeconds,
+                List<TrendingTerm> positive,
+                List<TrendingTerm> negative,
+                List<TrendingTerm> neutral) {
+}
@@ -42,24 +42,47 @@ public interface TweetRepository extends JpaRepository<Tweet, Long> {
     List<Object[]> sentimentCounts();
 
     /**
-     * Retrieves time-series sentiment data based on a specific time bucket.
+     * Retrieves time-series sentiment data in epoch-aligned buckets of any
+     * width. Only buckets that contain tweets are returned.
      * 
-     * @param bucket the time truncation bucket
-     * @param since  the start time
-     * @return a list of rows with bucket time, sentiment, and count
+     * @param bucketSeconds the bucket width in seconds
+     * @param since         the start time
+     * @return a list of rows with the bucket start (epoch seconds), sentiment,
+     *         and count, ordered by bucket
      */
     @Query(value = """
-            SELECT date_trunc(:bucket, processed_at) AS bucket_time,
-                   processed_data->>'sentiment'       AS sentiment,
-                   COUNT(*)                           AS cnt
+            SELECT CAST(floor(extract(epoch FROM processed_at) / :bucketSeconds) * :bucketSeconds AS bigint) AS bucket_epoch,
+                   processed_data->>'sentiment' AS sentiment,
+                   COUNT(*)                     AS cnt
             FROM raw_tweets
             WHERE processed_at >= :since
               AND processed_data IS NOT NULL
               AND processed_data->>'sentiment' IS NOT NULL
-            GROUP BY bucket_time, processed_data->>'sentiment'
-            ORDER BY bucket_time
+            GROUP BY bucket_epoch, processed_data->>'sentiment'
+            ORDER BY bucket_epoch
             """, nativeQuery = true)
-    List<Object[]> sentimentTimeSeries(@Param("bucket") String bucket, @Param("since") LocalDateTime since);
+    List<Object[]> sentimentTimeSeries(@Param("bucketSeconds") long bucketSeconds,
+            @Param("since") LocalDateTime since);
+
+    /**
+     * Retrieves the sentiment and score of the tweets processed in a time
+     * range, used to seed the score quantile sketches at startup.
+     * 
+     * @param from the start time, inclusive
+     * @param to   the end time, exclusive
+     * @return a list of rows with the processing time, sentiment and score
+     */
+    @Query(value = """
+            SELECT processed_at,
+                   processed_data->>'sentiment'                        AS sentiment,
+                   CAST(processed_data->>'score' AS double precision) AS score
+            FROM raw_tweets
+            WHERE processed_at >= :from
+              AND processed_at < :to
+              AND processed_data->>'sentiment' IS NOT NULL
+              AND processed_data->>'score' IS NOT NULL
+            """, nativeQuery = true)
+    List<Object[]> sentimentScoresBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
     /**
      * Retrieves the latest N processed tweets.
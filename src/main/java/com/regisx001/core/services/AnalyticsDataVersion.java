@@ -0,0 +1,69 @@
+package com.regisx001.core.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Version of the data the analytics reports are computed from, bumped each
+ * time sentiment results are stored ({@link TweetConsumer} and the in-process
+ * paths of {@link TweetService}). It is a cheap token for "nothing was
+ * processed since": equal versions mean equal counts.
+ * <p>
+ * Inside a transaction the bump happens after completion, so a report built
+ * while the change is still uncommitted is filed under the old version and
+ * never served once the change is visible. The version is seeded with the
+ * start time so tokens from before a restart do not match.
+ */
+@Service
+public class AnalyticsDataVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Wall-clock time of the last bump, in epoch milliseconds.
+     */
+    private volatile long changedAtMillis = System.currentTimeMillis();
+
+    /**
+     * Returns the current version.
+     *
+     * @return the version
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Returns when the version was last bumped.
+     *
+     * @return the wall-clock time of the last change, in epoch milliseconds
+     */
+    public long changedAtMillis() {
+        return changedAtMillis;
+    }
+
+    /**
+     * Records that sentiment results were stored, once the surrounding
+     * transaction (if any) completes.
+     */
+    public void markChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump();
+                }
+            });
+        } else {
+            bump();
+        }
+    }
+
+    private void bump() {
+        changedAtMillis = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+}
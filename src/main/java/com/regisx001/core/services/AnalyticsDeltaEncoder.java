@@ -0,0 +1,152 @@
+package com.regisx001.core.services;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.http.codec.ServerSentEvent;
+
+import com.regisx001.core.domain.dto.AnalyticsDelta;
+import com.regisx001.core.domain.dto.AnalyticsSnapshot;
+import com.regisx001.core.domain.dto.AnalyticsSummary;
+import com.regisx001.core.domain.dto.ColumnarAnalyticsReport;
+import com.regisx001.core.domain.dto.ColumnarTimeSeries;
+
+/**
+ * Turns the successive reports of one delta stream subscription into SSE
+ * events: a {@code snapshot} event with the full state first, then
+ * {@code delta} events with only the buckets and summary that changed since
+ * the previous event. The event ID is the state version.
+ * <p>
+ * Points are compared by absolute bucket number ({@code start / step + index}),
+ * so a window sliding forward by one bucket costs one appended point rather
+ * than a shift of the whole series. A full snapshot is sent again when more
+ * than half of the points changed, which is cheaper than the delta (e.g. when
+ * downsampling picks a different set of points).
+ * <p>
+ * Not thread-safe: {@link SseStreamService#pollEvents} computes the ticks of a
+ * subscription one at a time.
+ */
+public class AnalyticsDeltaEncoder {
+
+    /**
+     * Event name of a full snapshot.
+     */
+    public static final String SNAPSHOT_EVENT = "snapshot";
+
+    /**
+     * Event name of a delta.
+     */
+    public static final String DELTA_EVENT = "delta";
+
+    private long version;
+    private AnalyticsSummary summary;
+    private long step;
+    private Map<Long, Integer> positions = Map.of();
+    private ColumnarTimeSeries series;
+
+    /**
+     * Encodes the next report of the subscription.
+     *
+     * @param report the current report
+     * @return a snapshot event on the first call or after a large change, a
+     *         delta event otherwise, or {@code null} if nothing changed
+     */
+    public ServerSentEvent<Object> encode(ColumnarAnalyticsReport report) {
+        ColumnarTimeSeries current = report.timeSeries();
+        if (series == null || current.step() != step) {
+            return snapshot(report);
+        }
+
+        long first = current.start() / current.step();
+        int points = current.positive().length;
+        int[] upserts = new int[points];
+        int upsertCount = 0;
+        Map<Long, Integer> currentPositions = new HashMap<>(points * 2);
+        for (int i = 0; i < points; i++) {
+            long bucket = first + bucketOf(current, i);
+            currentPositions.put(bucket, i);
+            Integer previous = positions.get(bucket);
+            if (previous == null
+                    || series.positive()[previous] != current.positive()[i]
+                    || series.negative()[previous] != current.negative()[i]
+                    || series.neutral()[previous] != current.neutral()[i]) {
+                upserts[upsertCount++] = i;
+            }
+        }
+
+        // Buckets that fell out of the window are dropped by the client through
+        // the new start; only buckets dropped by downsampling are listed.
+        int[] removed = new int[positions.size()];
+        int removedCount = 0;
+        for (Long bucket : positions.keySet()) {
+            if (bucket >= first && !currentPositions.containsKey(bucket)) {
+                removed[removedCount++] = (int) (bucket - first);
+            }
+        }
+
+        if (2 * (upsertCount + removedCount) > points) {
+            return snapshot(report);
+        }
+        boolean summaryChanged = !report.summary().equals(summary);
+        if (upsertCount == 0 && removedCount == 0 && !summaryChanged && current.start() == series.start()) {
+            return null;
+        }
+
+        Arrays.sort(removed, 0, removedCount);
+        int[] index = new int[upsertCount];
+        long[] positive = new long[upsertCount];
+        long[] negative = new long[upsertCount];
+        long[] neutral = new long[upsertCount];
+        for (int k = 0; k < upsertCount; k++) {
+            int i = upserts[k];
+            index[k] = bucketOf(current, i);
+            positive[k] = current.positive()[i];
+            negative[k] = current.negative()[i];
+            neutral[k] = current.neutral()[i];
+        }
+
+        long baseVersion = version;
+        remember(report, currentPositions);
+        AnalyticsDelta delta = new AnalyticsDelta(version, baseVersion,
+                summaryChanged ? report.summary() : null,
+                current.start(),
+                removedCount == 0 ? null : Arrays.copyOf(removed, removedCount),
+                new ColumnarTimeSeries(current.start(), current.step(), index, positive, negative, neutral));
+        return event(DELTA_EVENT, delta);
+    }
+
+    private ServerSentEvent<Object> snapshot(ColumnarAnalyticsReport report) {
+        ColumnarTimeSeries current = report.timeSeries();
+        long first = current.start() / current.step();
+        Map<Long, Integer> currentPositions = new HashMap<>(current.positive().length * 2);
+        for (int i = 0; i < current.positive().length; i++) {
+            currentPositions.put(first + bucketOf(current, i), i);
+        }
+        remember(report, currentPositions);
+        return event(SNAPSHOT_EVENT, new AnalyticsSnapshot(version, report.summary(), current));
+    }
+
+    private void remember(ColumnarAnalyticsReport report, Map<Long, Integer> currentPositions) {
+        version++;
+        summary = report.summary();
+        series = report.timeSeries();
+        step = series.step();
+        positions = currentPositions;
+    }
+
+    private ServerSentEvent<Object> event(String name, Object data) {
+        return ServerSentEvent.builder(data)
+                .id(String.valueOf(version))
+                .event(name)
+                .build();
+    }
+
+    /**
+     * Returns the bucket number of point {@code i}, relative to the series
+     * start.
+     */
+    private static int bucketOf(ColumnarTimeSeries series, int i) {
+        return series.index() == null ? i : series.index()[i];
+    }
+}
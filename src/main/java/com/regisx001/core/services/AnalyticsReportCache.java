@@ -0,0 +1,164 @@
+package com.regisx001.core.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.regisx001.core.domain.dto.AnalyticsReport;
+import com.regisx001.core.domain.dto.ColumnarAnalyticsReport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache and validators of the analytics REST reports.
+ * <p>
+ * A report is a function of the {@link AnalyticsDataVersion}, the position of
+ * the window on the bucket grid and, while tweets were processed in the last
+ * minute, the current second (the rolling throughput). {@link #version}
+ * derives that key without touching the database, so a conditional GET whose
+ * ETag or Last-Modified still matches is answered with 304 before any query
+ * runs. Reports are cached under the same key, bounded by count; entries of
+ * old versions are never hit again and age out under size-based eviction.
+ */
+@Service
+public class AnalyticsReportCache {
+
+    /**
+     * How long after the last change the rolling throughput can still move:
+     * its 60 s window plus a second of timestamp granularity.
+     */
+    private static final long THROUGHPUT_WINDOW_MILLIS = 61_000;
+
+    /**
+     * Identity of a report.
+     *
+     * @param bucketSeconds    the bucket width
+     * @param lookbackMinutes  the window length
+     * @param maxPoints        the point limit
+     * @param quantiles        whether the score quantile series are included
+     * @param dataVersion      the analytics data version
+     * @param lastBucket       the start of the window's last bucket
+     * @param firstBucket      the start of the window's first bucket
+     * @param throughputSecond the current epoch second while the throughput is
+     *                         moving, {@code 0} once it has settled
+     */
+    record Key(long bucketSeconds, int lookbackMinutes, int maxPoints, boolean quantiles, long dataVersion,
+            long lastBucket, long firstBucket, long throughputSecond) {
+    }
+
+    /**
+     * Validators of the report a request would get.
+     *
+     * @param key                the report identity
+     * @param etag               the weak entity tag derived from the key
+     * @param lastModifiedMillis when the report last changed, in epoch
+     *                           milliseconds
+     */
+    public record Version(Key key, String etag, long lastModifiedMillis) {
+    }
+
+    private final AnalyticsService analyticsService;
+    private final AnalyticsDataVersion analyticsDataVersion;
+    private final boolean enabled;
+    private final Cache<Key, ColumnarAnalyticsReport> cache;
+
+    /**
+     * Constructs a new AnalyticsReportCache.
+     *
+     * @param analyticsService     the service building reports on a miss
+     * @param analyticsDataVersion the data version the keys are derived from
+     * @param enabled              whether reports are cached
+     * @param maxSize              maximum number of cached reports
+     * @param meterRegistry        the registry the cache metrics are bound to
+     */
+    public AnalyticsReportCache(AnalyticsService analyticsService, AnalyticsDataVersion analyticsDataVersion,
+            @Value("${analytics.report-cache.enabled:true}") boolean enabled,
+            @Value("${analytics.report-cache.max-size:64}") long maxSize,
+            MeterRegistry meterRegistry) {
+        this.analyticsService = analyticsService;
+        this.analyticsDataVersion = analyticsDataVersion;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "analytics-reports");
+    }
+
+    /**
+     * Derives the validators of the report for these parameters, without
+     * building it.
+     *
+     * @param bucket          the time-series bucket width
+     * @param lookbackMinutes the window length in minutes
+     * @param maxPoints       the most time-series points ({@code 0} = no limit)
+     * @param quantiles       whether the score quantile series are included
+     * @return the report version
+     */
+    public Version version(TimeBucket bucket, int lookbackMinutes, int maxPoints, boolean quantiles) {
+        long dataVersion = analyticsDataVersion.current();
+        long changedAt = analyticsDataVersion.changedAtMillis();
+        Instant instant = Instant.now();
+        long nowMillis = instant.toEpochMilli();
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime now = LocalDateTime.ofInstant(instant, zone);
+        long lastBucket = bucket.floor(now);
+        long firstBucket = bucket.floor(now.minusMinutes(lookbackMinutes));
+        boolean settled = nowMillis - changedAt >= THROUGHPUT_WINDOW_MILLIS;
+        long throughputSecond = settled ? 0 : nowMillis / 1000;
+
+        long lastModified;
+        if (settled) {
+            // The later of the throughput settling after the last change and the
+            // window moving onto its current buckets
+            long windowMoved = Math.max(lastBucket, firstBucket + lookbackMinutes * 60L)
+                    - zone.getRules().getOffset(instant).getTotalSeconds();
+            lastModified = Math.max(changedAt + THROUGHPUT_WINDOW_MILLIS, windowMoved * 1000);
+        } else {
+            lastModified = throughputSecond * 1000;
+        }
+
+        Key key = new Key(bucket.seconds(), lookbackMinutes, maxPoints, quantiles, dataVersion, lastBucket,
+                firstBucket, throughputSecond);
+        String etag = "W/\"" + Long.toHexString(dataVersion) + '-' + bucket.seconds() + '-' + lookbackMinutes
+                + '-' + maxPoints + (quantiles ? "-q-" : "-") + lastBucket + '-' + firstBucket + '-'
+                + throughputSecond + '"';
+        return new Version(key, etag, lastModified);
+    }
+
+    /**
+     * Returns the columnar report of a version, building it on a miss.
+     * Concurrent misses of the same version build it once.
+     *
+     * @param version the version from {@link #version}
+     * @return the report
+     */
+    public ColumnarAnalyticsReport columnar(Version version) {
+        Key key = version.key();
+        if (!enabled) {
+            return build(key);
+        }
+        return cache.get(key, this::build);
+    }
+
+    /**
+     * Returns the report of a version in the default form.
+     *
+     * @param version the version from {@link #version}
+     * @return the report
+     */
+    public AnalyticsReport report(Version version) {
+        return AnalyticsService.toReport(columnar(version));
+    }
+
+    private ColumnarAnalyticsReport build(Key key) {
+        return analyticsService.getColumnarReport(new TimeBucket(key.bucketSeconds()), key.lookbackMinutes(),
+                key.maxPoints(), key.quantiles());
+    }
+}
@@ -1,31 +1,36 @@
 package com.regisx001.core.services;
 
-import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.stereotype.Service;
 
 import com.regisx001.core.domain.dto.AnalyticsReport;
 import com.regisx001.core.domain.dto.AnalyticsSummary;
+import com.regisx001.core.domain.dto.ColumnarAnalyticsReport;
+import com.regisx001.core.domain.dto.ColumnarTimeSeries;
 import com.regisx001.core.domain.dto.LiveTweetDto;
 import com.regisx001.core.domain.dto.SentimentTimePoint;
 import com.regisx001.core.domain.entities.Tweet;
 import com.regisx001.core.repository.TweetRepository;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service for calculating overall sentiment analytics and managing live feeds.
+ * Report generation is timed as {@code analytics.report}, tagged with the
+ * bucket and a coarse lookback range so the tag set stays bounded.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AnalyticsService {
 
     /**
@@ -33,24 +38,106 @@ public class AnalyticsService {
      */
     private final TweetRepository tweetRepository;
 
+    /**
+     * Score distributions the score quantile series are computed from.
+     */
+    private final ScoreQuantileTracker scoreQuantileTracker;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Report timers keyed by bucket and range tag.
+     */
+    private final Map<String, Timer> reportTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new AnalyticsService.
+     *
+     * @param tweetRepository      the repository the aggregations run against
+     * @param scoreQuantileTracker the source of the score quantile series
+     * @param meterRegistry        the registry the report timers are bound to
+     */
+    public AnalyticsService(TweetRepository tweetRepository, ScoreQuantileTracker scoreQuantileTracker,
+            MeterRegistry meterRegistry) {
+        this.tweetRepository = tweetRepository;
+        this.scoreQuantileTracker = scoreQuantileTracker;
+        this.meterRegistry = meterRegistry;
+    }
+
     // ---------------------------------------------------------------
     // Full analytics report (summary + time-series)
-    // bucket = "hour" or "day"
-    // lookbackHours = how far back to query for the time-series
+    // bucket = any epoch-aligned width ("minute", "5s", "15m", "6h", ...)
+    // lookbackMinutes = how far back to query for the time-series
     // ---------------------------------------------------------------
     /**
      * Generates a full analytics report containing summaries and time-series data.
      *
-     * @param bucket          the aggregation bucket ("hour" or "minute" depending
-     *                        on requirements)
+     * @param bucket          the time-series bucket width
      * @param lookbackMinutes how far back (in minutes) to gather time-series points
      *                        for the report
+     * @param maxPoints       the most time-series points to return; longer series
+     *                        are downsampled with LTTB ({@code 0} = no limit)
      * @return a comprehensive AnalyticsReport containing the data
+     * @throws IllegalArgumentException if the window spans too many buckets
      */
-    public AnalyticsReport getReport(String bucket, int lookbackMinutes) {
-        AnalyticsSummary summary = buildSummary();
-        List<SentimentTimePoint> timeSeries = buildTimeSeries(bucket, lookbackMinutes);
-        return new AnalyticsReport(summary, timeSeries);
+    public AnalyticsReport getReport(TimeBucket bucket, int lookbackMinutes, int maxPoints) {
+        return toReport(getColumnarReport(bucket, lookbackMinutes, maxPoints, false));
+    }
+
+    /**
+     * Generates the same report as
+     * {@link #getReport(TimeBucket, int, int)} with the time series in
+     * columnar form.
+     *
+     * @param bucket          the time-series bucket width
+     * @param lookbackMinutes how far back (in minutes) to gather time-series points
+     * @param maxPoints       the most time-series points to return ({@code 0} = no
+     *                        limit)
+     * @return the report with a columnar time series
+     * @throws IllegalArgumentException if the window spans too many buckets
+     */
+    public ColumnarAnalyticsReport getColumnarReport(TimeBucket bucket, int lookbackMinutes, int maxPoints) {
+        return getColumnarReport(bucket, lookbackMinutes, maxPoints, false);
+    }
+
+    /**
+     * Generates the columnar report, optionally with the score quantiles of
+     * each time-series point. The quantiles are merged from the digests of
+     * {@link ScoreQuantileTracker}; no stored score is read.
+     *
+     * @param bucket          the time-series bucket width
+     * @param lookbackMinutes how far back (in minutes) to gather time-series points
+     * @param maxPoints       the most time-series points to return ({@code 0} = no
+     *                        limit)
+     * @param quantiles       whether to add the p10/p50/p90 score series
+     * @return the report with a columnar time series
+     * @throws IllegalArgumentException if the window spans too many buckets
+     */
+    public ColumnarAnalyticsReport getColumnarReport(TimeBucket bucket, int lookbackMinutes, int maxPoints,
+            boolean quantiles) {
+        long start = System.nanoTime();
+        try {
+            AnalyticsSummary summary = buildSummary();
+            ColumnarTimeSeries timeSeries = buildTimeSeries(bucket, lookbackMinutes, maxPoints);
+            return new ColumnarAnalyticsReport(summary, timeSeries,
+                    quantiles ? scoreQuantileTracker.quantiles(timeSeries) : null);
+        } finally {
+            reportTimer(bucket, lookbackMinutes).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer reportTimer(TimeBucket bucket, int lookbackMinutes) {
+        String bucketTag = bucket.tag();
+        String rangeTag = lookbackMinutes <= 15 ? "15m"
+                : lookbackMinutes <= 60 ? "1h"
+                        : lookbackMinutes <= 360 ? "6h"
+                                : lookbackMinutes <= 1440 ? "24h"
+                                        : lookbackMinutes <= 10080 ? "7d" : "longer";
+        return reportTimers.computeIfAbsent(bucketTag + '|' + rangeTag, key -> Timer.builder("analytics.report")
+                .description("Time to build an analytics report")
+                .tag("bucket", bucketTag)
+                .tag("range", rangeTag)
+                .register(meterRegistry));
     }
 
     // ---------------------------------------------------------------
@@ -79,37 +166,114 @@ public class AnalyticsService {
     }
 
     // ---------------------------------------------------------------
-    // Time-series: pivot rows into SentimentTimePoint list
+    // Time-series: gap-filled buckets, downsampled past maxPoints
     // ---------------------------------------------------------------
-    private List<SentimentTimePoint> buildTimeSeries(String bucket, int lookbackMinutes) {
-        LocalDateTime since = LocalDateTime.now().minusMinutes(lookbackMinutes);
-        List<Object[]> rows = tweetRepository.sentimentTimeSeries(bucket, since);
+    private ColumnarTimeSeries buildTimeSeries(TimeBucket bucket, int lookbackMinutes, int maxPoints) {
+        int buckets = bucket.count(lookbackMinutes);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = now.minusMinutes(lookbackMinutes);
+        long first = bucket.floor(since);
+        int span = (int) ((bucket.floor(now) - first) / bucket.seconds()) + 1;
+        // Query the whole first bucket, so the series only changes when the data
+        // does or the window moves on by a bucket
+        LocalDateTime firstStart = LocalDateTime.ofEpochSecond(first, 0, ZoneOffset.UTC);
+        return columnarTimeSeries(tweetRepository.sentimentTimeSeries(bucket.seconds(), firstStart),
+                first, bucket.seconds(), Math.min(span, buckets), maxPoints);
+    }
 
-        // Use LinkedHashMap to preserve time order
-        Map<String, long[]> buckets = new LinkedHashMap<>();
+    /**
+     * Pivots {@code (bucket epoch, sentiment, count)} rows into one point per
+     * bucket from {@code firstEpoch} on, with zeros for buckets without tweets.
+     *
+     * @param rows          the rows of {@link TweetRepository#sentimentTimeSeries}
+     * @param firstEpoch    the start of the first bucket, in epoch seconds
+     * @param bucketSeconds the bucket width in seconds
+     * @param buckets       the number of buckets to return before downsampling
+     * @param maxPoints     the most points to return ({@code 0} = no limit)
+     * @return the time series in bucket order
+     * @see #columnarTimeSeries
+     */
+    static List<SentimentTimePoint> pivotTimeSeries(List<Object[]> rows, long firstEpoch, long bucketSeconds,
+            int buckets, int maxPoints) {
+        return toPoints(columnarTimeSeries(rows, firstEpoch, bucketSeconds, buckets, maxPoints));
+    }
+
+    /**
+     * Pivots {@code (bucket epoch, sentiment, count)} rows into one array per
+     * sentiment covering every bucket from {@code firstEpoch} on, with zeros
+     * for buckets without tweets. If there are more than {@code maxPoints}
+     * buckets, the points to keep are picked by LTTB over the total count, so
+     * spikes and dips survive.
+     *
+     * @param rows          the rows of {@link TweetRepository#sentimentTimeSeries}
+     * @param firstEpoch    the start of the first bucket, in epoch seconds
+     * @param bucketSeconds the bucket width in seconds
+     * @param buckets       the number of buckets to return before downsampling
+     * @param maxPoints     the most points to return ({@code 0} = no limit)
+     * @return the columnar time series
+     */
+    static ColumnarTimeSeries columnarTimeSeries(List<Object[]> rows, long firstEpoch, long bucketSeconds,
+            int buckets, int maxPoints) {
+        long[] positive = new long[buckets];
+        long[] negative = new long[buckets];
+        long[] neutral = new long[buckets];
         for (Object[] row : rows) {
-            // Hibernate 6 returns LocalDateTime for timestamp columns in native queries
-            LocalDateTime ldt;
-            if (row[0] instanceof Timestamp ts) {
-                ldt = ts.toLocalDateTime();
-            } else {
-                ldt = (LocalDateTime) row[0];
+            long index = (((Number) row[0]).longValue() - firstEpoch) / bucketSeconds;
+            if (index < 0 || index >= buckets) {
+                continue;
             }
-            String sentiment = (String) row[1];
+            int i = (int) index;
             long cnt = ((Number) row[2]).longValue();
-            String key = ldt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-
-            buckets.computeIfAbsent(key, k -> new long[3]);
-            long[] vals = buckets.get(key);
-            switch (sentiment) {
-                case "POSITIVE" -> vals[0] += cnt;
-                case "NEGATIVE" -> vals[1] += cnt;
-                default -> vals[2] += cnt;
+            switch ((String) row[1]) {
+                case "POSITIVE" -> positive[i] += cnt;
+                case "NEGATIVE" -> negative[i] += cnt;
+                default -> neutral[i] += cnt;
             }
         }
 
-        List<SentimentTimePoint> result = new ArrayList<>(buckets.size());
-        buckets.forEach((time, vals) -> result.add(new SentimentTimePoint(time, vals[0], vals[1], vals[2])));
+        if (maxPoints <= 0 || buckets <= maxPoints) {
+            return new ColumnarTimeSeries(firstEpoch, bucketSeconds, null, positive, negative, neutral);
+        }
+        double[] totals = new double[buckets];
+        for (int i = 0; i < buckets; i++) {
+            totals[i] = positive[i] + negative[i] + neutral[i];
+        }
+        int[] keep = TimeSeriesDownsampler.lttb(totals, maxPoints);
+        long[] keptPositive = new long[keep.length];
+        long[] keptNegative = new long[keep.length];
+        long[] keptNeutral = new long[keep.length];
+        for (int k = 0; k < keep.length; k++) {
+            keptPositive[k] = positive[keep[k]];
+            keptNegative[k] = negative[keep[k]];
+            keptNeutral[k] = neutral[keep[k]];
+        }
+        return new ColumnarTimeSeries(firstEpoch, bucketSeconds, keep, keptPositive, keptNegative, keptNeutral);
+    }
+
+    /**
+     * Converts a columnar report to the default form, one object per point.
+     *
+     * @param report the columnar report
+     * @return the same report with a list of time points
+     */
+    static AnalyticsReport toReport(ColumnarAnalyticsReport report) {
+        return new AnalyticsReport(report.summary(), toPoints(report.timeSeries()), report.scoreQuantiles());
+    }
+
+    /**
+     * Expands a columnar time series into one {@link SentimentTimePoint} per
+     * point.
+     */
+    private static List<SentimentTimePoint> toPoints(ColumnarTimeSeries series) {
+        int size = series.positive().length;
+        List<SentimentTimePoint> result = new ArrayList<>(size);
+        for (int k = 0; k < size; k++) {
+            int i = series.index() != null ? series.index()[k] : k;
+            String time = LocalDateTime.ofEpochSecond(series.start() + i * series.step(), 0, ZoneOffset.UTC)
+                    .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            result.add(new SentimentTimePoint(time, series.positive()[k], series.negative()[k],
+                    series.neutral()[k]));
+        }
         return result;
     }
 
@@ -0,0 +1,232 @@
+package com.regisx001.core.services;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Feedback controller that slows the {@code tweets.processed} listener down
+ * when PostgreSQL is saturated, instead of letting records pile up and
+ * transactions time out.
+ * <p>
+ * Every {@code consumer.backpressure.check-interval-ms} the controller turns
+ * the mean Hikari connection-acquire wait and the mean write latency reported
+ * by {@link TweetConsumer} over the last interval into a pressure figure: the
+ * larger of the two divided by its limit. At a pressure of
+ * {@code throttle-ratio} the listener is {@link State#THROTTLED} (polls are
+ * spaced by {@code throttle-idle-ms}); at 1 it is {@link State#PAUSED}.
+ * Throttling only lowers the poll rate: each poll still returns up to
+ * {@code max-poll-records}, which a Kafka consumer fixes when it is created,
+ * so changing it would mean new consumers and a group rebalance.
+ * Pausing keeps the consumer polling for heartbeats, so the group does not
+ * rebalance. The controller steps back down one state at a time, and only
+ * after {@code resume-checks} consecutive checks below {@code resume-ratio},
+ * which keeps it from flapping around a threshold. The state is published as
+ * the {@code consumer.backpressure.state} gauge (0 running, 1 throttled, 2
+ * paused) alongside {@code consumer.backpressure.pressure}.
+ */
+@Slf4j
+@Service
+public class ConsumerBackpressureController {
+
+    /**
+     * ID of the listener container the controller acts on.
+     */
+    public static final String LISTENER_ID = "processed-tweets";
+
+    /**
+     * Controller states, ordered by severity.
+     */
+    public enum State {
+        RUNNING, THROTTLED, PAUSED
+    }
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double acquireWaitLimitMillis;
+    private final double writeLatencyLimitMillis;
+    private final double throttleRatio;
+    private final double resumeRatio;
+    private final int resumeChecks;
+    private final long throttleIdleMillis;
+
+    private final LongAdder writeNanos = new LongAdder();
+    private final LongAdder writeCount = new LongAdder();
+
+    private volatile State state = State.RUNNING;
+    private volatile double pressure;
+
+    // Only touched by the scheduled check
+    private int calmChecks;
+    private double lastAcquireNanos;
+    private long lastAcquireCount;
+    private long lastWriteNanos;
+    private long lastWriteCount;
+
+    /**
+     * Constructs a new ConsumerBackpressureController.
+     *
+     * @param registry                the registry holding the listener containers
+     * @param meterRegistry           the registry with the Hikari metrics, and
+     *                                the one the controller gauges are bound to
+     * @param enabled                 whether the controller acts on the listener
+     * @param acquireWaitLimitMillis  the mean connection-acquire wait that pauses
+     * @param writeLatencyLimitMillis the mean write latency that pauses
+     * @param throttleRatio           the pressure at which polls are spaced out
+     * @param resumeRatio             the pressure below which a check is calm
+     * @param resumeChecks            the calm checks needed to step down a state
+     * @param throttleIdleMillis      the pause between polls while throttled
+     */
+    public ConsumerBackpressureController(KafkaListenerEndpointRegistry registry,
+            MeterRegistry meterRegistry,
+            @Value("${consumer.backpressure.enabled:true}") boolean enabled,
+            @Value("${consumer.backpressure.acquire-wait-limit-ms:200}") double acquireWaitLimitMillis,
+            @Value("${consumer.backpressure.write-latency-limit-ms:500}") double writeLatencyLimitMillis,
+            @Value("${consumer.backpressure.throttle-ratio:0.5}") double throttleRatio,
+            @Value("${consumer.backpressure.resume-ratio:0.25}") double resumeRatio,
+            @Value("${consumer.backpressure.resume-checks:5}") int resumeChecks,
+            @Value("${consumer.backpressure.throttle-idle-ms:500}") long throttleIdleMillis) {
+        this.registry = registry;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.acquireWaitLimitMillis = acquireWaitLimitMillis;
+        this.writeLatencyLimitMillis = writeLatencyLimitMillis;
+        this.throttleRatio = throttleRatio;
+        this.resumeRatio = resumeRatio;
+        this.resumeChecks = resumeChecks;
+        this.throttleIdleMillis = throttleIdleMillis;
+
+        Gauge.builder("consumer.backpressure.state", this, c -> c.state.ordinal())
+                .description("Backpressure state of the tweets.processed listener: 0 running, 1 throttled, 2 paused")
+                .register(meterRegistry);
+        Gauge.builder("consumer.backpressure.pressure", this, c -> c.pressure)
+                .description("Database pressure relative to the pause threshold")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the duration of one database write made by the listener.
+     *
+     * @param nanos the write duration in nanoseconds
+     */
+    public void recordWrite(long nanos) {
+        writeNanos.add(nanos);
+        writeCount.increment();
+    }
+
+    /**
+     * Returns the current controller state.
+     *
+     * @return the state
+     */
+    public State state() {
+        return state;
+    }
+
+    /**
+     * Samples the database signals and moves the listener between states.
+     */
+    @Scheduled(fixedDelayString = "${consumer.backpressure.check-interval-ms:1000}")
+    public void check() {
+        if (!enabled) {
+            return;
+        }
+        MessageListenerContainer container = registry.getListenerContainer(LISTENER_ID);
+        if (container == null || !container.isRunning()) {
+            return;
+        }
+
+        State previous = state;
+        State target = update(acquireWaitMillis(), writeLatencyMillis());
+        if (target != previous) {
+            log.info("Consumer backpressure {} -> {} (pressure {})", previous, target, String.format("%.2f", pressure));
+            apply(container, target);
+        }
+    }
+
+    /**
+     * Turns one interval's database signals into a pressure figure and moves
+     * the state machine; the caller applies a changed state to the listener.
+     *
+     * @param acquireWaitMillis  the mean connection-acquire wait over the interval
+     * @param writeLatencyMillis the mean write latency over the interval
+     * @return the new state
+     */
+    State update(double acquireWaitMillis, double writeLatencyMillis) {
+        pressure = Math.max(acquireWaitMillis / acquireWaitLimitMillis, writeLatencyMillis / writeLatencyLimitMillis);
+
+        State target = state;
+        if (pressure >= 1.0) {
+            target = State.PAUSED;
+            calmChecks = 0;
+        } else if (pressure >= throttleRatio && state == State.RUNNING) {
+            target = State.THROTTLED;
+            calmChecks = 0;
+        } else if (pressure < resumeRatio && state != State.RUNNING) {
+            if (++calmChecks >= resumeChecks) {
+                target = State.values()[state.ordinal() - 1];
+                calmChecks = 0;
+            }
+        } else {
+            calmChecks = 0;
+        }
+        state = target;
+        return target;
+    }
+
+    private void apply(MessageListenerContainer container, State target) {
+        long idle = target == State.RUNNING ? 0 : throttleIdleMillis;
+        // Child containers hold their own copy of the container properties
+        if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent) {
+            concurrent.getContainers().forEach(child -> child.getContainerProperties().setIdleBetweenPolls(idle));
+        }
+        container.getContainerProperties().setIdleBetweenPolls(idle);
+
+        if (target == State.PAUSED) {
+            container.pause();
+        } else if (container.isPauseRequested()) {
+            container.resume();
+        }
+    }
+
+    /**
+     * Mean Hikari connection-acquire wait since the previous check.
+     */
+    private double acquireWaitMillis() {
+        Timer timer = meterRegistry.find("hikaricp.connections.acquire").timer();
+        if (timer == null) {
+            return 0;
+        }
+        double total = timer.totalTime(TimeUnit.NANOSECONDS);
+        long count = timer.count();
+        double mean = count > lastAcquireCount ? (total - lastAcquireNanos) / (count - lastAcquireCount) / 1e6 : 0;
+        lastAcquireNanos = total;
+        lastAcquireCount = count;
+        return mean;
+    }
+
+    /**
+     * Mean listener write latency since the previous check. With no writes
+     * (e.g. while paused) only the acquire wait drives the pressure.
+     */
+    private double writeLatencyMillis() {
+        long count = writeCount.sum();
+        long nanos = writeNanos.sum();
+        double mean = count > lastWriteCount ? (nanos - lastWriteNanos) / (double) (count - lastWriteCount) / 1e6 : 0;
+        lastWriteNanos = nanos;
+        lastWriteCount = count;
+        return mean;
+    }
+}
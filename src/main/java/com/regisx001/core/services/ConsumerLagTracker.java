@@ -0,0 +1,152 @@
+package com.regisx001.core.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Service;
+
+import com.regisx001.core.domain.dto.ConsumerGroupLag;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Turns the consumer-group offsets sampled by each health round into lag
+ * figures with a trend.
+ * <p>
+ * For every group and topic the total lag is compared with the previous
+ * sample; the change per second is smoothed with an exponential moving average
+ * and used to estimate how long the group needs to catch up. The latest sample
+ * is published as the {@code kafka.consumer.group.lag} (per partition),
+ * {@code kafka.consumer.group.lag.total}, {@code kafka.consumer.group.lag.rate}
+ * and {@code kafka.consumer.group.catchup} gauges.
+ */
+@Service
+public class ConsumerLagTracker {
+
+    /**
+     * Weight of the newest sample in the lag-rate moving average.
+     */
+    private static final double RATE_ALPHA = 0.3;
+
+    private final Map<String, Trend> trends = new ConcurrentHashMap<>();
+
+    private final MultiGauge partitionLagGauge;
+    private final MultiGauge totalLagGauge;
+    private final MultiGauge lagRateGauge;
+    private final MultiGauge catchUpGauge;
+
+    /**
+     * Constructs a new ConsumerLagTracker.
+     *
+     * @param meterRegistry the registry the lag gauges are bound to
+     */
+    public ConsumerLagTracker(MeterRegistry meterRegistry) {
+        this.partitionLagGauge = MultiGauge.builder("kafka.consumer.group.lag")
+                .description("Records between the committed and the end offset of a partition")
+                .baseUnit("records")
+                .register(meterRegistry);
+        this.totalLagGauge = MultiGauge.builder("kafka.consumer.group.lag.total")
+                .description("Total lag of a consumer group on a topic")
+                .baseUnit("records")
+                .register(meterRegistry);
+        this.lagRateGauge = MultiGauge.builder("kafka.consumer.group.lag.rate")
+                .description("Smoothed change of the total lag per second")
+                .baseUnit("records")
+                .register(meterRegistry);
+        this.catchUpGauge = MultiGauge.builder("kafka.consumer.group.catchup")
+                .description("Estimated time for a consumer group to catch up")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records one sample of end and committed offsets.
+     *
+     * @param endOffsets       the log end offset of every watched partition
+     * @param committedByGroup the committed offsets of each consumer group
+     * @return the lag of every group on every watched topic it has committed on,
+     *         ordered by group and topic
+     */
+    public List<ConsumerGroupLag> record(Map<TopicPartition, Long> endOffsets,
+            Map<String, Map<TopicPartition, Long>> committedByGroup) {
+        long now = System.nanoTime();
+        Map<String, List<TopicPartition>> partitionsByTopic = new TreeMap<>();
+        endOffsets.keySet().stream()
+                .sorted(Comparator.comparingInt(TopicPartition::partition))
+                .forEach(tp -> partitionsByTopic.computeIfAbsent(tp.topic(), t -> new ArrayList<>()).add(tp));
+
+        List<ConsumerGroupLag> result = new ArrayList<>();
+        new TreeMap<>(committedByGroup).forEach((group, committed) -> partitionsByTopic.forEach((topic, tps) -> {
+            if (tps.stream().noneMatch(committed::containsKey)) {
+                return;
+            }
+            List<ConsumerGroupLag.PartitionLag> partitions = new ArrayList<>(tps.size());
+            long totalLag = 0;
+            for (TopicPartition tp : tps) {
+                long end = endOffsets.get(tp);
+                Long offset = committed.get(tp);
+                long lag = offset != null ? Math.max(0, end - offset) : 0;
+                totalLag += lag;
+                partitions.add(new ConsumerGroupLag.PartitionLag(tp.partition(), end, offset, lag));
+            }
+            Double rate = trends.computeIfAbsent(group + '\u0000' + topic, k -> new Trend()).update(totalLag, now);
+            Long catchUp = totalLag == 0 ? Long.valueOf(0)
+                    : rate != null && rate < 0 ? Long.valueOf((long) Math.ceil(totalLag / -rate)) : null;
+            result.add(new ConsumerGroupLag(group, topic, totalLag, rate, catchUp, List.copyOf(partitions)));
+        }));
+        trends.keySet().retainAll(result.stream().map(l -> l.groupId() + '\u0000' + l.topic()).toList());
+
+        publish(result);
+        return result;
+    }
+
+    private void publish(List<ConsumerGroupLag> lags) {
+        List<MultiGauge.Row<?>> partitionRows = new ArrayList<>();
+        List<MultiGauge.Row<?>> totalRows = new ArrayList<>();
+        List<MultiGauge.Row<?>> rateRows = new ArrayList<>();
+        List<MultiGauge.Row<?>> catchUpRows = new ArrayList<>();
+        for (ConsumerGroupLag lag : lags) {
+            Tags tags = Tags.of("group", lag.groupId(), "topic", lag.topic());
+            for (ConsumerGroupLag.PartitionLag p : lag.partitions()) {
+                partitionRows.add(MultiGauge.Row.of(tags.and("partition", String.valueOf(p.partition())), p.lag()));
+            }
+            totalRows.add(MultiGauge.Row.of(tags, lag.totalLag()));
+            if (lag.lagRatePerSecond() != null) {
+                rateRows.add(MultiGauge.Row.of(tags, lag.lagRatePerSecond()));
+            }
+            if (lag.secondsToCatchUp() != null) {
+                catchUpRows.add(MultiGauge.Row.of(tags, lag.secondsToCatchUp()));
+            }
+        }
+        partitionLagGauge.register(partitionRows, true);
+        totalLagGauge.register(totalRows, true);
+        lagRateGauge.register(rateRows, true);
+        catchUpGauge.register(catchUpRows, true);
+    }
+
+    /**
+     * Lag history of one group on one topic.
+     */
+    private static final class Trend {
+        private long lastLag = -1;
+        private long lastNanos;
+        private Double rate;
+
+        Double update(long lag, long nanos) {
+            if (lastLag >= 0 && nanos > lastNanos) {
+                double sample = (lag - lastLag) * 1e9 / (nanos - lastNanos);
+                rate = rate == null ? sample : rate + RATE_ALPHA * (sample - rate);
+            }
+            lastLag = lag;
+            lastNanos = nanos;
+            return rate;
+        }
+    }
+}
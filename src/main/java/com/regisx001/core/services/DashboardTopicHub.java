@@ -0,0 +1,224 @@
+package com.regisx001.core.services;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Shared producers of the dashboard WebSocket topics.
+ * <p>
+ * A topic with the same parameters and period is computed once per tick no
+ * matter how many connections subscribe to it: the first subscriber starts a
+ * producer, later ones join it and immediately get its latest message, and the
+ * producer stops one period after the last subscriber leaves. Payloads are
+ * computed on the bounded {@code sseBlockingScheduler}, like the SSE streams,
+ * and each message is serialized at most once per encoding. A tick that fails
+ * is logged and skipped; the producer keeps running.
+ * <p>
+ * Topics and their parameters:
+ * <ul>
+ * <li>{@code analytics} — {@code bucket}, {@code minutes}, {@code maxPoints};
+ * the columnar analytics report</li>
+ * <li>{@code live-feed} — the last 10 processed tweets</li>
+ * <li>{@code health}, {@code health-details}, {@code consumer-lag},
+ * {@code intent-health} — views of the shared health snapshot</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class DashboardTopicHub {
+
+    private final Scheduler sseBlockingScheduler;
+    private final AnalyticsService analyticsService;
+    private final HealthSnapshotCollector healthSnapshotCollector;
+    private final JsonMapper jsonMapper;
+    private final CBORMapper cborMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration minPeriod;
+    private final Duration maxPeriod;
+
+    private final ConcurrentHashMap<String, Flux<TopicMessage>> producers = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new DashboardTopicHub.
+     *
+     * @param sseBlockingScheduler    the scheduler payloads are computed on
+     * @param analyticsService        the source of the analytics topics
+     * @param healthSnapshotCollector the source of the health topics
+     * @param jsonMapper              the mapper of JSON frames
+     * @param cborMapper              the mapper of CBOR frames
+     * @param meterRegistry           the registry producer metrics are bound to
+     * @param minPeriodMillis         the shortest period a client may ask for
+     * @param maxPeriodMillis         the longest period a client may ask for
+     */
+    public DashboardTopicHub(@Qualifier("sseBlockingScheduler") Scheduler sseBlockingScheduler,
+            AnalyticsService analyticsService, HealthSnapshotCollector healthSnapshotCollector,
+            JsonMapper jsonMapper, CBORMapper cborMapper, MeterRegistry meterRegistry,
+            @Value("${ws.min-period-ms:1000}") long minPeriodMillis,
+            @Value("${ws.max-period-ms:60000}") long maxPeriodMillis) {
+        this.sseBlockingScheduler = sseBlockingScheduler;
+        this.analyticsService = analyticsService;
+        this.healthSnapshotCollector = healthSnapshotCollector;
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = cborMapper;
+        this.meterRegistry = meterRegistry;
+        this.minPeriod = Duration.ofMillis(minPeriodMillis);
+        this.maxPeriod = Duration.ofMillis(maxPeriodMillis);
+        Gauge.builder("ws.producers", producers, Map::size)
+                .description("Running dashboard topic producers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the shared producer of a topic, starting it if no connection is
+     * subscribed to it yet.
+     *
+     * @param topic  the topic name
+     * @param params the topic parameters; unknown ones are ignored
+     * @param period the time between ticks, or {@code null} for the topic's
+     *               default; clamped to {@code ws.min-period-ms} ..
+     *               {@code ws.max-period-ms}
+     * @return the messages of the topic, starting with the latest one
+     * @throws IllegalArgumentException if the topic is unknown or a parameter
+     *                                  is invalid
+     */
+    public Flux<TopicMessage> topic(String topic, Map<String, String> params, Duration period) {
+        Map<String, String> p = params == null ? Map.of() : params;
+        String name = topic == null ? "" : topic;
+        Duration effective = clamp(period != null ? period
+                : name.equals("analytics") || name.equals("live-feed") ? Duration.ofSeconds(5)
+                        : Duration.ofSeconds(3));
+        String key;
+        Supplier<Object> payload;
+        switch (name) {
+            case "analytics" -> {
+                TimeBucket bucket = TimeBucket.parse(p.getOrDefault("bucket", "minute"));
+                int minutes = Integer.parseInt(p.getOrDefault("minutes", "60"));
+                int maxPoints = Integer.parseInt(p.getOrDefault("maxPoints", "0"));
+                if (maxPoints != 0 && maxPoints < 3) {
+                    throw new IllegalArgumentException("maxPoints must be 0 or at least 3");
+                }
+                bucket.count(minutes);
+                key = "analytics:" + bucket.seconds() + ":" + minutes + ":" + maxPoints;
+                payload = () -> analyticsService.getColumnarReport(bucket, minutes, maxPoints);
+            }
+            case "live-feed" -> {
+                key = name;
+                payload = () -> analyticsService.getLiveFeed(10);
+            }
+            case "health" -> {
+                key = name;
+                payload = () -> healthSnapshotCollector.snapshot().report();
+            }
+            case "health-details" -> {
+                key = name;
+                payload = () -> healthSnapshotCollector.snapshot().details();
+            }
+            case "consumer-lag" -> {
+                key = name;
+                payload = () -> healthSnapshotCollector.snapshot().details().kafka().consumerGroups();
+            }
+            case "intent-health" -> {
+                key = name;
+                payload = () -> healthSnapshotCollector.snapshot().details().intent();
+            }
+            default -> throw new IllegalArgumentException("Unknown topic '" + name + "'");
+        }
+        String producerKey = key + "@" + effective.toMillis();
+        return producers.computeIfAbsent(producerKey, k -> producer(k, name, effective, payload));
+    }
+
+    private Flux<TopicMessage> producer(String key, String topic, Duration period, Supplier<Object> payload) {
+        Timer tickTimer = Timer.builder("ws.tick")
+                .description("Time to compute the payload of a dashboard topic tick")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        AtomicReference<Flux<TopicMessage>> self = new AtomicReference<>();
+        Flux<TopicMessage> shared = Flux.interval(Duration.ZERO, period)
+                .onBackpressureDrop()
+                .concatMap(seq -> Mono.fromCallable(() -> new TopicMessage(tickTimer.record(payload)))
+                        .subscribeOn(sseBlockingScheduler)
+                        .onErrorResume(ex -> {
+                            log.warn("Dashboard topic {} tick failed: {}", key, ex.getMessage());
+                            return Mono.empty();
+                        }), 0)
+                .doFinally(signal -> producers.remove(key, self.get()))
+                .replay(1)
+                .refCount(1, period);
+        self.set(shared);
+        log.debug("Starting dashboard topic producer {}", key);
+        return shared;
+    }
+
+    private Duration clamp(Duration period) {
+        return period.compareTo(minPeriod) < 0 ? minPeriod
+                : period.compareTo(maxPeriod) > 0 ? maxPeriod : period;
+    }
+
+    /**
+     * One tick of a topic, shared by every subscribed connection. The
+     * serialized forms are computed on first use; a concurrent first use may
+     * serialize twice, which is harmless.
+     */
+    public final class TopicMessage {
+
+        private final Object payload;
+        private volatile byte[] json;
+        private volatile byte[] cbor;
+
+        private TopicMessage(Object payload) {
+            this.payload = payload;
+        }
+
+        /**
+         * Returns the payload of the tick.
+         *
+         * @return the payload
+         */
+        public Object payload() {
+            return payload;
+        }
+
+        /**
+         * Returns the payload serialized as JSON.
+         *
+         * @return the JSON bytes
+         */
+        public byte[] json() {
+            byte[] bytes = json;
+            if (bytes == null) {
+                json = bytes = jsonMapper.writeValueAsBytes(payload);
+            }
+            return bytes;
+        }
+
+        /**
+         * Returns the payload serialized as CBOR.
+         *
+         * @return the CBOR bytes
+         */
+        public byte[] cbor() {
+            byte[] bytes = cbor;
+            if (bytes == null) {
+                cbor = bytes = cborMapper.writeValueAsBytes(payload);
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.regisx001.core.services;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional duplicate-text suppression stage in front of tweet ingestion.
+ * <p>
+ * The cleaned text of every tweet (see {@link TextNormalizer}) is hashed into a
+ * pair of Bloom filters. New fingerprints go into the current generation;
+ * lookups consult both generations. Every window the previous generation is
+ * discarded and the current one takes its place, so a text is recognised for
+ * at least one window and at most two, with bounded memory regardless of
+ * traffic. Bits are set with an atomic OR, so lookups never lock.
+ */
+@Slf4j
+@Service
+public class DuplicateTextFilter {
+
+    /**
+     * What happens to a tweet whose text was seen within the window.
+     */
+    public enum Mode {
+        /** Dedup stage disabled. */
+        OFF,
+        /** Duplicates are ingested normally and only counted. */
+        COUNT,
+        /** Duplicates are not ingested. */
+        DROP,
+        /** Duplicates are ingested and tagged with the content hash of the original. */
+        LINK
+    }
+
+    private final Mode mode;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    /**
+     * Constructs a new DuplicateTextFilter.
+     *
+     * @param mode               the dedup mode: off, count, drop or link
+     * @param expectedInsertions the number of distinct texts expected per window
+     * @param falsePositiveRate  the target false-positive rate per generation
+     * @param meterRegistry      the registry the filter metrics are bound to
+     * @throws IllegalArgumentException if the settings are out of range or need
+     *                                  a filter larger than its bit index can
+     *                                  address
+     */
+    public DuplicateTextFilter(
+            @Value("${ingest.dedup.mode:off}") String mode,
+            @Value("${ingest.dedup.expected-insertions:1000000}") int expectedInsertions,
+            @Value("${ingest.dedup.false-positive-rate:0.01}") double falsePositiveRate,
+            MeterRegistry meterRegistry) {
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        if (this.mode != Mode.OFF) {
+            if (expectedInsertions <= 0) {
+                throw new IllegalArgumentException(
+                        "ingest.dedup.expected-insertions must be positive, got " + expectedInsertions);
+            }
+            if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+                throw new IllegalArgumentException(
+                        "ingest.dedup.false-positive-rate must be between 0 and 1, got " + falsePositiveRate);
+            }
+            long bits = BloomFilter.bits(expectedInsertions, falsePositiveRate);
+            if (bits > BloomFilter.MAX_BITS) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT,
+                        "ingest.dedup.expected-insertions=%d with false-positive-rate=%s needs %d bits per "
+                                + "generation, more than the %d a filter can address; lower the insertions "
+                                + "or raise the rate",
+                        expectedInsertions, falsePositiveRate, bits, BloomFilter.MAX_BITS));
+            }
+            this.current = new BloomFilter(expectedInsertions, falsePositiveRate);
+            this.previous = new BloomFilter(expectedInsertions, falsePositiveRate);
+            log.info("Duplicate-text filter enabled: mode={}, {} bytes per generation",
+                    this.mode, current.sizeInBytes());
+        }
+
+        Gauge.builder("ingest.dedup.memory", this, DuplicateTextFilter::memoryBytes)
+                .description("Memory held by the duplicate-text Bloom filters")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("ingest.dedup.hit.ratio", this, DuplicateTextFilter::hitRatio)
+                .description("Share of ingested tweets recognised as duplicates")
+                .register(meterRegistry);
+        FunctionCounter.builder("ingest.dedup.checks", checks, LongAdder::sum)
+                .description("Tweets checked by the duplicate-text filter")
+                .register(meterRegistry);
+        FunctionCounter.builder("ingest.dedup.duplicates", duplicates, LongAdder::sum)
+                .description("Tweets recognised as duplicates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the configured dedup mode.
+     *
+     * @return the mode
+     */
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Records the text and reports whether it was already seen within the
+     * window. Texts that clean to nothing are never reported as duplicates.
+     *
+     * @param text the raw tweet text
+     * @return {@code true} if the text is (probably) a duplicate
+     */
+    public boolean checkAndRecord(String text) {
+        if (mode == Mode.OFF) {
+            return false;
+        }
+        long fingerprint = TextNormalizer.fingerprint(text);
+        if (fingerprint == 0L) {
+            return false;
+        }
+        checks.increment();
+        boolean added = current.put(fingerprint);
+        boolean duplicate = !added || previous.mightContain(fingerprint);
+        if (duplicate) {
+            duplicates.increment();
+        }
+        return duplicate;
+    }
+
+    /**
+     * Retires the previous generation and starts a fresh current one.
+     */
+    @Scheduled(fixedRateString = "#{${ingest.dedup.window-seconds:600} * 1000}",
+            initialDelayString = "#{${ingest.dedup.window-seconds:600} * 1000}")
+    public void rotate() {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        previous = current;
+        current = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    private double memoryBytes() {
+        return mode == Mode.OFF ? 0 : current.sizeInBytes() + previous.sizeInBytes();
+    }
+
+    private double hitRatio() {
+        long total = checks.sum();
+        return total == 0 ? 0.0 : (double) duplicates.sum() / total;
+    }
+
+    /**
+     * Fixed-size Bloom filter over 64-bit fingerprints using
+     * Kirsch–Mitzenmacher double hashing on the two 32-bit halves.
+     */
+    static final class BloomFilter {
+
+        /**
+         * Largest addressable size: bit indexes are 31-bit.
+         */
+        static final long MAX_BITS = 1L << 31;
+
+        private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+        private final long[] words;
+        private final long numBits;
+        private final int numHashes;
+
+        BloomFilter(long expectedInsertions, double falsePositiveRate) {
+            long bits = bits(expectedInsertions, falsePositiveRate);
+            this.words = new long[Math.toIntExact(bits >>> 6)];
+            this.numBits = bits;
+            this.numHashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        }
+
+        /**
+         * Optimal filter size for the given load, rounded up to whole words.
+         */
+        static long bits(long expectedInsertions, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate)
+                    / (Math.log(2) * Math.log(2)));
+            return Math.max(64, (bits + 63) & ~63L);
+        }
+
+        /**
+         * Adds the fingerprint.
+         *
+         * @return {@code true} if at least one bit changed, i.e. the fingerprint
+         *         was definitely absent before
+         */
+        boolean put(long fingerprint) {
+            int h1 = (int) fingerprint;
+            int h2 = (int) (fingerprint >>> 32);
+            boolean changed = false;
+            for (int i = 1; i <= numHashes; i++) {
+                long bit = indexOf(h1 + i * h2);
+                long mask = 1L << bit;
+                long before = (long) WORDS.getAndBitwiseOr(words, (int) (bit >>> 6), mask);
+                changed |= (before & mask) == 0;
+            }
+            return changed;
+        }
+
+        boolean mightContain(long fingerprint) {
+            int h1 = (int) fingerprint;
+            int h2 = (int) (fingerprint >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                long bit = indexOf(h1 + i * h2);
+                long word = (long) WORDS.getVolatile(words, (int) (bit >>> 6));
+                if ((word & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long sizeInBytes() {
+            return (long) words.length * Long.BYTES;
+        }
+
+        private long indexOf(int combined) {
+            return (combined & Integer.MAX_VALUE) % numBits;
+        }
+    }
+}
@@ -1,16 +1,15 @@
 package com.regisx001.core.services;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URI;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -18,49 +17,115 @@ import javax.sql.DataSource;
 
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.GroupListing;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsSpec;
+import org.apache.kafka.clients.admin.ListGroupsOptions;
+import org.apache.kafka.clients.admin.OffsetSpec;
 import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.regisx001.core.domain.dto.ConsumerGroupLag;
 import com.regisx001.core.domain.dto.KafkaMetrics;
 import com.regisx001.core.domain.dto.PostgresMetrics;
-import com.regisx001.core.domain.dto.ServiceHealth;
 import com.regisx001.core.domain.dto.SparkMetrics;
+import com.regisx001.core.domain.dto.StreamingQueryMetrics;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+/**
+ * Probes PostgreSQL, Kafka and the Spark master.
+ * <p>
+ * The Kafka {@link AdminClient} is created once and Spark is queried through
+ * the pooled, non-blocking {@code sparkWebClient}, so probing keeps its broker
+ * and HTTP connections open instead of re-establishing them (and the admin
+ * client's network thread) on each call. Probes are driven by
+ * {@link HealthSnapshotCollector}; endpoints read its snapshot.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class HealthCheckService {
 
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * All basic PostgreSQL figures in a single round trip.
+     */
+    private static final String POSTGRES_BASICS_SQL = """
+            SELECT version(),
+                   (SELECT count(*) FROM pg_stat_activity WHERE state = 'active'),
+                   current_setting('max_connections')::int,
+                   db.size,
+                   pg_size_pretty(db.size),
+                   EXTRACT(EPOCH FROM (now() - pg_postmaster_start_time()))::bigint
+            FROM (SELECT pg_database_size(current_database()) AS size) db
+            """;
+
     private final DataSource dataSource;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConsumerLagTracker consumerLagTracker;
+    private final SparkStreamingMonitor sparkStreamingMonitor;
+    private final WebClient sparkWebClient;
+    private final String sparkMasterUrl;
+    private final List<String> lagTopics;
+    private final long lagTimeoutMillis;
+    private final String sparkProgressGroup;
+    private final AdminClient adminClient;
+
+    /**
+     * Constructs a new HealthCheckService.
+     *
+     * @param dataSource            the application data source
+     * @param consumerLagTracker    the tracker turning sampled offsets into lag
+     * @param sparkStreamingMonitor the Structured Streaming progress collector
+     * @param sparkWebClient        the pooled client used for Spark requests
+     * @param kafkaBootstrapServers the Kafka bootstrap servers
+     * @param sparkMasterUrl        the base URL of the Spark master web UI
+     * @param lagTopics             the topics whose consumer-group lag is sampled
+     * @param lagTimeoutMillis      the time allowed for each lag lookup call
+     * @param sparkProgressGroup    the group the Spark streaming job commits
+     *                              its progress to
+     */
+    public HealthCheckService(DataSource dataSource,
+            ConsumerLagTracker consumerLagTracker,
+            SparkStreamingMonitor sparkStreamingMonitor,
+            @Qualifier("sparkWebClient") WebClient sparkWebClient,
+            @Value("${spring.kafka.bootstrap-servers}") String kafkaBootstrapServers,
+            @Value("${health.spark.master-url:http://localhost:8080}") String sparkMasterUrl,
+            @Value("${health.kafka.lag-topics:tweets.raw,tweets.processed}") List<String> lagTopics,
+            @Value("${health.kafka.lag-timeout-ms:1000}") long lagTimeoutMillis,
+            @Value("${health.kafka.spark-progress-group:spark-tweet-sentiment}") String sparkProgressGroup) {
+        this.dataSource = dataSource;
+        this.consumerLagTracker = consumerLagTracker;
+        this.sparkStreamingMonitor = sparkStreamingMonitor;
+        this.sparkWebClient = sparkWebClient;
+        this.sparkMasterUrl = sparkMasterUrl;
+        this.lagTopics = lagTopics;
+        this.lagTimeoutMillis = lagTimeoutMillis;
+        this.sparkProgressGroup = sparkProgressGroup;
+        this.adminClient = AdminClient.create(Map.of(
+                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers,
+                AdminClientConfig.CLIENT_ID_CONFIG, "health-probe",
+                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, "5000",
+                AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, "5000"));
+    }
 
-    @Value("${spring.kafka.bootstrap-servers}")
-    private String kafkaBootstrapServers;
-
-    @Value("${health.spark.master-url:http://localhost:8080}")
-    private String sparkMasterUrl;
-
-    // ---------------------------------------------------------------
-    // PostgreSQL – simple ping
-    // ---------------------------------------------------------------
-    public ServiceHealth checkPostgres() {
-        long start = System.currentTimeMillis();
-        try (Connection conn = dataSource.getConnection()) {
-            boolean valid = conn.isValid(5);
-            long latency = System.currentTimeMillis() - start;
-            if (valid)
-                return ServiceHealth.up("PostgreSQL", latency);
-            return ServiceHealth.down("PostgreSQL", "Connection validation returned false");
-        } catch (Exception ex) {
-            log.warn("PostgreSQL health check failed: {}", ex.getMessage());
-            return ServiceHealth.down("PostgreSQL", ex.getMessage());
-        }
+    /**
+     * Closes the long-lived probe clients.
+     */
+    @PreDestroy
+    public void close() {
+        adminClient.close(PROBE_TIMEOUT);
     }
 
     // ---------------------------------------------------------------
@@ -72,41 +137,20 @@ public class HealthCheckService {
                 Statement st = conn.createStatement()) {
 
             String version = null;
-            try (ResultSet rs = st.executeQuery("SELECT version()")) {
-                if (rs.next())
-                    version = rs.getString(1);
-            }
-
             int activeConnections = 0;
-            try (ResultSet rs = st.executeQuery(
-                    "SELECT count(*) FROM pg_stat_activity WHERE state = 'active'")) {
-                if (rs.next())
-                    activeConnections = rs.getInt(1);
-            }
-
             int maxConnections = 100;
-            try (ResultSet rs = st.executeQuery("SHOW max_connections")) {
-                if (rs.next())
-                    maxConnections = Integer.parseInt(rs.getString(1).trim());
-            }
-
             long dbSizeBytes = 0;
-            try (ResultSet rs = st.executeQuery("SELECT pg_database_size(current_database())")) {
-                if (rs.next())
-                    dbSizeBytes = rs.getLong(1);
-            }
-
             String dbSizeHuman = null;
-            try (ResultSet rs = st.executeQuery("SELECT pg_size_pretty(pg_database_size(current_database()))")) {
-                if (rs.next())
-                    dbSizeHuman = rs.getString(1);
-            }
-
             long uptimeSeconds = 0;
-            try (ResultSet rs = st.executeQuery(
-                    "SELECT EXTRACT(EPOCH FROM (now() - pg_postmaster_start_time()))::bigint")) {
-                if (rs.next())
-                    uptimeSeconds = rs.getLong(1);
+            try (ResultSet rs = st.executeQuery(POSTGRES_BASICS_SQL)) {
+                if (rs.next()) {
+                    version = rs.getString(1);
+                    activeConnections = rs.getInt(2);
+                    maxConnections = rs.getInt(3);
+                    dbSizeBytes = rs.getLong(4);
+                    dbSizeHuman = rs.getString(5);
+                    uptimeSeconds = rs.getLong(6);
+                }
             }
 
             long latency = System.currentTimeMillis() - start;
@@ -120,38 +164,15 @@ public class HealthCheckService {
         }
     }
 
-    // ---------------------------------------------------------------
-    // Kafka – simple ping
-    // ---------------------------------------------------------------
-    public ServiceHealth checkKafka() {
-        long start = System.currentTimeMillis();
-        Map<String, Object> config = Map.of(
-                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers,
-                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, "5000",
-                AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, "5000");
-        try (AdminClient admin = AdminClient.create(config)) {
-            admin.listTopics().names().get(5, TimeUnit.SECONDS);
-            long latency = System.currentTimeMillis() - start;
-            return ServiceHealth.up("Kafka", latency);
-        } catch (Exception ex) {
-            log.warn("Kafka health check failed: {}", ex.getMessage());
-            return ServiceHealth.down("Kafka", ex.getMessage());
-        }
-    }
-
     // ---------------------------------------------------------------
     // Kafka – detailed metrics
     // ---------------------------------------------------------------
     public KafkaMetrics kafkaMetrics() {
         long start = System.currentTimeMillis();
-        Map<String, Object> config = Map.of(
-                AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers,
-                AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, "5000",
-                AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, "5000");
-        try (AdminClient admin = AdminClient.create(config)) {
-            Set<String> topicNames = admin.listTopics().names().get(5, TimeUnit.SECONDS);
+        try {
+            Set<String> topicNames = adminClient.listTopics().names().get(5, TimeUnit.SECONDS);
 
-            Map<String, TopicDescription> descriptions = admin
+            Map<String, TopicDescription> descriptions = adminClient
                     .describeTopics(topicNames).allTopicNames().get(5, TimeUnit.SECONDS);
 
             List<KafkaMetrics.TopicInfo> topics = descriptions.values().stream()
@@ -163,76 +184,106 @@ public class HealthCheckService {
                     .sorted((a, b) -> a.name().compareTo(b.name()))
                     .collect(Collectors.toList());
 
-            int brokerCount = admin.describeCluster().nodes()
+            int brokerCount = adminClient.describeCluster().nodes()
                     .get(5, TimeUnit.SECONDS).size();
 
+            // the cluster answered, so a failed lag lookup only degrades the probe
+            String status = "UP";
+            String message = null;
+            List<ConsumerGroupLag> consumerGroups;
+            try {
+                consumerGroups = consumerGroupLag(descriptions);
+            } catch (Exception ex) {
+                log.warn("Kafka consumer lag lookup failed: {}", ex.getMessage());
+                status = "DEGRADED";
+                message = "Consumer lag unavailable: " + ex.getMessage();
+                consumerGroups = List.of();
+            }
+
             long latency = System.currentTimeMillis() - start;
-            return new KafkaMetrics("UP", latency, null, brokerCount,
-                    topicNames.size(), topics);
+            return new KafkaMetrics(status, latency, message, brokerCount,
+                    topicNames.size(), topics, consumerGroups);
 
         } catch (Exception ex) {
             log.warn("Kafka metrics failed: {}", ex.getMessage());
             return new KafkaMetrics("DOWN", null, ex.getMessage(),
-                    0, 0, List.of());
+                    0, 0, List.of(), List.of());
         }
     }
 
     // ---------------------------------------------------------------
-    // Spark – simple ping
+    // Kafka – consumer-group lag on the watched topics; each call gets
+    // lagTimeoutMillis so a slow lookup fails inside the probe deadline
     // ---------------------------------------------------------------
-    public ServiceHealth checkSpark() {
-        long start = System.currentTimeMillis();
-        String endpoint = sparkMasterUrl + "/json/";
-        try {
-            HttpURLConnection conn = (HttpURLConnection) URI.create(endpoint).toURL().openConnection();
-            conn.setConnectTimeout(5_000);
-            conn.setReadTimeout(5_000);
-            conn.setRequestMethod("GET");
-            int code = conn.getResponseCode();
-            long latency = System.currentTimeMillis() - start;
-            if (code >= 200 && code < 400) {
-                try (var in = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-                    String body = in.lines().collect(Collectors.joining());
-                    conn.disconnect();
-                    if (body.contains("\"status\"") && body.contains("\"ALIVE\"")) {
-                        return ServiceHealth.up("Spark", latency);
-                    }
-                    return ServiceHealth.down("Spark", "Status not ALIVE");
+    private List<ConsumerGroupLag> consumerGroupLag(Map<String, TopicDescription> descriptions)
+            throws Exception {
+        Map<TopicPartition, OffsetSpec> watched = new HashMap<>();
+        for (String topic : lagTopics) {
+            TopicDescription td = descriptions.get(topic);
+            if (td != null) {
+                td.partitions().forEach(p -> watched.put(new TopicPartition(topic, p.partition()), OffsetSpec.latest()));
+            }
+        }
+        if (watched.isEmpty())
+            return List.of();
+
+        Map<TopicPartition, Long> endOffsets = new HashMap<>();
+        adminClient.listOffsets(watched).all().get(lagTimeoutMillis, TimeUnit.MILLISECONDS)
+                .forEach((tp, info) -> endOffsets.put(tp, info.offset()));
+
+        Map<String, ListConsumerGroupOffsetsSpec> specs = new HashMap<>();
+        for (GroupListing group : adminClient.listGroups(ListGroupsOptions.forConsumerGroups())
+                .all().get(lagTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            specs.put(group.groupId(), new ListConsumerGroupOffsetsSpec().topicPartitions(watched.keySet()));
+        }
+        // The Spark job's group has no members, only the offsets it commits after
+        // each micro-batch, so it is looked up whether or not it is listed
+        specs.putIfAbsent(sparkProgressGroup, new ListConsumerGroupOffsetsSpec().topicPartitions(watched.keySet()));
+        Map<String, Map<TopicPartition, Long>> committed = new HashMap<>();
+        ListConsumerGroupOffsetsResult offsetsResult = adminClient.listConsumerGroupOffsets(specs);
+        for (String group : specs.keySet()) {
+            Map<TopicPartition, OffsetAndMetadata> offsets;
+            try {
+                offsets = offsetsResult.partitionsToOffsetAndMetadata(group)
+                        .get(lagTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException ex) {
+                if (!group.equals(sparkProgressGroup)) {
+                    throw ex;
                 }
+                // the Spark job has not committed yet
+                log.debug("No progress for Spark group {}: {}", group, ex.getCause().getMessage());
+                continue;
             }
-            conn.disconnect();
-            return ServiceHealth.down("Spark", "HTTP " + code);
-        } catch (Exception ex) {
-            log.warn("Spark health check failed: {}", ex.getMessage());
-            return ServiceHealth.down("Spark", ex.getMessage());
+            Map<TopicPartition, Long> groupOffsets = new HashMap<>();
+            offsets.forEach((tp, om) -> {
+                if (om != null)
+                    groupOffsets.put(tp, om.offset());
+            });
+            committed.put(group, groupOffsets);
         }
+        return consumerLagTracker.record(endOffsets, committed);
     }
 
     // ---------------------------------------------------------------
-    // Spark – detailed metrics (parses /json/ response)
+    // Spark – detailed metrics (parses /json/ response, plus streaming
+    // query progress from the driver UI, fetched concurrently)
     // ---------------------------------------------------------------
     public SparkMetrics sparkMetrics() {
         long start = System.currentTimeMillis();
-        String endpoint = sparkMasterUrl + "/json/";
+        List<StreamingQueryMetrics> streaming = List.of();
         try {
-            HttpURLConnection conn = (HttpURLConnection) URI.create(endpoint).toURL().openConnection();
-            conn.setConnectTimeout(5_000);
-            conn.setReadTimeout(5_000);
-            conn.setRequestMethod("GET");
-            int code = conn.getResponseCode();
-            if (code < 200 || code >= 400) {
-                conn.disconnect();
-                return new SparkMetrics("DOWN", null, "HTTP " + code,
-                        null, 0, 0, 0, 0, 0, 0, 0, List.of());
+            Tuple2<SparkStatus, List<StreamingQueryMetrics>> results = Mono
+                    .zip(fetchSparkStatus(), sparkStreamingMonitor.poll())
+                    .block(PROBE_TIMEOUT);
+            SparkStatus response = results.getT1();
+            streaming = results.getT2();
+            if (response.code() < 200 || response.code() >= 400) {
+                return new SparkMetrics("DOWN", null, "HTTP " + response.code(),
+                        null, 0, 0, 0, 0, 0, 0, 0, List.of(), streaming);
             }
-            String body;
-            try (var in = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-                body = in.lines().collect(Collectors.joining());
-            }
-            conn.disconnect();
             long latency = System.currentTimeMillis() - start;
 
-            JsonNode root = objectMapper.readTree(body);
+            JsonNode root = objectMapper.readTree(response.body());
 
             String masterUrl = root.path("url").asText(null);
             int aliveWorkers = root.path("aliveworkers").asInt(0);
@@ -256,17 +307,35 @@ public class HealthCheckService {
                         w.path("state").asText()));
             }
 
-            boolean alive = body.contains("\"status\"") && body.contains("\"ALIVE\"");
+            boolean alive = response.alive();
             return new SparkMetrics(
                     alive ? "UP" : "DOWN", latency,
                     alive ? null : "Master status not ALIVE",
                     masterUrl, aliveWorkers, totalCores, usedCores,
-                    totalMem, usedMem, activeApps, completedApps, workers);
+                    totalMem, usedMem, activeApps, completedApps, workers, streaming);
 
         } catch (Exception ex) {
             log.warn("Spark metrics failed: {}", ex.getMessage());
             return new SparkMetrics("DOWN", null, ex.getMessage(),
-                    null, 0, 0, 0, 0, 0, 0, 0, List.of());
+                    null, 0, 0, 0, 0, 0, 0, 0, List.of(), streaming);
+        }
+    }
+
+    private Mono<SparkStatus> fetchSparkStatus() {
+        return sparkWebClient.get()
+                .uri(sparkMasterUrl + "/json/")
+                .exchangeToMono(response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(body -> new SparkStatus(response.statusCode().value(), body)));
+    }
+
+    /**
+     * Status code and body of the master's {@code /json/} page.
+     */
+    private record SparkStatus(int code, String body) {
+
+        boolean alive() {
+            return body.contains("\"status\"") && body.contains("\"ALIVE\"");
         }
     }
 }
@@ -0,0 +1,182 @@
+package com.regisx001.core.services;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.regisx001.core.domain.dto.DetailedHealthReport;
+import com.regisx001.core.domain.dto.HealthReport;
+import com.regisx001.core.domain.dto.HealthSnapshot;
+import com.regisx001.core.domain.dto.IntentHealthResponse;
+import com.regisx001.core.domain.dto.KafkaMetrics;
+import com.regisx001.core.domain.dto.PostgresMetrics;
+import com.regisx001.core.domain.dto.ServiceHealth;
+import com.regisx001.core.domain.dto.SparkMetrics;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Single owner of health probing.
+ * <p>
+ * One scheduled round every {@code health.collect-interval-ms} runs the
+ * PostgreSQL, Kafka and Spark probes of {@link HealthCheckService} and the
+ * intent service check concurrently, each on its own virtual thread, under a
+ * single {@code health.probe-deadline-ms} deadline. A probe that misses the
+ * deadline is cancelled and reported as {@code TIMEOUT}; the others are
+ * reported as they completed, so one dead dependency no longer delays the
+ * rest. The result is published as an immutable {@link HealthSnapshot} and the
+ * simple report is derived from the same probes rather than probing again.
+ * REST endpoints and SSE streams only read the latest snapshot, so the load on
+ * the dependencies is the same whether zero or a hundred dashboards are open.
+ */
+@Slf4j
+@Service
+public class HealthSnapshotCollector {
+
+    private final HealthCheckService healthCheckService;
+    private final IntentHealthService intentHealthService;
+    private final long probeDeadlineMillis;
+
+    private final ExecutorService probeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ReentrantLock collectLock = new ReentrantLock();
+
+    private volatile HealthSnapshot snapshot;
+
+    /**
+     * Constructs a new HealthSnapshotCollector.
+     *
+     * @param healthCheckService  the PostgreSQL, Kafka and Spark probes
+     * @param intentHealthService the intent service health client
+     * @param probeDeadlineMillis the deadline shared by all probes of a round
+     */
+    public HealthSnapshotCollector(HealthCheckService healthCheckService,
+            IntentHealthService intentHealthService,
+            @Value("${health.probe-deadline-ms:2500}") long probeDeadlineMillis) {
+        this.healthCheckService = healthCheckService;
+        this.intentHealthService = intentHealthService;
+        this.probeDeadlineMillis = probeDeadlineMillis;
+    }
+
+    /**
+     * Returns the latest snapshot. Before the first scheduled round has
+     * finished, the caller collects it instead.
+     *
+     * @return the latest health snapshot
+     */
+    public HealthSnapshot snapshot() {
+        HealthSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        collectLock.lock();
+        try {
+            return snapshot != null ? snapshot : collect();
+        } finally {
+            collectLock.unlock();
+        }
+    }
+
+    /**
+     * Runs one collection round and publishes its snapshot. Rounds never
+     * overlap.
+     */
+    @Scheduled(fixedDelayString = "${health.collect-interval-ms:3000}")
+    public void refresh() {
+        collectLock.lock();
+        try {
+            collect();
+        } finally {
+            collectLock.unlock();
+        }
+    }
+
+    /**
+     * Interrupts probes still running at shutdown.
+     */
+    @PreDestroy
+    public void close() {
+        probeExecutor.shutdownNow();
+    }
+
+    private HealthSnapshot collect() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(probeDeadlineMillis);
+        Future<PostgresMetrics> postgresProbe = probeExecutor.submit(healthCheckService::postgresMetrics);
+        Future<KafkaMetrics> kafkaProbe = probeExecutor.submit(healthCheckService::kafkaMetrics);
+        Future<SparkMetrics> sparkProbe = probeExecutor.submit(healthCheckService::sparkMetrics);
+        long intentStart = System.currentTimeMillis();
+        CompletableFuture<IntentHealthResponse> intentProbe = intentHealthService.fetchHealth().toFuture();
+        CompletableFuture<Long> intentLatency = intentProbe.thenApply(r -> System.currentTimeMillis() - intentStart);
+
+        PostgresMetrics postgres = await(postgresProbe, deadline,
+                (status, msg) -> new PostgresMetrics(status, null, msg, null, 0, 0, 0, null, 0));
+        KafkaMetrics kafka = await(kafkaProbe, deadline,
+                (status, msg) -> new KafkaMetrics(status, null, msg, 0, 0, List.of(), List.of()));
+        SparkMetrics spark = await(sparkProbe, deadline,
+                (status, msg) -> new SparkMetrics(status, null, msg, null, 0, 0, 0, 0, 0, 0, 0, List.of(), List.of()));
+        IntentHealthResponse intent = await(intentProbe, deadline,
+                (status, msg) -> new IntentHealthResponse("DOWN".equals(status) ? "UNREACHABLE" : status, false, null));
+        if (intent == null) {
+            // an empty body completes the probe with no response
+            intent = new IntentHealthResponse("UNREACHABLE", false, null);
+        }
+        // a cancelled probe cancels the latency stage too, so only read it when it succeeded
+        long intentLatencyMs = intentLatency.isDone() && !intentLatency.isCompletedExceptionally()
+                ? intentLatency.join()
+                : 0L;
+
+        HealthReport report = HealthReport.of(List.of(
+                new ServiceHealth("PostgreSQL", postgres.status(), postgres.message(), postgres.latencyMs()),
+                new ServiceHealth("Kafka", kafka.status(), kafka.message(), kafka.latencyMs()),
+                new ServiceHealth("Spark", spark.status(), spark.message(), spark.latencyMs()),
+                intentHealth(intent, intentLatencyMs)));
+        HealthSnapshot collected = new HealthSnapshot(report,
+                DetailedHealthReport.of(postgres, kafka, spark, intent), Instant.now());
+        snapshot = collected;
+        log.debug("Health snapshot collected: {}", report.overall());
+        return collected;
+    }
+
+    /**
+     * Waits for a probe until the round deadline. A probe that misses it is
+     * cancelled (interrupting its thread) and replaced by a {@code TIMEOUT}
+     * result built from a status and message.
+     */
+    private <T> T await(Future<T> probe, long deadline, BiFunction<String, String, T> failed) {
+        try {
+            return probe.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            probe.cancel(true);
+            return failed.apply("TIMEOUT", "No response within " + probeDeadlineMillis + " ms");
+        } catch (InterruptedException ex) {
+            probe.cancel(true);
+            Thread.currentThread().interrupt();
+            return failed.apply("TIMEOUT", "Interrupted");
+        } catch (ExecutionException ex) {
+            log.warn("Health probe failed: {}", ex.getCause().getMessage());
+            return failed.apply("DOWN", ex.getCause().getMessage());
+        }
+    }
+
+    private ServiceHealth intentHealth(IntentHealthResponse intent, long latencyMs) {
+        return switch (String.valueOf(intent.status())) {
+            case "TIMEOUT" -> ServiceHealth.timeout("Intent", probeDeadlineMillis);
+            case "UNREACHABLE" -> ServiceHealth.down("Intent", "Unreachable");
+            default -> intent.modelsLoaded()
+                    ? ServiceHealth.up("Intent", latencyMs)
+                    : ServiceHealth.down("Intent", "Models not loaded");
+        };
+    }
+}
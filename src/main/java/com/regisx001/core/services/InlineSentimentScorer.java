@@ -0,0 +1,84 @@
+package com.regisx001.core.services;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scores tweets inside the backend with {@link SentimentModel} when
+ * {@code sentiment.scoring.mode} is {@code inline}, replacing the Kafka → Spark
+ * → Kafka round trip. In the default {@code spark} mode, or if the model export
+ * cannot be loaded, the scorer stays inactive and tweets keep flowing through
+ * Spark.
+ */
+@Slf4j
+@Service
+public class InlineSentimentScorer {
+
+    /**
+     * Loaded model, or {@code null} when inline scoring is inactive.
+     */
+    private final SentimentModel model;
+
+    /**
+     * Constructs a new InlineSentimentScorer.
+     *
+     * @param mode      the scoring mode: {@code spark} or {@code inline}
+     * @param modelPath the path of the JSON export written by the training job
+     */
+    public InlineSentimentScorer(
+            @Value("${sentiment.scoring.mode:spark}") String mode,
+            @Value("${sentiment.scoring.model-path:data/models/spark_sentiment_model_export.json}") String modelPath) {
+        this.model = "inline".equals(mode.trim().toLowerCase(Locale.ROOT)) ? load(Path.of(modelPath)) : null;
+    }
+
+    /**
+     * Returns whether tweets are scored inline.
+     *
+     * @return {@code true} if a model is loaded
+     */
+    public boolean isActive() {
+        return model != null;
+    }
+
+    /**
+     * Scores a raw tweet text with the loaded model.
+     *
+     * @param text the raw tweet text
+     * @return the prediction
+     * @throws IllegalStateException if inline scoring is inactive
+     */
+    public SentimentModel.Prediction score(String text) {
+        if (model == null) {
+            throw new IllegalStateException("Inline scoring is not active");
+        }
+        return model.predict(text);
+    }
+
+    /**
+     * Returns the version of the loaded model.
+     *
+     * @return the model version, or {@code null} if inactive
+     */
+    public String modelVersion() {
+        return model != null ? model.version() : null;
+    }
+
+    private static SentimentModel load(Path path) {
+        try (InputStream in = Files.newInputStream(path)) {
+            SentimentModel loaded = SentimentModel.load(in);
+            log.info("Inline sentiment scoring enabled: model {} with {} features from {}",
+                    loaded.version(), loaded.numFeatures(), path);
+            return loaded;
+        } catch (Exception ex) {
+            log.error("Could not load model export {}, falling back to Spark scoring: {}", path, ex.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.regisx001.core.services;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -18,7 +19,7 @@ public class IntentHealthService {
 
     private final WebClient colabWebClient;
 
-    public IntentHealthService(WebClient colabWebClient) {
+    public IntentHealthService(@Qualifier("colabWebClient") WebClient colabWebClient) {
         this.colabWebClient = colabWebClient;
     }
 
@@ -33,6 +34,10 @@ public class IntentHealthService {
                 .uri("/health")
                 .retrieve()
                 .bodyToMono(IntentHealthResponse.class)
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    log.warn("Intent service health response had no body");
+                    return new IntentHealthResponse("UNREACHABLE", false, null);
+                }))
                 .onErrorResume(ex -> {
                     log.warn("Failed to fetch intent service health: {}", ex.getMessage());
                     return Mono.just(new IntentHealthResponse("UNREACHABLE", false, null));
@@ -0,0 +1,232 @@
+package com.regisx001.core.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.regisx001.core.domain.dto.PipelineLatency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+/**
+ * Per-stage latency of tweets scored by Spark, from ingestion to the persisted
+ * result.
+ * <p>
+ * Stage boundaries travel with the record as Kafka headers holding epoch
+ * nanoseconds as decimal strings: {@value #INGEST_HEADER} is set by
+ * {@link TweetProducer}, and the streaming job copies it to its output and adds
+ * {@value #SPARK_IN_HEADER} (micro-batch start) and {@value #SPARK_OUT_HEADER}
+ * (after scoring). {@link TweetConsumer} closes the chain when it applies the
+ * result. Stages spanning processes compare wall clocks, so they assume the
+ * backend and Spark share a clock (same host, or NTP-synchronised); samples
+ * that come out negative are dropped.
+ * <p>
+ * Each stage is a {@code pipeline.stage.latency} timer tagged with the stage.
+ * Its p50, p99 and p99.9 are kept in Micrometer's HdrHistogram-backed
+ * time-window histogram covering the last {@code pipeline.latency.window-seconds}.
+ */
+@Service
+public class PipelineLatencyTracker {
+
+    /**
+     * Header holding the time the tweet was ingested.
+     */
+    public static final String INGEST_HEADER = "x-ts-ingest";
+
+    /**
+     * Header holding the start of the Spark micro-batch that read the tweet.
+     */
+    public static final String SPARK_IN_HEADER = "x-ts-spark-in";
+
+    /**
+     * Header holding the time Spark produced the result.
+     */
+    public static final String SPARK_OUT_HEADER = "x-ts-spark-out";
+
+    /**
+     * Pipeline stages, in order.
+     */
+    public enum Stage {
+        /** Ingestion until the broker acknowledged {@code tweets.raw}. */
+        PRODUCE("produce"),
+        /** Ingestion until a Spark micro-batch picked the tweet up. */
+        QUEUE("queue"),
+        /** Scoring inside Spark. */
+        SPARK("spark"),
+        /** Spark output until the backend consumed the result. */
+        RETURN("return"),
+        /** Reading and updating the tweet row. */
+        PERSIST("persist"),
+        /** Ingestion until the result was persisted. */
+        END_TO_END("end-to-end");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the name the stage is tagged and reported with.
+         *
+         * @return the stage label
+         */
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final double[] PERCENTILES = { 0.5, 0.99, 0.999 };
+
+    private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+    private final long windowSeconds;
+
+    /**
+     * Constructs a new PipelineLatencyTracker.
+     *
+     * @param meterRegistry the registry the stage timers are bound to
+     * @param windowSeconds the window the percentiles are computed over
+     */
+    public PipelineLatencyTracker(MeterRegistry meterRegistry,
+            @Value("${pipeline.latency.window-seconds:60}") long windowSeconds) {
+        this.windowSeconds = windowSeconds;
+        for (Stage stage : Stage.values()) {
+            timers.put(stage, Timer.builder("pipeline.stage.latency")
+                    .description("Latency of a stage between ingestion and the persisted sentiment result")
+                    .tag("stage", stage.label())
+                    .publishPercentiles(PERCENTILES)
+                    .percentilePrecision(2)
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofMinutes(5))
+                    .distributionStatisticExpiry(Duration.ofSeconds(windowSeconds))
+                    .distributionStatisticBufferLength(3)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Returns the current time in epoch nanoseconds, at the resolution of the
+     * system clock.
+     *
+     * @return the current epoch nanoseconds
+     */
+    public static long epochNanos() {
+        return epochNanos(Instant.now());
+    }
+
+    /**
+     * Converts a local timestamp of this JVM into epoch nanoseconds.
+     *
+     * @param time the local date-time in the system time zone
+     * @return the epoch nanoseconds
+     */
+    public static long epochNanos(LocalDateTime time) {
+        return epochNanos(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static long epochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    /**
+     * Encodes a timestamp as a header value.
+     *
+     * @param epochNanos the epoch nanoseconds
+     * @return the header value
+     */
+    public static byte[] encode(long epochNanos) {
+        return Long.toString(epochNanos).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Decodes a timestamp header value.
+     *
+     * @param value the header value, may be {@code null}
+     * @return the epoch nanoseconds, or {@code -1} if absent or malformed
+     */
+    public static long decode(byte[] value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(new String(value, StandardCharsets.US_ASCII).trim());
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Records one sample of a stage. Negative samples are ignored.
+     *
+     * @param stage the stage
+     * @param nanos the stage duration in nanoseconds
+     */
+    public void record(Stage stage, long nanos) {
+        if (nanos >= 0) {
+            timers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records the stages closed by a result applied by the consumer. Stages
+     * whose boundaries are missing are skipped.
+     *
+     * @param ingest       the ingestion time, or {@code -1}
+     * @param sparkIn      the Spark micro-batch start, or {@code -1}
+     * @param sparkOut     the Spark output time, or {@code -1}
+     * @param applied      the time the consumer received the result
+     * @param persistNanos the duration of the database update
+     */
+    public void recordResult(long ingest, long sparkIn, long sparkOut, long applied, long persistNanos) {
+        if (ingest > 0 && sparkIn > 0) {
+            record(Stage.QUEUE, sparkIn - ingest);
+        }
+        if (sparkIn > 0 && sparkOut > 0) {
+            record(Stage.SPARK, sparkOut - sparkIn);
+        }
+        if (sparkOut > 0) {
+            record(Stage.RETURN, applied - sparkOut);
+        }
+        record(Stage.PERSIST, persistNanos);
+        if (ingest > 0) {
+            record(Stage.END_TO_END, applied + persistNanos - ingest);
+        }
+    }
+
+    /**
+     * Returns the current figures of all stages.
+     *
+     * @return the pipeline latency report
+     */
+    public PipelineLatency report() {
+        List<PipelineLatency.StageLatency> stages = new ArrayList<>(timers.size());
+        timers.forEach((stage, timer) -> {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            double[] values = new double[PERCENTILES.length];
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                for (int i = 0; i < PERCENTILES.length; i++) {
+                    if (value.percentile() == PERCENTILES[i]) {
+                        values[i] = value.value(TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+            stages.add(new PipelineLatency.StageLatency(stage.label(), snapshot.count(),
+                    snapshot.mean(TimeUnit.MILLISECONDS), snapshot.max(TimeUnit.MILLISECONDS),
+                    values[0], values[1], values[2]));
+        });
+        return new PipelineLatency(Instant.now(), windowSeconds, stages);
+    }
+}
@@ -0,0 +1,213 @@
+package com.regisx001.core.services;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.regisx001.core.domain.dto.PostgresDiagnostics;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opt-in PostgreSQL diagnostics, sampled on a schedule.
+ * <p>
+ * When {@code health.postgres.diagnostics.enabled} is set, every
+ * {@code health.postgres.diagnostics.interval-ms} this service reads
+ * {@code pg_stat_user_tables} and {@code pg_statio_user_indexes} for the
+ * watched tables (by default {@code raw_tweets}), the top statements from
+ * {@code pg_stat_statements} and the Hikari pool state, and keeps the result
+ * for {@code /api/health/postgres/diagnostics}. Requests never query the
+ * statistics views themselves. {@code pg_stat_statements} must be preloaded
+ * and created in the database; without it the other sections are still
+ * reported.
+ */
+@Slf4j
+@Service
+public class PostgresDiagnosticsService {
+
+    private static final String TABLES_SQL = """
+            SELECT relname, n_live_tup, n_dead_tup, seq_scan, seq_tup_read, COALESCE(idx_scan, 0),
+                   pg_total_relation_size(relid), last_autovacuum, last_autoanalyze
+            FROM pg_stat_user_tables
+            WHERE cardinality(?::text[]) = 0 OR relname = ANY (?::text[])
+            ORDER BY n_dead_tup DESC, relname
+            """;
+
+    private static final String INDEXES_SQL = """
+            SELECT s.relname, s.indexrelname, u.idx_scan, s.idx_blks_read, s.idx_blks_hit
+            FROM pg_statio_user_indexes s
+            JOIN pg_stat_user_indexes u USING (indexrelid)
+            WHERE cardinality(?::text[]) = 0 OR s.relname = ANY (?::text[])
+            ORDER BY s.relname, s.indexrelname
+            """;
+
+    private static final String STATEMENTS_SQL = """
+            SELECT query, calls, total_exec_time, mean_exec_time, rows
+            FROM pg_stat_statements
+            WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database())
+            ORDER BY total_exec_time DESC
+            LIMIT ?
+            """;
+
+    /**
+     * Statement texts are cut to this length.
+     */
+    private static final int MAX_QUERY_LENGTH = 500;
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final List<String> tables;
+    private final int topStatements;
+
+    private volatile PostgresDiagnostics latest;
+
+    /**
+     * Constructs a new PostgresDiagnosticsService.
+     *
+     * @param dataSource    the application data source
+     * @param enabled       whether diagnostics are sampled
+     * @param tables        the tables to report on; empty for all user tables
+     * @param topStatements the number of statements to report
+     */
+    public PostgresDiagnosticsService(DataSource dataSource,
+            @Value("${health.postgres.diagnostics.enabled:false}") boolean enabled,
+            @Value("${health.postgres.diagnostics.tables:raw_tweets}") List<String> tables,
+            @Value("${health.postgres.diagnostics.top-statements:10}") int topStatements) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.tables = tables;
+        this.topStatements = topStatements;
+    }
+
+    /**
+     * Returns whether diagnostics are sampled.
+     *
+     * @return {@code true} if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the latest sample.
+     *
+     * @return the latest diagnostics, or {@code null} before the first sample
+     */
+    public PostgresDiagnostics latest() {
+        return latest;
+    }
+
+    /**
+     * Takes a new sample if diagnostics are enabled.
+     */
+    @Scheduled(fixedDelayString = "${health.postgres.diagnostics.interval-ms:60000}")
+    public void sample() {
+        if (!enabled) {
+            return;
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            Array watched = conn.createArrayOf("text", tables.toArray());
+            List<PostgresDiagnostics.TableStats> tableStats = tableStats(conn, watched);
+            List<PostgresDiagnostics.IndexStats> indexStats = indexStats(conn, watched);
+
+            List<PostgresDiagnostics.StatementStats> statements = List.of();
+            String statementsMessage = null;
+            try {
+                statements = statementStats(conn);
+            } catch (SQLException ex) {
+                statementsMessage = "pg_stat_statements unavailable: " + ex.getMessage();
+            }
+
+            latest = new PostgresDiagnostics(Instant.now(), tableStats, indexStats, statements,
+                    statementsMessage, poolStats());
+        } catch (Exception ex) {
+            log.warn("PostgreSQL diagnostics failed: {}", ex.getMessage());
+        }
+    }
+
+    private List<PostgresDiagnostics.TableStats> tableStats(Connection conn, Array watched) throws SQLException {
+        List<PostgresDiagnostics.TableStats> result = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(TABLES_SQL)) {
+            ps.setArray(1, watched);
+            ps.setArray(2, watched);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long live = rs.getLong(2);
+                    long dead = rs.getLong(3);
+                    result.add(new PostgresDiagnostics.TableStats(
+                            rs.getString(1), live, dead,
+                            live + dead == 0 ? 0 : (double) dead / (live + dead),
+                            rs.getLong(4), rs.getLong(5), rs.getLong(6), rs.getLong(7),
+                            instant(rs.getTimestamp(8)), instant(rs.getTimestamp(9))));
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<PostgresDiagnostics.IndexStats> indexStats(Connection conn, Array watched) throws SQLException {
+        List<PostgresDiagnostics.IndexStats> result = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(INDEXES_SQL)) {
+            ps.setArray(1, watched);
+            ps.setArray(2, watched);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long read = rs.getLong(4);
+                    long hit = rs.getLong(5);
+                    result.add(new PostgresDiagnostics.IndexStats(
+                            rs.getString(1), rs.getString(2), rs.getLong(3), read, hit,
+                            read + hit == 0 ? null : (double) hit / (read + hit)));
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<PostgresDiagnostics.StatementStats> statementStats(Connection conn) throws SQLException {
+        List<PostgresDiagnostics.StatementStats> result = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(STATEMENTS_SQL)) {
+            ps.setInt(1, topStatements);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String query = rs.getString(1);
+                    if (query != null && query.length() > MAX_QUERY_LENGTH) {
+                        query = query.substring(0, MAX_QUERY_LENGTH) + "…";
+                    }
+                    result.add(new PostgresDiagnostics.StatementStats(
+                            query, rs.getLong(2), rs.getDouble(3), rs.getDouble(4), rs.getLong(5)));
+                }
+            }
+        }
+        return result;
+    }
+
+    private PostgresDiagnostics.PoolStats poolStats() {
+        if (!(dataSource instanceof HikariDataSource hikari) || hikari.getHikariPoolMXBean() == null) {
+            return null;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        int max = hikari.getMaximumPoolSize();
+        int active = pool.getActiveConnections();
+        int awaiting = pool.getThreadsAwaitingConnection();
+        return new PostgresDiagnostics.PoolStats(active, pool.getIdleConnections(), pool.getTotalConnections(),
+                max, awaiting, max == 0 ? 0 : (double) (active + awaiting) / max);
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
@@ -0,0 +1,91 @@
+package com.regisx001.core.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.regisx001.core.domain.entities.Tweet;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Correlation map between tweets that a client is waiting on and the results
+ * arriving on {@code tweets.processed}.
+ * <p>
+ * Waiting is asynchronous: a request parks a {@link CompletableFuture} keyed by
+ * tweet ID, and {@link TweetConsumer} completes it when the matching result is
+ * applied. Timeouts are driven by {@link CompletableFuture#completeOnTimeout},
+ * which shares a single delay thread, so no thread is held per waiting request.
+ * The map is bounded; once full, new requests are answered without waiting.
+ */
+@Service
+public class ResultCorrelator {
+
+    private final ConcurrentHashMap<Long, CompletableFuture<Tweet>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Maximum number of requests waiting at the same time.
+     */
+    private final int maxPending;
+
+    /**
+     * Upper bound applied to the wait requested by a client.
+     */
+    private final long maxWaitMillis;
+
+    /**
+     * Constructs a new ResultCorrelator.
+     *
+     * @param maxPending    the maximum number of concurrently waiting requests
+     * @param maxWaitMillis the maximum wait a client may request
+     * @param meterRegistry the registry the pending gauge is bound to
+     */
+    public ResultCorrelator(
+            @Value("${ingest.wait.max-pending:10000}") int maxPending,
+            @Value("${ingest.wait.max-ms:10000}") long maxWaitMillis,
+            MeterRegistry meterRegistry) {
+        this.maxPending = maxPending;
+        this.maxWaitMillis = maxWaitMillis;
+        Gauge.builder("ingest.wait.pending", pending, ConcurrentHashMap::size)
+                .description("Requests waiting for a sentiment result")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Parks a future for the given tweet. The future completes with the
+     * processed tweet when its result arrives, or with the unprocessed tweet
+     * once the wait expires or if too many requests are already waiting.
+     *
+     * @param tweet      the saved, not yet processed tweet
+     * @param waitMillis the requested wait in milliseconds
+     * @return a future of the processed tweet, or of {@code tweet} on timeout
+     */
+    public CompletableFuture<Tweet> register(Tweet tweet, long waitMillis) {
+        long wait = Math.min(waitMillis, maxWaitMillis);
+        if (wait <= 0 || pending.size() >= maxPending) {
+            return CompletableFuture.completedFuture(tweet);
+        }
+        Long id = tweet.getId();
+        CompletableFuture<Tweet> future = new CompletableFuture<>();
+        pending.put(id, future);
+        future.completeOnTimeout(tweet, wait, TimeUnit.MILLISECONDS)
+                .whenComplete((result, ex) -> pending.remove(id, future));
+        return future;
+    }
+
+    /**
+     * Completes the future parked for the given tweet, if any.
+     *
+     * @param tweet the processed tweet
+     */
+    public void complete(Tweet tweet) {
+        CompletableFuture<Tweet> future = pending.remove(tweet.getId());
+        if (future != null) {
+            future.complete(tweet);
+        }
+    }
+}
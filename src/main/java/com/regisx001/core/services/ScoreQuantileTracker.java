@@ -0,0 +1,483 @@
+package com.regisx001.core.services;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.regisx001.core.domain.dto.ColumnarTimeSeries;
+import com.regisx001.core.domain.dto.ScoreQuantiles;
+import com.regisx001.core.domain.dto.SentimentScoreQuantiles;
+import com.regisx001.core.repository.TweetRepository;
+import com.tdunning.math.stats.Centroid;
+import com.tdunning.math.stats.MergingDigest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sentiment score distribution per sentiment and minute, kept as mergeable
+ * t-digests so score quantiles of any range are answered without scanning
+ * the stored scores.
+ * <p>
+ * Scores are added as results are stored ({@link TweetConsumer} and the
+ * in-process paths of {@link TweetService}), after the transaction commits.
+ * The digest of the current minute is open; once a minute has passed, its
+ * digests are sealed into compact centroid arrays with their p10/p50/p90
+ * precomputed, so memory per bucket is bounded by the compression whatever
+ * the tweet rate. Each complete hour is also rolled up into an hour digest,
+ * which answers whole-hour ranges and outlives the minute digests. A late
+ * score reopens the sealed digests it falls in until the next roll.
+ * <p>
+ * Times are the stored local date-times read as UTC epoch seconds, like the
+ * time-series buckets. At startup the last {@code backfill-hours} of stored
+ * scores are loaded in the background; until that finishes, older points
+ * may be missing. Each loaded hour bumps the {@link AnalyticsDataVersion}, so
+ * reports cached while the backfill runs are not served afterwards.
+ */
+@Slf4j
+@Service
+public class ScoreQuantileTracker {
+
+    private static final double[] QUANTILES = { 0.1, 0.5, 0.9 };
+
+    private static final int POSITIVE = 0;
+    private static final int NEGATIVE = 1;
+    private static final int NEUTRAL = 2;
+
+    private final TweetRepository tweetRepository;
+    private final AnalyticsDataVersion analyticsDataVersion;
+    private final boolean enabled;
+    private final double compression;
+    private final long minuteRetention;
+    private final long hourRetention;
+    private final int backfillHours;
+
+    /**
+     * Time before which scores are left to the backfill, so none is counted
+     * twice.
+     */
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private final ConcurrentHashMap<Long, Sketch> minutes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Sketch> hours = new ConcurrentHashMap<>();
+
+    /**
+     * Oldest epoch minute still kept at minute resolution.
+     */
+    private volatile long minuteHorizon;
+
+    /**
+     * Oldest epoch hour still kept.
+     */
+    private volatile long hourHorizon;
+
+    /**
+     * Constructs a new ScoreQuantileTracker.
+     *
+     * @param tweetRepository      the repository the backfill reads from
+     * @param analyticsDataVersion the version bumped as backfilled scores land
+     * @param enabled              whether scores are tracked
+     * @param compression          the t-digest compression; a sealed digest
+     *                             holds at most about twice as many centroids
+     * @param minuteRetentionHours how long minute digests are kept
+     * @param hourRetentionDays    how long hour digests are kept
+     * @param backfillHours        how many hours of stored scores to load at
+     *                             startup ({@code 0} = none)
+     * @param meterRegistry        the registry the digest gauges are bound to
+     */
+    public ScoreQuantileTracker(TweetRepository tweetRepository,
+            AnalyticsDataVersion analyticsDataVersion,
+            @Value("${analytics.score-quantiles.enabled:true}") boolean enabled,
+            @Value("${analytics.score-quantiles.compression:100}") double compression,
+            @Value("${analytics.score-quantiles.minute-retention-hours:24}") int minuteRetentionHours,
+            @Value("${analytics.score-quantiles.hour-retention-days:30}") int hourRetentionDays,
+            @Value("${analytics.score-quantiles.backfill-hours:24}") int backfillHours,
+            MeterRegistry meterRegistry) {
+        this.tweetRepository = tweetRepository;
+        this.analyticsDataVersion = analyticsDataVersion;
+        this.enabled = enabled;
+        this.compression = compression;
+        this.minuteRetention = minuteRetentionHours * 60L;
+        this.hourRetention = hourRetentionDays * 24L;
+        this.backfillHours = backfillHours;
+        long nowMinute = epochMinute(startedAt);
+        this.minuteHorizon = nowMinute - minuteRetention;
+        this.hourHorizon = Math.floorDiv(nowMinute, 60) - hourRetention;
+        Gauge.builder("analytics.score.digests", minutes, Map::size)
+                .description("Score quantile digests held")
+                .tag("resolution", "minute")
+                .register(meterRegistry);
+        Gauge.builder("analytics.score.digests", hours, Map::size)
+                .description("Score quantile digests held")
+                .tag("resolution", "hour")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds the score of a stored result, once the surrounding transaction (if
+     * any) commits.
+     *
+     * @param sentiment   the sentiment label; UNKNOWN counts as neutral
+     * @param score       the sentiment score
+     * @param processedAt when the result was stored
+     */
+    public void record(String sentiment, double score, LocalDateTime processedAt) {
+        if (!enabled || processedAt == null || Double.isNaN(score)) {
+            return;
+        }
+        int index = sentimentIndex(sentiment);
+        long epochSecond = processedAt.toEpochSecond(ZoneOffset.UTC);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(index, score, epochSecond);
+                }
+            });
+        } else {
+            add(index, score, epochSecond);
+        }
+    }
+
+    private void add(int sentiment, double score, long epochSecond) {
+        long minute = Math.floorDiv(epochSecond, 60);
+        long hour = Math.floorDiv(minute, 60);
+        if (hour < hourHorizon) {
+            return;
+        }
+        if (minute < minuteHorizon) {
+            hours.computeIfAbsent(hour, k -> new Sketch()).add(sentiment, score);
+            return;
+        }
+        // Under the hour's map lock, like the roll-up in roll(), so the score
+        // lands in the hour digest exactly once whether or not it exists yet
+        hours.compute(hour, (k, rollup) -> {
+            minutes.computeIfAbsent(minute, m -> new Sketch()).add(sentiment, score);
+            if (rollup != null) {
+                rollup.add(sentiment, score);
+            }
+            return rollup;
+        });
+    }
+
+    // ---------------------------------------------------------------
+    // Roll: seal past minutes, roll up complete hours, evict
+    // ---------------------------------------------------------------
+    /**
+     * Seals the digests of past minutes, rolls complete hours up into hour
+     * digests and drops digests past their retention.
+     */
+    @Scheduled(fixedDelayString = "${analytics.score-quantiles.roll-interval-ms:60000}")
+    public void roll() {
+        if (!enabled) {
+            return;
+        }
+        long nowMinute = epochMinute(LocalDateTime.now());
+        // the previous minute may still get scores whose commit is in flight
+        minutes.forEach((minute, sketch) -> {
+            if (minute < nowMinute - 1) {
+                sketch.seal();
+            }
+        });
+        hours.values().forEach(Sketch::seal);
+
+        long lastCompleteHour = Math.floorDiv(nowMinute - 1, 60) - 1;
+        for (long hour = Math.ceilDiv(minuteHorizon, 60); hour <= lastCompleteHour; hour++) {
+            if (!hours.containsKey(hour)) {
+                hours.compute(hour, (h, rollup) -> rollup != null ? rollup : rollUp(h));
+            }
+        }
+
+        long newMinuteHorizon = nowMinute - minuteRetention;
+        long newHourHorizon = Math.floorDiv(nowMinute, 60) - hourRetention;
+        minuteHorizon = newMinuteHorizon;
+        hourHorizon = newHourHorizon;
+        minutes.keySet().removeIf(minute -> minute < newMinuteHorizon);
+        hours.keySet().removeIf(hour -> hour < newHourHorizon);
+    }
+
+    private Sketch rollUp(long hour) {
+        MergingDigest[] merged = new MergingDigest[3];
+        for (long minute = hour * 60; minute < hour * 60 + 60; minute++) {
+            Sketch sketch = minutes.get(minute);
+            if (sketch != null) {
+                for (int s = 0; s < 3; s++) {
+                    merged[s] = sketch.mergeInto(s, merged[s]);
+                }
+            }
+        }
+        if (merged[POSITIVE] == null && merged[NEGATIVE] == null && merged[NEUTRAL] == null) {
+            return null;
+        }
+        Sketch rollup = new Sketch(merged);
+        rollup.seal();
+        return rollup;
+    }
+
+    // ---------------------------------------------------------------
+    // Query: merge the digests covering each time-series point
+    // ---------------------------------------------------------------
+    /**
+     * Computes the score quantiles of each point of a time series. Each point
+     * is covered by hour digests where whole hours fit and minute digests
+     * elsewhere; past the minute retention the containing hour is used, and a
+     * bucket shorter than a minute gets the quantiles of its minute.
+     *
+     * @param series the time series the quantiles are aligned with
+     * @return the quantiles of each sentiment, or {@code null} if tracking is
+     *         disabled
+     */
+    public SentimentScoreQuantiles quantiles(ColumnarTimeSeries series) {
+        if (!enabled) {
+            return null;
+        }
+        int points = series.positive().length;
+        Double[][][] values = new Double[3][3][points];
+        double[] out = new double[3];
+        List<Sketch> sources = new ArrayList<>();
+        for (int k = 0; k < points; k++) {
+            long bucket = series.index() != null ? series.index()[k] : k;
+            long from = series.start() + bucket * series.step();
+            cover(Math.floorDiv(from, 60), Math.ceilDiv(from + series.step(), 60), sources);
+            for (int s = 0; s < 3; s++) {
+                if (quantiles(sources, s, out)) {
+                    for (int q = 0; q < 3; q++) {
+                        values[s][q][k] = Math.round(out[q] * 10_000) / 10_000.0;
+                    }
+                }
+            }
+            sources.clear();
+        }
+        return new SentimentScoreQuantiles(
+                new ScoreQuantiles(values[POSITIVE][0], values[POSITIVE][1], values[POSITIVE][2]),
+                new ScoreQuantiles(values[NEGATIVE][0], values[NEGATIVE][1], values[NEGATIVE][2]),
+                new ScoreQuantiles(values[NEUTRAL][0], values[NEUTRAL][1], values[NEUTRAL][2]));
+    }
+
+    /**
+     * Collects the digests covering the epoch minutes {@code [from, to)}.
+     */
+    private void cover(long from, long to, List<Sketch> sources) {
+        long minute = from;
+        while (minute < to) {
+            long hour = Math.floorDiv(minute, 60);
+            boolean wholeHour = minute == hour * 60 && minute + 60 <= to;
+            boolean expired = minute < minuteHorizon;
+            if (wholeHour || expired) {
+                Sketch rollup = hours.get(hour);
+                if (rollup != null || expired) {
+                    if (rollup != null) {
+                        sources.add(rollup);
+                    }
+                    minute = hour * 60 + 60;
+                    continue;
+                }
+            }
+            Sketch sketch = minutes.get(minute);
+            if (sketch != null) {
+                sources.add(sketch);
+            }
+            minute++;
+        }
+    }
+
+    private boolean quantiles(List<Sketch> sources, int sentiment, double[] out) {
+        if (sources.size() == 1) {
+            return sources.get(0).quantiles(sentiment, out);
+        }
+        MergingDigest merged = null;
+        for (Sketch source : sources) {
+            merged = source.mergeInto(sentiment, merged);
+        }
+        if (merged == null) {
+            return false;
+        }
+        for (int q = 0; q < 3; q++) {
+            out[q] = merged.quantile(QUANTILES[q]);
+        }
+        return true;
+    }
+
+    // ---------------------------------------------------------------
+    // Startup backfill
+    // ---------------------------------------------------------------
+    /**
+     * Loads the scores stored in the last {@code backfill-hours} before
+     * startup, an hour at a time on a virtual thread. A failure stops the
+     * backfill and leaves the older points empty.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!enabled || backfillHours <= 0) {
+            return;
+        }
+        Thread.ofVirtual().name("score-quantile-backfill").start(this::load);
+    }
+
+    /**
+     * Runs the backfill on the calling thread.
+     */
+    void load() {
+        long rows = 0;
+        long unpublished = 0;
+        try {
+            LocalDateTime from = startedAt.minusHours(backfillHours);
+            while (from.isBefore(startedAt)) {
+                LocalDateTime to = from.plusHours(1).isBefore(startedAt) ? from.plusHours(1) : startedAt;
+                for (Object[] row : tweetRepository.sentimentScoresBetween(from, to)) {
+                    LocalDateTime processedAt = row[0] instanceof Timestamp ts ? ts.toLocalDateTime()
+                            : (LocalDateTime) row[0];
+                    add(sentimentIndex((String) row[1]), ((Number) row[2]).doubleValue(),
+                            processedAt.toEpochSecond(ZoneOffset.UTC));
+                    rows++;
+                    unpublished++;
+                }
+                // the scores change quantile reports, so drop any cached before them
+                if (unpublished > 0) {
+                    analyticsDataVersion.markChanged();
+                    unpublished = 0;
+                }
+                from = to;
+            }
+            log.info("Loaded {} stored scores into the score quantile digests", rows);
+        } catch (RuntimeException ex) {
+            log.warn("Score quantile backfill stopped after {} rows: {}", rows, ex.getMessage());
+        } finally {
+            if (unpublished > 0) {
+                analyticsDataVersion.markChanged();
+            }
+        }
+    }
+
+    private static int sentimentIndex(String sentiment) {
+        return switch (sentiment == null ? "" : sentiment) {
+            case "POSITIVE" -> POSITIVE;
+            case "NEGATIVE" -> NEGATIVE;
+            default -> NEUTRAL; // NEUTRAL + UNKNOWN
+        };
+    }
+
+    private static long epochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    // ---------------------------------------------------------------
+    // Digests of one minute or hour
+    // ---------------------------------------------------------------
+
+    /**
+     * The digests of one minute or hour, one per sentiment. An open digest is
+     * a {@link MergingDigest}; a sealed one keeps only its centroids, as
+     * float means and integer weights, and its precomputed quantiles.
+     */
+    private final class Sketch {
+
+        private final MergingDigest[] open = new MergingDigest[3];
+        private final float[][] means = new float[3][];
+        private final int[][] weights = new int[3][];
+        private final double[][] sealedQuantiles = new double[3][];
+
+        Sketch() {
+        }
+
+        Sketch(MergingDigest[] digests) {
+            System.arraycopy(digests, 0, open, 0, 3);
+        }
+
+        synchronized void add(int sentiment, double score) {
+            digest(sentiment).add(score, 1);
+        }
+
+        synchronized void seal() {
+            for (int s = 0; s < 3; s++) {
+                MergingDigest digest = open[s];
+                if (digest == null) {
+                    continue;
+                }
+                int size = digest.centroids().size();
+                float[] m = new float[size];
+                int[] w = new int[size];
+                int i = 0;
+                for (Centroid centroid : digest.centroids()) {
+                    m[i] = (float) centroid.mean();
+                    w[i] = centroid.count();
+                    i++;
+                }
+                double[] q = new double[3];
+                for (int j = 0; j < 3; j++) {
+                    q[j] = digest.quantile(QUANTILES[j]);
+                }
+                means[s] = m;
+                weights[s] = w;
+                sealedQuantiles[s] = q;
+                open[s] = null;
+            }
+        }
+
+        /**
+         * Adds the centroids of a sentiment to {@code target}, created on first
+         * use; returns the target.
+         */
+        synchronized MergingDigest mergeInto(int sentiment, MergingDigest target) {
+            if (open[sentiment] != null) {
+                for (Centroid centroid : open[sentiment].centroids()) {
+                    target = target != null ? target : new MergingDigest(compression);
+                    target.add(centroid.mean(), centroid.count());
+                }
+            } else if (means[sentiment] != null) {
+                target = target != null ? target : new MergingDigest(compression);
+                for (int i = 0; i < means[sentiment].length; i++) {
+                    target.add(means[sentiment][i], weights[sentiment][i]);
+                }
+            }
+            return target;
+        }
+
+        synchronized boolean quantiles(int sentiment, double[] out) {
+            if (open[sentiment] != null) {
+                for (int q = 0; q < 3; q++) {
+                    out[q] = open[sentiment].quantile(QUANTILES[q]);
+                }
+                return true;
+            }
+            if (sealedQuantiles[sentiment] != null) {
+                System.arraycopy(sealedQuantiles[sentiment], 0, out, 0, 3);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Returns the open digest of a sentiment, reopening a sealed one.
+         */
+        private MergingDigest digest(int sentiment) {
+            MergingDigest digest = open[sentiment];
+            if (digest == null) {
+                digest = new MergingDigest(compression);
+                if (means[sentiment] != null) {
+                    for (int i = 0; i < means[sentiment].length; i++) {
+                        digest.add(means[sentiment][i], weights[sentiment][i]);
+                    }
+                    means[sentiment] = null;
+                    weights[sentiment] = null;
+                    sealedQuantiles[sentiment] = null;
+                }
+                open[sentiment] = digest;
+            }
+            return digest;
+        }
+    }
+}
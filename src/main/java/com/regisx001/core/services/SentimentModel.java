@@ -0,0 +1,301 @@
+package com.regisx001.core.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * In-JVM scoring engine for the Spark ML pipeline trained by
+ * {@code spark/training/run_training_spark.py}:
+ * Tokenizer → StopWordsRemover → CountVectorizer → IDF → LogisticRegression.
+ * <p>
+ * The model is loaded from the JSON export written by the training job into
+ * primitive arrays: the vocabulary lives in one {@code char[]} pool indexed by
+ * an open-addressing hash table, and IDF weights, coefficients and intercepts
+ * are flat {@code double[]}s. Scoring cleans the text with
+ * {@link TextNormalizer}, splits it exactly like Spark's {@code Tokenizer}
+ * ({@code split("\\s")}) and looks tokens up straight from the scratch buffer,
+ * so no strings are created per token. Stop words need no separate pass: the
+ * vocabulary was fitted on stop-word-filtered tokens and never contains them.
+ * <p>
+ * Instances are immutable and thread-safe; scratch space is thread-confined.
+ * Platform threads keep theirs in a {@link ThreadLocal}; virtual threads are
+ * created per request, so they borrow from a small bounded pool instead of
+ * allocating vocabulary-sized arrays on every call.
+ */
+public final class SentimentModel {
+
+    /**
+     * A single prediction.
+     *
+     * @param labelIndex the index of the predicted class
+     * @param label      the predicted label as produced by Spark's
+     *                   {@code IndexToString} (e.g. "Positive")
+     * @param score      the probability of the predicted class
+     */
+    public record Prediction(int labelIndex, String label, double score) {
+    }
+
+    private final String version;
+    private final String[] labels;
+    private final boolean binomial;
+    private final int numFeatures;
+
+    private final char[] termPool;
+    private final int[] termOffsets;
+    private final int[] slots;
+    private final int slotMask;
+
+    private final double[] idf;
+    private final double[] coefficients;
+    private final double[] intercepts;
+
+    private final int numMargins;
+    private final ThreadLocal<Scratch> scratch;
+    // predict() never blocks, so a virtual thread holds a scratch only while
+    // mounted; a few per carrier is enough and anything past that is dropped
+    private final ArrayBlockingQueue<Scratch> scratchPool =
+            new ArrayBlockingQueue<>(2 * Runtime.getRuntime().availableProcessors());
+
+    private SentimentModel(String version, String[] labels, boolean binomial, String[] vocabulary,
+            double[] idf, double[] coefficients, double[] intercepts) {
+        this.version = version;
+        this.labels = labels;
+        this.binomial = binomial;
+        this.numFeatures = vocabulary.length;
+        this.idf = idf;
+        this.coefficients = coefficients;
+        this.intercepts = intercepts;
+
+        int poolSize = 0;
+        for (String term : vocabulary) {
+            poolSize += term.length();
+        }
+        this.termPool = new char[poolSize];
+        this.termOffsets = new int[numFeatures + 1];
+        int capacity = Integer.highestOneBit(Math.max(4, numFeatures * 2) - 1) << 1;
+        this.slots = new int[capacity];
+        this.slotMask = capacity - 1;
+        Arrays.fill(slots, -1);
+
+        int offset = 0;
+        for (int i = 0; i < numFeatures; i++) {
+            String term = vocabulary[i];
+            term.getChars(0, term.length(), termPool, offset);
+            termOffsets[i] = offset;
+            offset += term.length();
+            termOffsets[i + 1] = offset;
+            int slot = hash(termPool, termOffsets[i], offset) & slotMask;
+            while (slots[slot] != -1) {
+                slot = (slot + 1) & slotMask;
+            }
+            slots[slot] = i;
+        }
+
+        this.numMargins = binomial ? 1 : labels.length;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(numFeatures, numMargins));
+    }
+
+    /**
+     * Loads a model from the JSON export written by the training job.
+     *
+     * @param in the export contents
+     * @return the loaded model
+     * @throws IOException if the export cannot be read or is inconsistent
+     */
+    public static SentimentModel load(InputStream in) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(in);
+
+        String[] labels = strings(root.path("labels"));
+        String[] vocabulary = strings(root.path("vocabulary"));
+        double[] idf = doubles(root.path("idf"));
+        double[] intercepts = doubles(root.path("intercepts"));
+        JsonNode rows = root.path("coefficients");
+        boolean binomial = "binomial".equals(root.path("family").asText("multinomial"));
+
+        int numRows = binomial ? 1 : labels.length;
+        if (idf.length != vocabulary.length || rows.size() != numRows || intercepts.length != numRows) {
+            throw new IOException("Inconsistent model export: " + vocabulary.length + " terms, "
+                    + idf.length + " idf weights, " + rows.size() + " coefficient rows, "
+                    + intercepts.length + " intercepts, " + labels.length + " labels");
+        }
+        double[] coefficients = new double[numRows * vocabulary.length];
+        for (int k = 0; k < numRows; k++) {
+            JsonNode row = rows.get(k);
+            if (row.size() != vocabulary.length) {
+                throw new IOException("Coefficient row " + k + " has " + row.size() + " entries, expected "
+                        + vocabulary.length);
+            }
+            for (int j = 0; j < vocabulary.length; j++) {
+                coefficients[k * vocabulary.length + j] = row.get(j).asDouble();
+            }
+        }
+        return new SentimentModel(root.path("version").asText("unknown"), labels, binomial, vocabulary,
+                idf, coefficients, intercepts);
+    }
+
+    /**
+     * Returns the version reported by the export.
+     *
+     * @return the model version
+     */
+    public String version() {
+        return version;
+    }
+
+    /**
+     * Returns the number of vocabulary terms.
+     *
+     * @return the feature count
+     */
+    public int numFeatures() {
+        return numFeatures;
+    }
+
+    /**
+     * Scores a raw tweet text.
+     *
+     * @param text the raw tweet text
+     * @return the predicted label and its probability
+     */
+    public Prediction predict(CharSequence text) {
+        if (!Thread.currentThread().isVirtual()) {
+            return predict(text, scratch.get());
+        }
+        Scratch s = scratchPool.poll();
+        if (s == null) {
+            s = new Scratch(numFeatures, numMargins);
+        }
+        try {
+            return predict(text, s);
+        } finally {
+            scratchPool.offer(s);
+        }
+    }
+
+    private Prediction predict(CharSequence text, Scratch s) {
+        char[] buf = TextNormalizer.buffer(2 * text.length());
+        int len = TextNormalizer.clean(text, buf);
+
+        // Tokenizer: split("\\s") keeps a leading empty token, drops trailing ones,
+        // and returns a single empty token for an empty string.
+        s.touchedCount = 0;
+        if (len == 0) {
+            count(s, buf, 0, 0);
+        } else {
+            int end = buf[len - 1] == ' ' ? len - 1 : len;
+            int start = 0;
+            for (int i = 0; i <= end; i++) {
+                if (i == end || buf[i] == ' ') {
+                    if (end > 0) {
+                        count(s, buf, start, i);
+                    }
+                    start = i + 1;
+                }
+            }
+        }
+
+        // Margins over the sparse TF-IDF vector
+        double[] margins = s.margins;
+        for (int k = 0; k < margins.length; k++) {
+            margins[k] = intercepts[k];
+        }
+        for (int t = 0; t < s.touchedCount; t++) {
+            int j = s.touched[t];
+            double x = s.counts[j] * idf[j];
+            s.counts[j] = 0;
+            for (int k = 0; k < margins.length; k++) {
+                margins[k] += coefficients[k * numFeatures + j] * x;
+            }
+        }
+
+        if (binomial) {
+            double p1 = 1.0 / (1.0 + Math.exp(-margins[0]));
+            return margins[0] > 0 ? new Prediction(1, labels[1], p1) : new Prediction(0, labels[0], 1.0 - p1);
+        }
+        int best = 0;
+        double max = margins[0];
+        for (int k = 1; k < margins.length; k++) {
+            if (margins[k] > max) {
+                max = margins[k];
+                best = k;
+            }
+        }
+        double sum = 0;
+        for (int k = 0; k < margins.length; k++) {
+            sum += Math.exp(margins[k] - max);
+        }
+        return new Prediction(best, labels[best], 1.0 / sum);
+    }
+
+    private void count(Scratch s, char[] buf, int start, int end) {
+        int j = lookup(buf, start, end);
+        if (j < 0) {
+            return;
+        }
+        if (s.counts[j] == 0) {
+            s.touched[s.touchedCount++] = j;
+        }
+        s.counts[j]++;
+    }
+
+    private int lookup(char[] buf, int start, int end) {
+        int len = end - start;
+        int slot = hash(buf, start, end) & slotMask;
+        while (true) {
+            int j = slots[slot];
+            if (j == -1) {
+                return -1;
+            }
+            int off = termOffsets[j];
+            if (termOffsets[j + 1] - off == len && Arrays.equals(termPool, off, off + len, buf, start, end)) {
+                return j;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    private static int hash(char[] chars, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + chars[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static String[] strings(JsonNode array) {
+        String[] result = new String[array.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = array.get(i).asText();
+        }
+        return result;
+    }
+
+    private static double[] doubles(JsonNode array) {
+        double[] result = new double[array.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = array.get(i).asDouble();
+        }
+        return result;
+    }
+
+    /**
+     * Per-thread scratch space: sparse term counts and class margins.
+     */
+    private static final class Scratch {
+        final double[] counts;
+        final int[] touched;
+        final double[] margins;
+        int touchedCount;
+
+        Scratch(int numFeatures, int numMargins) {
+            this.counts = new double[numFeatures];
+            this.touched = new int[numFeatures];
+            this.margins = new double[numMargins];
+        }
+    }
+}
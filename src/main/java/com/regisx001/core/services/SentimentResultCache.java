@@ -0,0 +1,168 @@
+package com.regisx001.core.services;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache of sentiment results keyed by model version and the fingerprint of the
+ * cleaned tweet text.
+ * <p>
+ * {@link TweetConsumer} fills the cache with every result coming back from
+ * Spark; {@link TweetService} consults it at ingest time so that texts the
+ * current model has already scored skip the {@code tweets.raw} → Spark →
+ * {@code tweets.processed} round trip. Entries are bounded by count and evicted
+ * with Caffeine's W-TinyLFU policy, which keeps frequently repeated texts
+ * (retweets, spam) resident. When a result arrives from a different model
+ * version, lookups switch to that version; entries of the old version are not
+ * dropped, since the version is part of the key and they are never hit again,
+ * but age out by size or after {@code expire-after-access-minutes} unread.
+ * This also keeps a rolling deploy, where both versions report results for a
+ * while, from flushing the cache on every switch.
+ */
+@Slf4j
+@Service
+public class SentimentResultCache {
+
+    /**
+     * A cached prediction.
+     *
+     * @param sentiment the normalised sentiment label
+     * @param score     the confidence score of the prediction
+     */
+    public record CachedResult(String sentiment, double score) {
+    }
+
+    /**
+     * Cache key: the model version and the content fingerprint.
+     */
+    record Key(String modelVersion, long fingerprint) {
+    }
+
+    /**
+     * Weight of the newest sample in the pipeline latency moving average.
+     */
+    private static final double LATENCY_ALPHA = 0.05;
+
+    private final boolean enabled;
+    private final Cache<Key, CachedResult> cache;
+
+    /**
+     * Model version the cache currently serves; updated from consumed results.
+     */
+    private volatile String modelVersion;
+
+    /**
+     * Moving average of the ingest-to-processed latency of Spark-scored tweets,
+     * in nanoseconds. Updated without coordination, so it is an estimate.
+     */
+    private volatile double pipelineLatencyNanos;
+
+    private final LongAdder savedLatencyNanos = new LongAdder();
+
+    /**
+     * Constructs a new SentimentResultCache.
+     *
+     * @param enabled       whether results are cached and reused
+     * @param maxSize       maximum number of cached results
+     * @param expireMinutes minutes after which an unread result is evicted
+     * @param modelVersion  the model version assumed until a result reports one
+     * @param meterRegistry the registry the cache metrics are bound to
+     */
+    public SentimentResultCache(
+            @Value("${sentiment.result-cache.enabled:true}") boolean enabled,
+            @Value("${sentiment.result-cache.max-size:100000}") long maxSize,
+            @Value("${sentiment.result-cache.expire-after-access-minutes:60}") long expireMinutes,
+            @Value("${sentiment.model-version:unknown}") String modelVersion,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.modelVersion = modelVersion;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofMinutes(expireMinutes))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "sentiment-results");
+        Gauge.builder("sentiment.cache.pipeline.latency", this, c -> c.pipelineLatencyNanos / 1e9)
+                .description("Moving average of ingest-to-processed latency for Spark-scored tweets")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        FunctionCounter.builder("sentiment.cache.saved.latency", savedLatencyNanos, s -> s.sum() / 1e9)
+                .description("Estimated pipeline latency avoided by serving cached results")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Looks up the result the current model produced for the same cleaned text.
+     *
+     * @param text the raw tweet text
+     * @return the cached result, or {@code null} on a miss or when disabled
+     */
+    public CachedResult lookup(String text) {
+        if (!enabled) {
+            return null;
+        }
+        long fingerprint = TextNormalizer.fingerprint(text);
+        if (fingerprint == 0L) {
+            return null;
+        }
+        CachedResult result = cache.getIfPresent(new Key(modelVersion, fingerprint));
+        if (result != null) {
+            savedLatencyNanos.add((long) pipelineLatencyNanos);
+        }
+        return result;
+    }
+
+    /**
+     * Stores a result coming back from the scoring pipeline.
+     *
+     * @param text            the raw tweet text the result belongs to
+     * @param version         the model version reported with the result, or
+     *                        {@code null} to keep the current one
+     * @param sentiment       the normalised sentiment label
+     * @param score           the confidence score
+     * @param pipelineLatency the time between ingestion and the result being
+     *                        applied
+     */
+    public void record(String text, String version, String sentiment, double score, Duration pipelineLatency) {
+        if (!enabled || text == null) {
+            return;
+        }
+        if (version != null && !Objects.equals(version, modelVersion)) {
+            log.info("Model version changed from {} to {}", modelVersion, version);
+            modelVersion = version;
+        }
+        long latency = pipelineLatency.toNanos();
+        if (latency > 0) {
+            double avg = pipelineLatencyNanos;
+            pipelineLatencyNanos = avg == 0 ? latency : avg + LATENCY_ALPHA * (latency - avg);
+        }
+        long fingerprint = TextNormalizer.fingerprint(text);
+        if (fingerprint != 0L) {
+            cache.put(new Key(modelVersion, fingerprint), new CachedResult(sentiment, score));
+        }
+    }
+
+    /**
+     * Returns the model version the cache currently serves.
+     *
+     * @return the model version
+     */
+    public String modelVersion() {
+        return modelVersion;
+    }
+}
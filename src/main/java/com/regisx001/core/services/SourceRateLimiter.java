@@ -0,0 +1,264 @@
+package com.regisx001.core.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.regisx001.core.domain.dto.SourceRateStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-source token-bucket admission control for the ingest API.
+ * <p>
+ * Each bucket is stored in its "virtual time" form: a single
+ * {@link AtomicLong} holding the instant at which the bucket would be full
+ * again. Acquiring a token is one CAS on that value, so the hot path never
+ * takes a lock. Buckets of sources that have been idle for longer than the
+ * configured timeout are evicted, and the number of tracked sources is capped;
+ * once the cap is reached, unknown sources share a single overflow bucket.
+ * Sources with an override always get their own bucket, since there are only
+ * as many of them as are configured.
+ */
+@Slf4j
+@Service
+public class SourceRateLimiter {
+
+    /**
+     * Key of the shared bucket used once {@link #maxSources} is reached.
+     */
+    static final String OVERFLOW_SOURCE = "*overflow*";
+
+    /**
+     * Whether admission control is applied at all.
+     */
+    private final boolean enabled;
+
+    /**
+     * Limit applied to sources without an override.
+     */
+    private final Limit defaultLimit;
+
+    /**
+     * Per-source limits parsed from {@code source:rate[:burst]} entries.
+     */
+    private final Map<String, Limit> overrides;
+
+    /**
+     * Upper bound on the number of buckets kept in memory.
+     */
+    private final int maxSources;
+
+    /**
+     * Idle time after which a bucket is dropped, in nanoseconds.
+     */
+    private final long idleEvictNanos;
+
+    /**
+     * Live buckets keyed by source.
+     */
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new SourceRateLimiter.
+     *
+     * @param enabled            whether admission control is enabled
+     * @param defaultPerSecond   default refill rate in requests per second
+     * @param defaultBurst       default bucket capacity
+     * @param overrides          per-source overrides as {@code source:rate[:burst]}
+     * @param maxSources         maximum number of buckets tracked
+     * @param idleEvictSeconds   idle time after which a bucket is evicted
+     */
+    public SourceRateLimiter(
+            @Value("${ingest.rate-limit.enabled:true}") boolean enabled,
+            @Value("${ingest.rate-limit.default-per-second:200}") double defaultPerSecond,
+            @Value("${ingest.rate-limit.default-burst:400}") int defaultBurst,
+            @Value("${ingest.rate-limit.overrides:}") String[] overrides,
+            @Value("${ingest.rate-limit.max-sources:10000}") int maxSources,
+            @Value("${ingest.rate-limit.idle-evict-seconds:300}") long idleEvictSeconds) {
+        this.enabled = enabled;
+        this.defaultLimit = new Limit(defaultPerSecond, defaultBurst);
+        this.overrides = parseOverrides(overrides, defaultBurst);
+        this.maxSources = maxSources;
+        this.idleEvictNanos = TimeUnit.SECONDS.toNanos(idleEvictSeconds);
+    }
+
+    /**
+     * Tries to take one token from the bucket of the given source.
+     *
+     * @param source the ingest source of the request
+     * @return {@code 0} if the request is admitted, otherwise the number of
+     *         nanoseconds until a token becomes available
+     */
+    public long tryAcquire(String source) {
+        return tryAcquire(source, System.nanoTime());
+    }
+
+    long tryAcquire(String source, long now) {
+        if (!enabled) {
+            return 0;
+        }
+        return bucketFor(source, now).tryAcquire(now);
+    }
+
+    /**
+     * Returns admission statistics for every tracked source.
+     *
+     * @return a list of per-source statistics sorted by source
+     */
+    public List<SourceRateStats> stats() {
+        long now = System.nanoTime();
+        List<SourceRateStats> result = new ArrayList<>(buckets.size());
+        buckets.forEach((source, bucket) -> result.add(bucket.stats(source, now)));
+        result.sort((a, b) -> a.source().compareTo(b.source()));
+        return result;
+    }
+
+    // ---------------------------------------------------------------
+    // Housekeeping: refresh observed rates and evict idle buckets
+    // ---------------------------------------------------------------
+    /**
+     * Recomputes observed rates and removes buckets idle for longer than the
+     * configured timeout.
+     */
+    @Scheduled(fixedDelayString = "${ingest.rate-limit.sweep-interval-ms:10000}")
+    public void sweep() {
+        sweep(System.nanoTime());
+    }
+
+    void sweep(long now) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> {
+            bucket.refreshRate(now);
+            return now - bucket.lastSeenNanos > idleEvictNanos;
+        });
+        int evicted = before - buckets.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate-limit buckets", evicted);
+        }
+    }
+
+    private TokenBucket bucketFor(String source, long now) {
+        TokenBucket bucket = buckets.get(source);
+        if (bucket != null) {
+            return bucket;
+        }
+        Limit override = overrides.get(source);
+        if (override == null && buckets.size() >= maxSources) {
+            return buckets.computeIfAbsent(OVERFLOW_SOURCE, k -> new TokenBucket(defaultLimit, now));
+        }
+        return buckets.computeIfAbsent(source,
+                k -> new TokenBucket(override != null ? override : defaultLimit, now));
+    }
+
+    private static Map<String, Limit> parseOverrides(String[] entries, int defaultBurst) {
+        Map<String, Limit> result = new HashMap<>();
+        for (String entry : entries) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException(
+                        "Invalid rate-limit override '" + entry + "', expected source:rate[:burst]");
+            }
+            double rate = Double.parseDouble(parts[1]);
+            int burst = parts.length == 3 ? Integer.parseInt(parts[2]) : defaultBurst;
+            result.put(parts[0], new Limit(rate, burst));
+        }
+        return Map.copyOf(result);
+    }
+
+    /**
+     * Refill rate and capacity of a bucket.
+     *
+     * @param perSecond refill rate in tokens per second, {@code <= 0} for no limit
+     * @param burst     bucket capacity in tokens
+     */
+    record Limit(double perSecond, int burst) {
+    }
+
+    /**
+     * A token bucket stored as the instant at which it would be full again
+     * ("theoretical arrival time"). Taking a token pushes that instant forward
+     * by one emission interval; the request is rejected if this would put it
+     * more than {@code burst} intervals into the future.
+     */
+    static final class TokenBucket {
+
+        private final Limit limit;
+        private final long intervalNanos;
+        private final long capacityNanos;
+        private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private volatile long lastSeenNanos;
+        private volatile double observedRate;
+        private long rateWindowStart;
+        private long rateWindowAdmitted;
+
+        TokenBucket(Limit limit, long now) {
+            this.limit = limit;
+            this.lastSeenNanos = now;
+            this.rateWindowStart = now;
+            this.intervalNanos = limit.perSecond() > 0
+                    ? Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / limit.perSecond()))
+                    : 0L;
+            this.capacityNanos = intervalNanos * Math.max(1, limit.burst());
+        }
+
+        long tryAcquire(long now) {
+            lastSeenNanos = now;
+            if (intervalNanos == 0) {
+                admitted.increment();
+                return 0;
+            }
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long debt = next - now;
+                if (debt > capacityNanos) {
+                    rejected.increment();
+                    return debt - capacityNanos;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    admitted.increment();
+                    return 0;
+                }
+            }
+        }
+
+        double availableTokens(long now) {
+            if (intervalNanos == 0) {
+                return limit.burst();
+            }
+            long debt = Math.max(0L, fullAt.get() - now);
+            return (double) (capacityNanos - debt) / intervalNanos;
+        }
+
+        void refreshRate(long now) {
+            long total = admitted.sum();
+            long elapsed = now - rateWindowStart;
+            if (elapsed > 0) {
+                observedRate = (total - rateWindowAdmitted) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            }
+            rateWindowStart = now;
+            rateWindowAdmitted = total;
+        }
+
+        SourceRateStats stats(String source, long now) {
+            return new SourceRateStats(source, Math.max(0.0, limit.perSecond()), limit.burst(),
+                    availableTokens(now), observedRate, admitted.sum(), rejected.sum());
+        }
+    }
+}
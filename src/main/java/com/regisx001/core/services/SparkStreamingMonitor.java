@@ -0,0 +1,175 @@
+package com.regisx001.core.services;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.regisx001.core.domain.dto.StreamingQueryMetrics;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Collects Structured Streaming progress from the Spark driver UI.
+ * <p>
+ * With {@code spark.sql.streaming.metricsEnabled} set, the driver publishes
+ * {@code inputRate-total}, {@code processingRate-total} and {@code latency}
+ * gauges for every running query on {@code /metrics/json/} of its UI port
+ * (4040, or the next free port up to 4050). Each poll fetches that page from
+ * every configured driver URL concurrently over the pooled
+ * {@code sparkWebClient} and appends one sample per query to a bounded rolling
+ * history, from which it decides whether micro-batches keep up with input.
+ */
+@Slf4j
+@Service
+public class SparkStreamingMonitor {
+
+    private static final String STREAMING_SOURCE = ".driver.spark.streaming.";
+
+    private final WebClient sparkWebClient;
+    private final List<String> driverUrls;
+    private final int historySize;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ReentrantLock historyLock = new ReentrantLock();
+    private final Map<String, Deque<StreamingQueryMetrics.Sample>> history = new HashMap<>();
+
+    /**
+     * Constructs a new SparkStreamingMonitor.
+     *
+     * @param sparkWebClient the pooled client used for Spark requests
+     * @param driverUrls     the base URLs of the driver UIs to poll
+     * @param historySize    the number of samples retained per query
+     */
+    public SparkStreamingMonitor(@Qualifier("sparkWebClient") WebClient sparkWebClient,
+            @Value("${health.spark.driver-urls:http://localhost:4040}") List<String> driverUrls,
+            @Value("${health.spark.streaming-history-size:100}") int historySize) {
+        this.sparkWebClient = sparkWebClient;
+        this.driverUrls = driverUrls;
+        this.historySize = historySize;
+    }
+
+    /**
+     * Polls every driver once and records a sample for each running query.
+     * Unreachable drivers contribute no queries.
+     *
+     * @return the progress of every query found, with its history
+     */
+    public Mono<List<StreamingQueryMetrics>> poll() {
+        return Flux.fromIterable(driverUrls)
+                .flatMap(this::fetch)
+                .collectList()
+                .map(this::record);
+    }
+
+    private Flux<Progress> fetch(String driverUrl) {
+        return sparkWebClient.get()
+                .uri(driverUrl + "/metrics/json/")
+                .retrieve()
+                .bodyToMono(String.class)
+                .flatMapIterable(this::parse)
+                .onErrorResume(ex -> {
+                    log.debug("Spark driver metrics unavailable at {}: {}", driverUrl, ex.getMessage());
+                    return Flux.empty();
+                });
+    }
+
+    /**
+     * Extracts the streaming gauges, named
+     * {@code <appId>.driver.spark.streaming.<query>.<metric>}.
+     */
+    private List<Progress> parse(String body) {
+        JsonNode gauges;
+        try {
+            gauges = objectMapper.readTree(body).path("gauges");
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Malformed metrics JSON", ex);
+        }
+        Map<String, Progress> queries = new LinkedHashMap<>();
+        gauges.properties().forEach(entry -> {
+            String name = entry.getKey();
+            int source = name.indexOf(STREAMING_SOURCE);
+            int metric = name.lastIndexOf('.');
+            if (source <= 0 || metric <= source + STREAMING_SOURCE.length()) {
+                return;
+            }
+            String application = name.substring(0, source);
+            String query = name.substring(source + STREAMING_SOURCE.length(), metric);
+            double value = entry.getValue().path("value").asDouble(0);
+            if (!Double.isFinite(value)) {
+                value = 0;
+            }
+            Progress p = queries.computeIfAbsent(application + '/' + query, k -> new Progress(application, query));
+            switch (name.substring(metric + 1)) {
+                case "inputRate-total" -> p.inputRate = value;
+                case "processingRate-total" -> p.processingRate = value;
+                case "latency" -> p.latencyMs = (long) value;
+                default -> {
+                }
+            }
+        });
+        return new ArrayList<>(queries.values());
+    }
+
+    private List<StreamingQueryMetrics> record(List<Progress> polled) {
+        Instant now = Instant.now();
+        List<StreamingQueryMetrics> result = new ArrayList<>(polled.size());
+        Set<String> seen = new HashSet<>();
+        historyLock.lock();
+        try {
+            for (Progress p : polled) {
+                String key = p.application + '/' + p.query;
+                seen.add(key);
+                Deque<StreamingQueryMetrics.Sample> samples = history.computeIfAbsent(key, k -> new ArrayDeque<>());
+                samples.addLast(new StreamingQueryMetrics.Sample(now, p.inputRate, p.processingRate, p.latencyMs));
+                while (samples.size() > historySize) {
+                    samples.removeFirst();
+                }
+                double input = 0;
+                double processed = 0;
+                for (StreamingQueryMetrics.Sample s : samples) {
+                    input += s.inputRowsPerSecond();
+                    processed += s.processedRowsPerSecond();
+                }
+                result.add(new StreamingQueryMetrics(p.application, p.query, p.inputRate, p.processingRate,
+                        p.latencyMs, processed >= input, List.copyOf(samples)));
+            }
+            history.keySet().retainAll(seen);
+        } finally {
+            historyLock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Gauges of one query in a single poll.
+     */
+    private static final class Progress {
+        final String application;
+        final String query;
+        double inputRate;
+        double processingRate;
+        long latencyMs;
+
+        Progress(String application, String query) {
+            this.application = application;
+            this.query = query;
+        }
+    }
+}
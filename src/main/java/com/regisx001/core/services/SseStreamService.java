@@ -0,0 +1,178 @@
+package com.regisx001.core.services;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Builds the periodic SSE streams served by the controllers.
+ * <p>
+ * Each tick computes its payload on the bounded {@code sseBlockingScheduler},
+ * so blocking JPA, JDBC and admin calls never run on Reactor's parallel
+ * scheduler that drives every timer in the JVM. A stream computes at most one
+ * payload at a time: ticks that arrive while a computation is still running,
+ * or while the client has not taken the previous event, are skipped rather
+ * than queued. A client that misses {@code sse.max-missed-ticks} consecutive
+ * ticks without consuming is evicted, and each endpoint accepts at most
+ * {@code sse.max-subscribers-per-endpoint} concurrent subscribers; further
+ * subscribers get 503. Dead clients are dropped when a write fails.
+ * Payload computation is timed as {@code sse.tick}, tagged with the endpoint
+ * and outcome.
+ */
+@Slf4j
+@Service
+public class SseStreamService {
+
+    private final Scheduler sseBlockingScheduler;
+    private final MeterRegistry meterRegistry;
+    private final int maxSubscribers;
+    private final int maxMissedTicks;
+
+    private final ConcurrentHashMap<String, AtomicInteger> subscribers = new ConcurrentHashMap<>();
+    private final Counter skippedTicks;
+    private final Counter evictedClients;
+
+    /**
+     * Constructs a new SseStreamService.
+     *
+     * @param sseBlockingScheduler the scheduler payloads are computed on
+     * @param meterRegistry        the registry stream metrics are bound to
+     * @param maxSubscribers       the subscriber cap per endpoint
+     * @param maxMissedTicks       the consecutive unconsumed ticks after which
+     *                             a client is evicted
+     */
+    public SseStreamService(@Qualifier("sseBlockingScheduler") Scheduler sseBlockingScheduler,
+            MeterRegistry meterRegistry,
+            @Value("${sse.max-subscribers-per-endpoint:100}") int maxSubscribers,
+            @Value("${sse.max-missed-ticks:3}") int maxMissedTicks) {
+        this.sseBlockingScheduler = sseBlockingScheduler;
+        this.meterRegistry = meterRegistry;
+        this.maxSubscribers = maxSubscribers;
+        this.maxMissedTicks = maxMissedTicks;
+        this.skippedTicks = Counter.builder("sse.ticks.skipped")
+                .description("SSE ticks skipped because the previous one was still in progress")
+                .register(meterRegistry);
+        this.evictedClients = Counter.builder("sse.clients.evicted")
+                .description("SSE clients evicted for not consuming events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates a stream that emits one event per period, starting immediately.
+     *
+     * @param endpoint the endpoint name the subscriber cap applies to
+     * @param period   the time between ticks
+     * @param event    the SSE event name
+     * @param payload  computes the payload of a tick; may block
+     * @param <T>      the payload type
+     * @return the event stream
+     * @throws ResponseStatusException with 503 if the endpoint is at its
+     *                                 subscriber cap
+     */
+    public <T> Flux<ServerSentEvent<T>> poll(String endpoint, Duration period, String event, Supplier<T> payload) {
+        return pollEvents(endpoint, period, seq -> ServerSentEvent.<T>builder()
+                .id(String.valueOf(seq))
+                .event(event)
+                .data(payload.get())
+                .build());
+    }
+
+    /**
+     * Creates a stream that emits one event per period, starting immediately,
+     * where each tick builds the whole event (name and ID included). Ticks are
+     * computed one at a time and only when the client has taken the previous
+     * event, so state carried from tick to tick matches what the client saw.
+     *
+     * @param endpoint the endpoint name the subscriber cap applies to
+     * @param period   the time between ticks
+     * @param tick     builds the event of a tick from its sequence number, or
+     *                 returns {@code null} to send nothing this tick; may block
+     * @param <T>      the payload type
+     * @return the event stream
+     * @throws ResponseStatusException with 503 if the endpoint is at its
+     *                                 subscriber cap
+     */
+    public <T> Flux<ServerSentEvent<T>> pollEvents(String endpoint, Duration period,
+            LongFunction<ServerSentEvent<T>> tick) {
+        AtomicInteger count = subscribers.computeIfAbsent(endpoint, this::registerGauge);
+        // Checked at assembly so the client still gets a 503; counted only once
+        // subscribed, so a stream that is never subscribed leaks no slot
+        if (count.get() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many subscribers on " + endpoint);
+        }
+
+        Timer tickTimer = tickTimer(endpoint, "success");
+        AtomicBoolean computing = new AtomicBoolean();
+        AtomicInteger missed = new AtomicInteger();
+        Sinks.Empty<Void> evict = Sinks.empty();
+
+        return Flux.interval(Duration.ZERO, period)
+                .onBackpressureDrop(seq -> {
+                    skippedTicks.increment();
+                    // A tick dropped while nothing is computing means the client
+                    // has not taken the previous event.
+                    if (!computing.get() && missed.incrementAndGet() >= maxMissedTicks) {
+                        evictedClients.increment();
+                        log.info("Evicting slow SSE client on {}", endpoint);
+                        evict.tryEmitEmpty();
+                    }
+                })
+                .concatMap(seq -> Mono.fromCallable(() -> {
+                    computing.set(true);
+                    long start = System.nanoTime();
+                    try {
+                        ServerSentEvent<T> sse = tick.apply(seq);
+                        tickTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        return sse;
+                    } catch (RuntimeException ex) {
+                        tickTimer(endpoint, "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        throw ex;
+                    } finally {
+                        computing.set(false);
+                    }
+                }).subscribeOn(sseBlockingScheduler), 0)
+                .doOnRequest(n -> missed.set(0))
+                .takeUntilOther(evict.asMono())
+                .doOnSubscribe(subscription -> count.incrementAndGet())
+                .doFinally(signal -> count.decrementAndGet());
+    }
+
+    private Timer tickTimer(String endpoint, String outcome) {
+        return Timer.builder("sse.tick")
+                .description("Time to compute the payload of an SSE tick")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private AtomicInteger registerGauge(String endpoint) {
+        AtomicInteger count = new AtomicInteger();
+        Gauge.builder("sse.subscribers", count, AtomicInteger::get)
+                .description("Open SSE subscriptions")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return count;
+    }
+}
@@ -0,0 +1,167 @@
+package com.regisx001.core.services;
+
+/**
+ * Allocation-free re-implementation of the text cleaning applied by the Spark
+ * training and streaming jobs:
+ *
+ * <pre>
+ * lower(text)
+ * regexp_replace(text, "http\\S+", "")
+ * regexp_replace(text, "@\\w+", "")
+ * regexp_replace(text, "[^a-zA-Z\\s]", "")
+ * regexp_replace(text, "\\s+", " ")
+ * </pre>
+ *
+ * Two texts that clean to the same characters are indistinguishable to the
+ * sentiment model, which makes the cleaned form the natural key for duplicate
+ * detection and result reuse.
+ */
+public final class TextNormalizer {
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[512]);
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Cleans the given text into {@code out}, which must be at least twice as
+     * long as the text (lower-casing may expand a character, see below).
+     *
+     * @param text the raw tweet text
+     * @param out  the destination buffer
+     * @return the number of characters written to {@code out}
+     */
+    public static int clean(CharSequence text, char[] out) {
+        int len = text.length();
+
+        // Pass 1: lower-case and strip URLs (http followed by non-whitespace)
+        int n = 0;
+        int i = 0;
+        while (i < len) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (c == 'h' && i + 4 < len
+                    && Character.toLowerCase(text.charAt(i + 1)) == 't'
+                    && Character.toLowerCase(text.charAt(i + 2)) == 't'
+                    && Character.toLowerCase(text.charAt(i + 3)) == 'p'
+                    && !isSpace(text.charAt(i + 4))) {
+                i += 4;
+                while (i < len && !isSpace(text.charAt(i))) {
+                    i++;
+                }
+                continue;
+            }
+            if (c == 'i' && text.charAt(i) == '\u0130') {
+                // String.toLowerCase expands a dotted capital I to "i" + combining dot
+                out[n++] = 'i';
+                c = '\u0307';
+            }
+            out[n++] = c;
+            i++;
+        }
+
+        // Pass 2 (in place): strip mentions, drop non-letters, collapse whitespace
+        int w = 0;
+        int r = 0;
+        while (r < n) {
+            char c = out[r];
+            if (c == '@' && r + 1 < n && isWord(out[r + 1])) {
+                r++;
+                while (r < n && isWord(out[r])) {
+                    r++;
+                }
+                continue;
+            }
+            if (c >= 'a' && c <= 'z') {
+                out[w++] = c;
+            } else if (isSpace(c) && (w == 0 || out[w - 1] != ' ')) {
+                out[w++] = ' ';
+            }
+            r++;
+        }
+        return w;
+    }
+
+    /**
+     * Cleans the given text and returns the result as a string.
+     *
+     * @param text the raw tweet text
+     * @return the cleaned text
+     */
+    public static String clean(CharSequence text) {
+        char[] buf = buffer(2 * text.length());
+        return new String(buf, 0, clean(text, buf));
+    }
+
+    /**
+     * Computes a 64-bit fingerprint of the cleaned form of the given text.
+     * Leading and trailing blanks left by the cleaning are ignored.
+     *
+     * @param text the raw tweet text
+     * @return the fingerprint, or {@code 0} if the text cleans to nothing
+     */
+    public static long fingerprint(CharSequence text) {
+        char[] buf = buffer(2 * text.length());
+        int end = clean(text, buf);
+        int start = 0;
+        if (start < end && buf[start] == ' ') {
+            start++;
+        }
+        if (end > start && buf[end - 1] == ' ') {
+            end--;
+        }
+        if (start == end) {
+            return 0L;
+        }
+        long h = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            h = (h ^ buf[i]) * FNV_PRIME;
+        }
+        return mix(h ^ (end - start));
+    }
+
+    /**
+     * Returns the calling thread's scratch buffer, grown to at least the given
+     * capacity.
+     *
+     * @param capacity the minimum capacity
+     * @return a thread-confined buffer
+     */
+    static char[] buffer(int capacity) {
+        char[] buf = BUFFER.get();
+        if (buf.length < capacity) {
+            buf = new char[Math.max(capacity, buf.length * 2)];
+            BUFFER.set(buf);
+        }
+        return buf;
+    }
+
+    /**
+     * Java regex {@code \s}: space, tab, newline, vertical tab, form feed and
+     * carriage return.
+     */
+    static boolean isSpace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+
+    /**
+     * Java regex {@code \w}: ASCII letters, digits and underscore.
+     */
+    private static boolean isWord(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb34fd4aaf7ebL;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+}
@@ -0,0 +1,108 @@
+package com.regisx001.core.services;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Fixed-width time bucket of the analytics time series. Buckets are aligned to
+ * the epoch, so any width works, not just the units {@code date_trunc}
+ * understands.
+ *
+ * @param seconds the bucket width in seconds
+ */
+public record TimeBucket(long seconds) {
+
+    /**
+     * Largest number of buckets a single report may span before downsampling.
+     */
+    public static final int MAX_BUCKETS = 100_000;
+
+    /**
+     * Parses a bucket width: a named unit ({@code second}, {@code minute},
+     * {@code hour}, {@code day}, {@code week}) or an amount with a unit suffix
+     * such as {@code 5s}, {@code 15m}, {@code 6h} or {@code 1d}.
+     *
+     * @param value the bucket as passed by the client
+     * @return the bucket
+     * @throws IllegalArgumentException if the value is not a valid bucket
+     */
+    public static TimeBucket parse(String value) {
+        String v = value == null ? "" : value.trim().toLowerCase();
+        long seconds = switch (v) {
+            case "second" -> 1;
+            case "minute" -> 60;
+            case "hour" -> 3_600;
+            case "day" -> 86_400;
+            case "week" -> 604_800;
+            default -> parseAmount(v);
+        };
+        return new TimeBucket(seconds);
+    }
+
+    private static long parseAmount(String v) {
+        if (v.length() < 2) {
+            throw new IllegalArgumentException("Invalid bucket '" + v + "'");
+        }
+        long unit = switch (v.charAt(v.length() - 1)) {
+            case 's' -> 1;
+            case 'm' -> 60;
+            case 'h' -> 3_600;
+            case 'd' -> 86_400;
+            case 'w' -> 604_800;
+            default -> throw new IllegalArgumentException("Invalid bucket unit in '" + v + "'");
+        };
+        long amount;
+        try {
+            amount = Long.parseLong(v.substring(0, v.length() - 1));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid bucket amount in '" + v + "'");
+        }
+        if (amount <= 0 || amount > 365L * 86_400 / unit) {
+            throw new IllegalArgumentException("Bucket '" + v + "' must be between 1s and 365d");
+        }
+        return amount * unit;
+    }
+
+    /**
+     * Returns the number of buckets a lookback window spans, including the
+     * partial buckets at both ends.
+     *
+     * @param lookbackMinutes the window length in minutes
+     * @return the number of buckets
+     * @throws IllegalArgumentException if the window is negative or spans more
+     *                                  than {@link #MAX_BUCKETS} buckets
+     */
+    public int count(int lookbackMinutes) {
+        if (lookbackMinutes < 0) {
+            throw new IllegalArgumentException("The lookback must not be negative");
+        }
+        long buckets = lookbackMinutes * 60L / seconds + 2;
+        if (buckets > MAX_BUCKETS) {
+            throw new IllegalArgumentException("A " + seconds + "s bucket over " + lookbackMinutes
+                    + " minutes exceeds " + MAX_BUCKETS + " buckets; use a wider bucket");
+        }
+        return (int) buckets;
+    }
+
+    /**
+     * Returns the epoch second of the bucket containing {@code time}.
+     *
+     * @param time a local date-time, treated as UTC like the stored timestamps
+     * @return the start of its bucket, in epoch seconds
+     */
+    public long floor(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), seconds) * seconds;
+    }
+
+    /**
+     * Returns a short tag for metrics: the named unit for the classic widths,
+     * {@code "other"} otherwise, so the tag set stays bounded.
+     *
+     * @return the metrics tag
+     */
+    public String tag() {
+        return seconds == 60 ? "minute"
+                : seconds == 3_600 ? "hour"
+                        : seconds == 86_400 ? "day" : "other";
+    }
+}
@@ -0,0 +1,73 @@
+package com.regisx001.core.services;
+
+/**
+ * Largest-Triangle-Three-Buckets (LTTB) downsampling of an evenly spaced
+ * series. The first and last points are always kept; of every other group of
+ * points the one forming the largest triangle with its neighbours is kept, so
+ * peaks and dips survive where averaging would flatten them.
+ */
+public final class TimeSeriesDownsampler {
+
+    private TimeSeriesDownsampler() {
+    }
+
+    /**
+     * Selects the indices of the points to keep.
+     *
+     * @param values    the series, one value per evenly spaced x
+     * @param threshold the number of points to keep (at least 3)
+     * @return the kept indices in ascending order; all indices if the series
+     *         already has no more than {@code threshold} points
+     */
+    public static int[] lttb(double[] values, int threshold) {
+        int n = values.length;
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        // Inner points are split into threshold - 2 groups of this (fractional) size
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        selected[0] = 0;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // Average of the next group, the third vertex of the triangle
+            int nextStart = (int) Math.floor((i + 1) * every) + 1;
+            int nextEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = nextStart; j < nextEnd; j++) {
+                avgX += j;
+                avgY += values[j];
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            // Point of the current group with the largest triangle
+            int start = (int) Math.floor(i * every) + 1;
+            int end = (int) Math.floor((i + 1) * every) + 1;
+            double ax = a;
+            double ay = values[a];
+            double maxArea = -1;
+            int best = start;
+            for (int j = start; j < end; j++) {
+                double area = Math.abs((ax - avgX) * (values[j] - ay) - (ax - j) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    best = j;
+                }
+            }
+            selected[i + 1] = best;
+            a = best;
+        }
+
+        selected[threshold - 1] = n - 1;
+        return selected;
+    }
+}
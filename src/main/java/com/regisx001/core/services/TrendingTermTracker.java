@@ -0,0 +1,577 @@
+package com.regisx001.core.services;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.regisx001.core.domain.dto.TrendingTerm;
+import com.regisx001.core.domain.dto.TrendingTerms;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streaming heavy hitters: the most frequent terms and hashtags of each
+ * sentiment over the last 5 minutes, hour and day, without querying the
+ * stored texts.
+ * <p>
+ * Each window is a ring of time slots (1 min, 5 min and 1 h wide). A slot
+ * holds a Count-Min sketch of the terms seen in it and a small table of
+ * candidate heavy hitters. The table is set-associative: a new term takes a
+ * free way of its bucket, or replaces the way whose sketch count is lowest
+ * when its own count is higher, as in space-saving. Counters are bumped with
+ * an atomic add and candidates swapped with a CAS, so updates never lock.
+ * A query sums each candidate of the window's slots over those slots. Slots
+ * are cleared one step before they are reused, so memory is fixed by the
+ * sketch width, depth and candidate count.
+ * <p>
+ * Terms are fed with the sentiment of each stored result ({@link TweetConsumer}
+ * and the in-process paths of {@link TweetService}), after the transaction
+ * commits. A tweet counts once per distinct term.
+ */
+@Slf4j
+@Service
+public class TrendingTermTracker {
+
+    /**
+     * Sliding windows of the trending terms.
+     */
+    public enum Window {
+        /** Last 5 minutes, in 1-minute slots. */
+        FIVE_MINUTES("5m", 60, 5),
+        /** Last hour, in 5-minute slots. */
+        ONE_HOUR("1h", 300, 12),
+        /** Last 24 hours, in 1-hour slots. */
+        ONE_DAY("24h", 3_600, 24);
+
+        private final String label;
+        private final long slotSeconds;
+        private final int slots;
+
+        Window(String label, long slotSeconds, int slots) {
+            this.label = label;
+            this.slotSeconds = slotSeconds;
+            this.slots = slots;
+        }
+
+        /**
+         * Returns the label the window is requested by.
+         *
+         * @return the label
+         */
+        public String label() {
+            return label;
+        }
+
+        /**
+         * Returns the window length.
+         *
+         * @return the length in seconds
+         */
+        public long seconds() {
+            return slotSeconds * slots;
+        }
+
+        /**
+         * Parses a window label.
+         *
+         * @param value the label as passed by the client
+         * @return the window
+         * @throws IllegalArgumentException if the label is unknown
+         */
+        public static Window parse(String value) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(value == null ? "" : value.trim())) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("Invalid window '" + value + "', expected 5m, 1h or 24h");
+        }
+    }
+
+    private static final int POSITIVE = 0;
+    private static final int NEGATIVE = 1;
+    private static final int NEUTRAL = 2;
+
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final int MAX_TERMS_PER_TWEET = 32;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "are", "but", "not", "you", "your", "yours", "all", "any", "can", "had", "has",
+            "have", "her", "hers", "him", "his", "how", "its", "was", "were", "with", "this", "that", "these",
+            "those", "they", "them", "their", "there", "then", "than", "what", "when", "where", "which", "who",
+            "whom", "why", "will", "would", "could", "should", "shall", "may", "might", "must", "our", "ours",
+            "out", "off", "over", "under", "into", "onto", "from", "about", "above", "below", "again", "once",
+            "just", "also", "very", "too", "more", "most", "some", "such", "only", "own", "same", "other",
+            "each", "few", "both", "being", "been", "does", "did", "doing", "done", "get", "got", "gets",
+            "because", "while", "until", "after", "before", "here", "she", "myself", "yourself", "himself",
+            "herself", "itself", "ourselves", "themselves", "one", "now", "even", "still", "yet", "much",
+            "many", "really", "like", "make", "made", "know", "see", "going", "want", "way", "well", "back",
+            "don", "doesn", "didn", "isn", "aren", "wasn", "weren", "won", "wouldn", "couldn", "shouldn",
+            "haven", "hasn", "hadn", "ain", "amp", "via");
+
+    private final boolean enabled;
+    private final int maxLimit;
+
+    /**
+     * Rings by window and sentiment.
+     */
+    private final Ring[][] rings;
+
+    /**
+     * Constructs a new TrendingTermTracker.
+     *
+     * @param enabled       whether terms are tracked
+     * @param width         the counters per sketch row, rounded up to a power
+     *                      of two
+     * @param depth         the sketch rows; the estimate is the least of the
+     *                      row counters
+     * @param candidates    the candidate heavy hitters per slot and sentiment
+     * @param maxLimit      the most terms a query may ask for
+     * @param meterRegistry the registry the memory gauge is bound to
+     */
+    public TrendingTermTracker(
+            @Value("${analytics.trending.enabled:true}") boolean enabled,
+            @Value("${analytics.trending.width:2048}") int width,
+            @Value("${analytics.trending.depth:4}") int depth,
+            @Value("${analytics.trending.candidates:64}") int candidates,
+            @Value("${analytics.trending.max-limit:50}") int maxLimit,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxLimit = maxLimit;
+        int sketchWidth = powerOfTwo(width, 16);
+        int candidateSlots = powerOfTwo(candidates, Slot.WAYS);
+        Window[] windows = Window.values();
+        this.rings = new Ring[windows.length][3];
+        long now = epochSecond();
+        if (enabled) {
+            for (Window window : windows) {
+                for (int s = 0; s < 3; s++) {
+                    rings[window.ordinal()][s] = new Ring(window, sketchWidth, depth, candidateSlots, now);
+                }
+            }
+            log.info("Trending terms enabled: {} bytes of sketches", memoryBytes());
+        }
+        Gauge.builder("analytics.trending.memory", this, TrendingTermTracker::memoryBytes)
+                .description("Memory held by the trending-term sketches")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds the terms of a stored result, once the surrounding transaction (if
+     * any) commits.
+     *
+     * @param sentiment the sentiment label; UNKNOWN counts as neutral
+     * @param text      the raw tweet text
+     */
+    public void record(String sentiment, String text) {
+        if (!enabled || text == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(sentiment, text, epochSecond());
+                }
+            });
+        } else {
+            record(sentiment, text, epochSecond());
+        }
+    }
+
+    void record(String sentiment, String text, long epochSecond) {
+        int index = sentimentIndex(sentiment);
+        for (String term : terms(text)) {
+            long hash = hash(term);
+            for (Ring[] byWindow : rings) {
+                byWindow[index].add(term, hash, epochSecond);
+            }
+        }
+    }
+
+    /**
+     * Returns the most frequent terms of a window.
+     *
+     * @param window    the window
+     * @param sentiment the sentiment to report, or {@code null} for all three
+     * @param limit     the most terms per sentiment
+     * @return the trending terms
+     * @throws IllegalArgumentException if the sentiment is unknown or the limit
+     *                                  is out of range
+     */
+    public TrendingTerms trending(Window window, String sentiment, int limit) {
+        return trending(window, sentiment, limit, epochSecond());
+    }
+
+    TrendingTerms trending(Window window, String sentiment, int limit, long epochSecond) {
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        String only = sentiment == null ? null : sentiment.trim().toUpperCase(Locale.ROOT);
+        if (only != null && !only.equals("POSITIVE") && !only.equals("NEGATIVE") && !only.equals("NEUTRAL")) {
+            throw new IllegalArgumentException("Invalid sentiment '" + sentiment + "'");
+        }
+        return new TrendingTerms(window.label(), window.seconds(),
+                only == null || only.equals("POSITIVE") ? top(window, POSITIVE, limit, epochSecond) : null,
+                only == null || only.equals("NEGATIVE") ? top(window, NEGATIVE, limit, epochSecond) : null,
+                only == null || only.equals("NEUTRAL") ? top(window, NEUTRAL, limit, epochSecond) : null);
+    }
+
+    private List<TrendingTerm> top(Window window, int sentiment, int limit, long epochSecond) {
+        return enabled ? rings[window.ordinal()][sentiment].top(limit, epochSecond) : List.of();
+    }
+
+    /**
+     * Clears the slot each window moves into next, so updates never wait for
+     * it.
+     */
+    @Scheduled(fixedDelay = 10_000)
+    public void rotate() {
+        rotate(epochSecond());
+    }
+
+    void rotate(long epochSecond) {
+        if (!enabled) {
+            return;
+        }
+        for (Ring[] byWindow : rings) {
+            for (Ring ring : byWindow) {
+                ring.prepare(epochSecond);
+            }
+        }
+    }
+
+    private long memoryBytes() {
+        long bytes = 0;
+        for (Ring[] byWindow : rings) {
+            for (Ring ring : byWindow) {
+                bytes += ring == null ? 0 : ring.sizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    // ---------------------------------------------------------------
+    // Tokenizing: hashtags and words, without URLs and mentions
+    // ---------------------------------------------------------------
+    /**
+     * Extracts the distinct terms of a tweet: hashtags (kept with their
+     * {@code #}) and lower-cased words of at least three letters that are not
+     * stop words. URLs and mentions are skipped.
+     *
+     * @param text the raw tweet text
+     * @return the terms in order of first appearance
+     */
+    static List<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : text.split("\\s+")) {
+            if (terms.size() >= MAX_TERMS_PER_TWEET) {
+                break;
+            }
+            String lower = token.toLowerCase(Locale.ROOT);
+            if (lower.isEmpty() || lower.startsWith("@") || lower.startsWith("http://")
+                    || lower.startsWith("https://") || lower.startsWith("www.")) {
+                continue;
+            }
+            if (lower.charAt(0) == '#') {
+                int end = 1;
+                while (end < lower.length() && end <= MAX_TERM_LENGTH
+                        && (Character.isLetterOrDigit(lower.charAt(end)) || lower.charAt(end) == '_')) {
+                    end++;
+                }
+                if (end > 2) {
+                    terms.add(lower.substring(0, end));
+                }
+                continue;
+            }
+            int i = 0;
+            while (i < lower.length()) {
+                while (i < lower.length() && !Character.isLetter(lower.charAt(i))) {
+                    i++;
+                }
+                int start = i;
+                while (i < lower.length() && Character.isLetter(lower.charAt(i))) {
+                    i++;
+                }
+                int length = i - start;
+                if (length >= MIN_TERM_LENGTH && length <= MAX_TERM_LENGTH) {
+                    String word = lower.substring(start, i);
+                    if (!STOP_WORDS.contains(word)) {
+                        terms.add(word);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * FNV-1a over the characters, finished with the MurmurHash3 64-bit mixer.
+     */
+    private static long hash(String term) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < term.length(); i++) {
+            h = (h ^ term.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb34fd4aaf7ebL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int powerOfTwo(int value, int min) {
+        return Math.max(min, Integer.highestOneBit(Math.max(1, value - 1)) << 1);
+    }
+
+    private static int sentimentIndex(String sentiment) {
+        return switch (sentiment == null ? "" : sentiment) {
+            case "POSITIVE" -> POSITIVE;
+            case "NEGATIVE" -> NEGATIVE;
+            default -> NEUTRAL; // NEUTRAL + UNKNOWN
+        };
+    }
+
+    private static long epochSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    // ---------------------------------------------------------------
+    // Rotating slots of one window and sentiment
+    // ---------------------------------------------------------------
+
+    /**
+     * The slots of one window and sentiment. The ring has one slot more than
+     * the window, which {@link #prepare} clears ahead of use.
+     */
+    static final class Ring {
+
+        private final long slotSeconds;
+        private final int slots;
+        private final Slot[] ring;
+
+        Ring(Window window, int width, int depth, int candidates, long epochSecond) {
+            this.slotSeconds = window.slotSeconds;
+            this.slots = window.slots;
+            this.ring = new Slot[slots + 1];
+            for (int i = 0; i < ring.length; i++) {
+                ring[i] = new Slot(width, depth, candidates);
+            }
+            prepare(epochSecond);
+        }
+
+        /**
+         * Counts a term in the slot of its time. If rotation has fallen behind
+         * and the slot still holds an older time, it is claimed here first;
+         * a term older than the ring is dropped.
+         */
+        void add(String term, long hash, long epochSecond) {
+            long slot = Math.floorDiv(epochSecond, slotSeconds);
+            Slot s = ring[(int) Math.floorMod(slot, ring.length)];
+            long epoch = s.epoch;
+            if (epoch != slot) {
+                if (epoch > slot) {
+                    return;
+                }
+                s.claim(slot);
+            }
+            s.add(term, hash);
+        }
+
+        /**
+         * Makes sure the current and the next slot are assigned to their
+         * time, clearing what they held before.
+         */
+        void prepare(long epochSecond) {
+            long current = Math.floorDiv(epochSecond, slotSeconds);
+            for (long slot = current; slot <= current + 1; slot++) {
+                Slot s = ring[(int) Math.floorMod(slot, ring.length)];
+                if (s.epoch != slot) {
+                    s.claim(slot);
+                }
+            }
+        }
+
+        List<TrendingTerm> top(int limit, long epochSecond) {
+            long current = Math.floorDiv(epochSecond, slotSeconds);
+            List<Slot> active = new ArrayList<>(slots);
+            for (Slot s : ring) {
+                long epoch = s.epoch;
+                if (epoch > current - slots && epoch <= current) {
+                    active.add(s);
+                }
+            }
+            Map<String, Long> candidates = new HashMap<>();
+            for (Slot s : active) {
+                s.collect(candidates);
+            }
+            List<TrendingTerm> result = new ArrayList<>(candidates.size());
+            candidates.forEach((term, hash) -> {
+                long count = 0;
+                for (Slot s : active) {
+                    count += s.estimate(hash);
+                }
+                if (count > 0) {
+                    result.add(new TrendingTerm(term, count));
+                }
+            });
+            result.sort(Comparator.comparingLong(TrendingTerm::count).reversed()
+                    .thenComparing(TrendingTerm::term));
+            return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+        }
+
+        long sizeInBytes() {
+            long bytes = 0;
+            for (Slot s : ring) {
+                bytes += s.sizeInBytes();
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * One time slot: a Count-Min sketch and the candidate table, both updated
+     * without locks.
+     */
+    static final class Slot {
+
+        static final int WAYS = 4;
+
+        private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+        private final int[] counts;
+        private final int width;
+        private final int depth;
+        private final AtomicReferenceArray<Candidate> candidates;
+        private final int buckets;
+
+        /**
+         * The slot number this slot currently counts, in slot widths since the
+         * epoch.
+         */
+        volatile long epoch = Long.MIN_VALUE;
+
+        private record Candidate(String term, long hash) {
+        }
+
+        Slot(int width, int depth, int candidates) {
+            this.counts = new int[width * depth];
+            this.width = width;
+            this.depth = depth;
+            this.candidates = new AtomicReferenceArray<>(candidates);
+            this.buckets = candidates / WAYS;
+        }
+
+        void add(String term, long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int row = 0; row < depth; row++) {
+                COUNTS.getAndAdd(counts, index(row, h1, h2), 1);
+            }
+            offer(term, hash);
+        }
+
+        int estimate(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                min = Math.min(min, (int) COUNTS.getVolatile(counts, index(row, h1, h2)));
+            }
+            return min;
+        }
+
+        private int index(int row, int h1, int h2) {
+            return row * width + ((h1 + (row + 1) * h2) & (width - 1));
+        }
+
+        /**
+         * Takes a free way of the term's bucket, or the way with the lowest
+         * estimate if the term's own is higher. A lost CAS is not retried:
+         * the term gets another chance with its next occurrence.
+         */
+        private void offer(String term, long hash) {
+            int base = (int) ((hash >>> 40) & (buckets - 1)) * WAYS;
+            int victimWay = -1;
+            Candidate victim = null;
+            int victimCount = Integer.MAX_VALUE;
+            for (int way = 0; way < WAYS; way++) {
+                Candidate c = candidates.get(base + way);
+                if (c == null) {
+                    if (candidates.compareAndSet(base + way, null, new Candidate(term, hash))) {
+                        return;
+                    }
+                    c = candidates.get(base + way);
+                    if (c == null) {
+                        continue;
+                    }
+                }
+                if (c.hash() == hash && c.term().equals(term)) {
+                    return;
+                }
+                int count = estimate(c.hash());
+                if (count < victimCount) {
+                    victimWay = way;
+                    victim = c;
+                    victimCount = count;
+                }
+            }
+            if (victim != null && estimate(hash) > victimCount) {
+                candidates.compareAndSet(base + victimWay, victim, new Candidate(term, hash));
+            }
+        }
+
+        void collect(Map<String, Long> into) {
+            for (int i = 0; i < candidates.length(); i++) {
+                Candidate c = candidates.get(i);
+                if (c != null) {
+                    into.putIfAbsent(c.term(), c.hash());
+                }
+            }
+        }
+
+        /**
+         * Assigns the slot to a time, clearing it, unless another thread got
+         * there first. The epoch is written last, so a thread that sees the new
+         * epoch sees the cleared counters, and one that sees the old epoch
+         * waits here instead of counting into the slot being cleared.
+         */
+        synchronized void claim(long newEpoch) {
+            if (epoch != newEpoch) {
+                reset(newEpoch);
+            }
+        }
+
+        private void reset(long newEpoch) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < candidates.length(); i++) {
+                candidates.set(i, null);
+            }
+            epoch = newEpoch;
+        }
+
+        long sizeInBytes() {
+            return (long) counts.length * Integer.BYTES + (long) candidates.length() * Long.BYTES;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.regisx001.core.services;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,16 +16,17 @@ import com.regisx001.core.domain.dto.ProcessedTweetEvent;
 import com.regisx001.core.domain.entities.Tweet;
 import com.regisx001.core.repository.TweetRepository;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service responsible for consuming processed tweets from Kafka and updating
- * the database.
+ * the database. Each result is timed as {@code tweets.consumer.apply}, tagged
+ * with its outcome.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TweetConsumer {
 
     /**
@@ -30,18 +34,108 @@ public class TweetConsumer {
      */
     private final TweetRepository TweetRepository;
 
+    /**
+     * Cache of results reused for repeated texts at ingest time.
+     */
+    private final SentimentResultCache sentimentResultCache;
+
+    /**
+     * Requests waiting for results, completed once a result is applied.
+     */
+    private final ResultCorrelator resultCorrelator;
+
+    /**
+     * Controller pausing this listener while the database is saturated; fed
+     * with the latency of each write.
+     */
+    private final ConsumerBackpressureController backpressureController;
+
+    /**
+     * Recorder of the stages closed when a result is applied.
+     */
+    private final PipelineLatencyTracker pipelineLatencyTracker;
+
+    /**
+     * Data version of the analytics reports, bumped with every applied result.
+     */
+    private final AnalyticsDataVersion analyticsDataVersion;
+
+    /**
+     * Score distributions the applied results are added to.
+     */
+    private final ScoreQuantileTracker scoreQuantileTracker;
+
+    /**
+     * Heavy-hitter sketches the terms of applied results are added to.
+     */
+    private final TrendingTermTracker trendingTermTracker;
+
+    private final Timer appliedTimer;
+    private final Timer notFoundTimer;
+    private final Timer invalidIdTimer;
+    private final Timer errorTimer;
+
+    /**
+     * Constructs a new TweetConsumer.
+     *
+     * @param TweetRepository        the repository to manage tweet records
+     * @param sentimentResultCache   the cache filled with consumed results
+     * @param resultCorrelator       the requests waiting for results
+     * @param backpressureController the controller fed with write latencies
+     * @param pipelineLatencyTracker the recorder of the closing pipeline stages
+     * @param analyticsDataVersion   the analytics data version to bump
+     * @param scoreQuantileTracker   the score distributions to add results to
+     * @param trendingTermTracker    the trending terms to add results to
+     * @param meterRegistry          the registry the apply timers are bound to
+     */
+    public TweetConsumer(TweetRepository TweetRepository, SentimentResultCache sentimentResultCache,
+            ResultCorrelator resultCorrelator, ConsumerBackpressureController backpressureController,
+            PipelineLatencyTracker pipelineLatencyTracker, AnalyticsDataVersion analyticsDataVersion,
+            ScoreQuantileTracker scoreQuantileTracker, TrendingTermTracker trendingTermTracker,
+            MeterRegistry meterRegistry) {
+        this.TweetRepository = TweetRepository;
+        this.sentimentResultCache = sentimentResultCache;
+        this.resultCorrelator = resultCorrelator;
+        this.backpressureController = backpressureController;
+        this.pipelineLatencyTracker = pipelineLatencyTracker;
+        this.analyticsDataVersion = analyticsDataVersion;
+        this.scoreQuantileTracker = scoreQuantileTracker;
+        this.trendingTermTracker = trendingTermTracker;
+        this.appliedTimer = applyTimer(meterRegistry, "applied");
+        this.notFoundTimer = applyTimer(meterRegistry, "not_found");
+        this.invalidIdTimer = applyTimer(meterRegistry, "invalid_id");
+        this.errorTimer = applyTimer(meterRegistry, "error");
+    }
+
+    private static Timer applyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("tweets.consumer.apply")
+                .description("Time to apply a processed tweet event to the database")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     /**
      * Consumes a processed tweet event and updates the sentiment analysis result in
      * the database.
      *
-     * @param event the processed tweet event received from Kafka
+     * @param event    the processed tweet event received from Kafka
+     * @param ingest   the ingestion timestamp header, if present
+     * @param sparkIn  the Spark micro-batch start header, if present
+     * @param sparkOut the Spark output timestamp header, if present
      */
-    @KafkaListener(topics = "tweets.processed", groupId = "core-consumer")
+    @KafkaListener(id = ConsumerBackpressureController.LISTENER_ID, topics = "tweets.processed", groupId = "core-consumer")
     @Transactional
-    public void consume(ProcessedTweetEvent event) {
-        log.info("Consumed processed tweet: " + event);
+    public void consume(ProcessedTweetEvent event,
+            @Header(name = PipelineLatencyTracker.INGEST_HEADER, required = false) byte[] ingest,
+            @Header(name = PipelineLatencyTracker.SPARK_IN_HEADER, required = false) byte[] sparkIn,
+            @Header(name = PipelineLatencyTracker.SPARK_OUT_HEADER, required = false) byte[] sparkOut) {
+        long applied = PipelineLatencyTracker.epochNanos();
+        long start = System.nanoTime();
+        log.debug("Consumed processed tweet: {}", event);
+        Timer outcome = errorTimer;
         try {
             Long id = Long.valueOf(event.tweetId());
+            long writeStart = System.nanoTime();
             Optional<Tweet> tweetOpt = TweetRepository.findById(id);
             if (tweetOpt.isPresent()) {
                 Tweet tweet = tweetOpt.get();
@@ -51,22 +145,51 @@ public class TweetConsumer {
                     processedData = new HashMap<>();
                 }
 
-                processedData.put("sentiment", mapSentiment(event.sentiment()));
+                String sentiment = mapSentiment(event.sentiment());
+                processedData.put("sentiment", sentiment);
                 processedData.put("score", event.score());
                 tweet.setProcessedData(processedData);
                 tweet.setProcessedAt(LocalDateTime.now());
 
-                TweetRepository.save(tweet);
+                // Flush so the UPDATE is part of the measured write latency
+                TweetRepository.saveAndFlush(tweet);
+                scoreQuantileTracker.record(sentiment, event.score(), tweet.getProcessedAt());
+                analyticsDataVersion.markChanged();
+                long writeNanos = System.nanoTime() - writeStart;
+                backpressureController.recordWrite(writeNanos);
+                pipelineLatencyTracker.recordResult(PipelineLatencyTracker.decode(ingest),
+                        PipelineLatencyTracker.decode(sparkIn), PipelineLatencyTracker.decode(sparkOut),
+                        applied, writeNanos);
+                outcome = appliedTimer;
+                resultCorrelator.complete(tweet);
+
+                if (tweet.getRawData() != null) {
+                    String text = (String) tweet.getRawData().get("text");
+                    sentimentResultCache.record(text, event.modelVersion(), sentiment, event.score(),
+                            Duration.between(tweet.getIngestedAt(), tweet.getProcessedAt()));
+                    trendingTermTracker.record(sentiment, text);
+                }
             } else {
+                outcome = notFoundTimer;
                 log.error("Tweet not found with ID: " + id);
             }
         } catch (NumberFormatException e) {
+            outcome = invalidIdTimer;
             log.error("Invalid tweet ID format: " + event.tweetId());
 
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
-    private String mapSentiment(String rawSentiment) {
+    /**
+     * Normalises a label produced by the model to the upper-case form stored in
+     * {@code processed_data}.
+     *
+     * @param rawSentiment the label as produced by the model
+     * @return the normalised label, or {@code UNKNOWN} if absent
+     */
+    static String mapSentiment(String rawSentiment) {
         if (rawSentiment == null) {
             return "UNKNOWN";
         }
@@ -1,14 +1,23 @@
 package com.regisx001.core.services;
 
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import com.regisx001.core.domain.dto.TweetEvent;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service responsible for publishing raw tweet events to Kafka for processing.
+ * The time from send to broker acknowledgement is recorded as
+ * {@code tweets.producer.send}, tagged with the topic and outcome.
  */
 @Slf4j
 @Service
@@ -24,13 +33,50 @@ public class TweetProducer {
      */
     private static final String TOPIC = "tweets.raw";
 
+    /**
+     * Stage latency recorder; the ingest timestamp travels as a header.
+     */
+    private final PipelineLatencyTracker pipelineLatencyTracker;
+
+    private final Timer sentTimer;
+    private final Timer failedTimer;
+
     /**
      * Constructs a new TweetProducer.
      *
-     * @param kafkaTemplate the KafkaTemplate to be used for sending messages
+     * @param kafkaTemplate          the KafkaTemplate to be used for sending
+     *                               messages
+     * @param pipelineLatencyTracker the recorder of the produce stage
+     * @param meterRegistry          the registry the send timers are bound to
      */
-    public TweetProducer(KafkaTemplate<String, TweetEvent> kafkaTemplate) {
+    public TweetProducer(KafkaTemplate<String, TweetEvent> kafkaTemplate,
+            PipelineLatencyTracker pipelineLatencyTracker, MeterRegistry meterRegistry) {
         this.kafkaTemplate = kafkaTemplate;
+        this.pipelineLatencyTracker = pipelineLatencyTracker;
+        this.sentTimer = sendTimer(meterRegistry, "success");
+        this.failedTimer = sendTimer(meterRegistry, "error");
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("tweets.producer.send")
+                .description("Time from sending a tweet event to its acknowledgement by the broker")
+                .tag("topic", TOPIC)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fetches the topic metadata once at startup. The first send otherwise
+     * blocks on the producer's metadata monitor, which pins the carrier of
+     * every virtual thread that queues behind it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            log.info("Kafka topic {} has {} partitions", TOPIC, kafkaTemplate.partitionsFor(TOPIC).size());
+        } catch (Exception ex) {
+            log.warn("Could not fetch metadata for {}: {}", TOPIC, ex.getMessage());
+        }
     }
 
     /**
@@ -39,7 +85,30 @@ public class TweetProducer {
      * @param tweet the tweet event to be published
      */
     public void sendTweet(TweetEvent tweet) {
-        log.info("Sending tweet to Kafka: " + tweet);
-        kafkaTemplate.send(TOPIC, tweet.tweetId(), tweet);
+        sendTweet(tweet, PipelineLatencyTracker.epochNanos());
+    }
+
+    /**
+     * Sends a raw tweet event stamped with the time it was ingested, and
+     * records the produce stage once the broker acknowledges it.
+     *
+     * @param tweet       the tweet event to be published
+     * @param ingestNanos the ingestion time in epoch nanoseconds
+     */
+    public void sendTweet(TweetEvent tweet, long ingestNanos) {
+        log.debug("Sending tweet to Kafka: {}", tweet);
+        long start = System.nanoTime();
+        ProducerRecord<String, TweetEvent> record = new ProducerRecord<>(TOPIC, tweet.tweetId(), tweet);
+        record.headers().add(PipelineLatencyTracker.INGEST_HEADER, PipelineLatencyTracker.encode(ingestNanos));
+        kafkaTemplate.send(record).whenComplete((result, ex) -> {
+            long elapsed = System.nanoTime() - start;
+            if (ex != null) {
+                failedTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            } else {
+                sentTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                pipelineLatencyTracker.record(PipelineLatencyTracker.Stage.PRODUCE,
+                        PipelineLatencyTracker.epochNanos() - ingestNanos);
+            }
+        });
     }
 }
@@ -5,6 +5,8 @@ import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,13 +15,16 @@ import com.regisx001.core.domain.dto.TweetEvent;
 import com.regisx001.core.domain.entities.Tweet;
 import com.regisx001.core.repository.TweetRepository;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
- * Service for handling business logic operations related to tweets.
+ * Service for handling business logic operations related to tweets. Every
+ * ingested tweet is timed as {@code tweets.ingest}, tagged with how it was
+ * handled: {@code published} to Kafka, scored {@code inline}, served from the
+ * result {@code cache}, or {@code error}.
  */
 @Service
-@RequiredArgsConstructor
 public class TweetService {
 
     /**
@@ -32,6 +37,88 @@ public class TweetService {
      */
     private final TweetProducer tweetProducer;
 
+    /**
+     * Dedup stage configuration, used to tag duplicates in link mode.
+     */
+    private final DuplicateTextFilter duplicateTextFilter;
+
+    /**
+     * Results of previously scored texts, reused to skip the Kafka round trip.
+     */
+    private final SentimentResultCache sentimentResultCache;
+
+    /**
+     * In-JVM scorer used instead of Spark when inline scoring is enabled.
+     */
+    private final InlineSentimentScorer inlineSentimentScorer;
+
+    /**
+     * Correlation map used by callers waiting for a tweet's result.
+     */
+    private final ResultCorrelator resultCorrelator;
+
+    /**
+     * Data version of the analytics reports, bumped when a tweet is stored
+     * already scored.
+     */
+    private final AnalyticsDataVersion analyticsDataVersion;
+
+    /**
+     * Score distributions the results of already scored tweets are added to.
+     */
+    private final ScoreQuantileTracker scoreQuantileTracker;
+
+    /**
+     * Heavy-hitter sketches the terms of already scored tweets are added to.
+     */
+    private final TrendingTermTracker trendingTermTracker;
+
+    private final Timer publishedTimer;
+    private final Timer inlineTimer;
+    private final Timer cachedTimer;
+    private final Timer errorTimer;
+
+    /**
+     * Constructs a new TweetService.
+     *
+     * @param rawTweetRepository    the repository tweets are saved to
+     * @param tweetProducer         the producer publishing tweets to Kafka
+     * @param duplicateTextFilter   the dedup stage configuration
+     * @param sentimentResultCache  the results reused for repeated texts
+     * @param inlineSentimentScorer the in-JVM scorer
+     * @param resultCorrelator      the map of callers waiting for results
+     * @param analyticsDataVersion  the analytics data version to bump
+     * @param scoreQuantileTracker  the score distributions to add results to
+     * @param trendingTermTracker   the trending terms to add results to
+     * @param meterRegistry         the registry the ingest timers are bound to
+     */
+    public TweetService(TweetRepository rawTweetRepository, TweetProducer tweetProducer,
+            DuplicateTextFilter duplicateTextFilter, SentimentResultCache sentimentResultCache,
+            InlineSentimentScorer inlineSentimentScorer, ResultCorrelator resultCorrelator,
+            AnalyticsDataVersion analyticsDataVersion, ScoreQuantileTracker scoreQuantileTracker,
+            TrendingTermTracker trendingTermTracker, MeterRegistry meterRegistry) {
+        this.rawTweetRepository = rawTweetRepository;
+        this.tweetProducer = tweetProducer;
+        this.duplicateTextFilter = duplicateTextFilter;
+        this.sentimentResultCache = sentimentResultCache;
+        this.inlineSentimentScorer = inlineSentimentScorer;
+        this.resultCorrelator = resultCorrelator;
+        this.analyticsDataVersion = analyticsDataVersion;
+        this.scoreQuantileTracker = scoreQuantileTracker;
+        this.trendingTermTracker = trendingTermTracker;
+        this.publishedTimer = ingestTimer(meterRegistry, "published");
+        this.inlineTimer = ingestTimer(meterRegistry, "inline");
+        this.cachedTimer = ingestTimer(meterRegistry, "cache");
+        this.errorTimer = ingestTimer(meterRegistry, "error");
+    }
+
+    private static Timer ingestTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("tweets.ingest")
+                .description("Time to store an ingested tweet and hand it to scoring")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     /**
      * Creates a new tweet, saves it in the database, and publishes it to Kafka.
      *
@@ -41,25 +128,139 @@ public class TweetService {
      */
     @Transactional
     public Tweet createTweet(String text, String source) {
-        // 1. Save to DB
+        return createTweet(text, source, false);
+    }
+
+    /**
+     * Creates a new tweet, saves it in the database, and publishes it to Kafka.
+     * When the dedup stage runs in link mode, the tweet is tagged with the
+     * content hash of its cleaned text so duplicates can be joined to the
+     * original, and flagged if it is a duplicate. In inline scoring mode the
+     * tweet is scored in the JVM; otherwise, if the current model has already
+     * scored the same cleaned text, the cached result is used. In both cases
+     * the result is stored right away and the tweet is not sent to Kafka.
+     *
+     * @param text      the content of the tweet message
+     * @param source    the source device or application of the tweet
+     * @param duplicate whether the dedup stage recognised the text as a
+     *                  duplicate
+     * @return the saved tweet entity
+     */
+    @Transactional
+    public Tweet createTweet(String text, String source, boolean duplicate) {
+        long start = System.nanoTime();
+        Timer outcome = errorTimer;
+        try {
+            Tweet tweet = store(text, source, duplicate);
+            if (tweet.getProcessedAt() == null) {
+                publish(tweet);
+            }
+            outcome = outcomeOf(tweet);
+            return tweet;
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Creates a new tweet like {@link #createTweet(String, String, boolean)} and
+     * waits asynchronously for its sentiment result.
+     *
+     * @param text       the content of the tweet message
+     * @param source     the source device or application of the tweet
+     * @param duplicate  whether the dedup stage recognised the text as a
+     *                   duplicate
+     * @param waitMillis how long to wait for the result
+     * @return a future of the processed tweet, or of the unprocessed tweet if
+     *         the result did not arrive in time
+     */
+    @Transactional
+    public CompletableFuture<Tweet> createTweetAndWait(String text, String source, boolean duplicate,
+            long waitMillis) {
+        long start = System.nanoTime();
+        Timer outcome = errorTimer;
+        try {
+            Tweet tweet = store(text, source, duplicate);
+            if (tweet.getProcessedAt() != null) {
+                outcome = outcomeOf(tweet);
+                return CompletableFuture.completedFuture(tweet);
+            }
+            // Register before publishing so a fast result cannot be missed
+            CompletableFuture<Tweet> result = resultCorrelator.register(tweet, waitMillis);
+            publish(tweet);
+            outcome = publishedTimer;
+            return result;
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer outcomeOf(Tweet tweet) {
+        if (tweet.getProcessedAt() == null) {
+            return publishedTimer;
+        }
+        return inlineSentimentScorer.isActive() ? inlineTimer : cachedTimer;
+    }
+
+    // ---------------------------------------------------------------
+    // 1. Save to DB, scored already if the result is known in-process
+    // ---------------------------------------------------------------
+    private Tweet store(String text, String source, boolean duplicate) {
         Tweet tweet = new Tweet();
         tweet.setIngestedAt(LocalDateTime.now());
 
         Map<String, Object> rawData = new HashMap<>();
         rawData.put("text", text);
         rawData.put("source", source);
+        if (duplicateTextFilter.mode() == DuplicateTextFilter.Mode.LINK) {
+            rawData.put("contentHash", Long.toHexString(TextNormalizer.fingerprint(text)));
+            if (duplicate) {
+                rawData.put("duplicate", true);
+            }
+        }
         tweet.setRawData(rawData);
 
-        tweet = rawTweetRepository.save(tweet);
+        if (inlineSentimentScorer.isActive()) {
+            SentimentModel.Prediction prediction = inlineSentimentScorer.score(text);
+            Map<String, Object> processedData = new HashMap<>();
+            processedData.put("sentiment", TweetConsumer.mapSentiment(prediction.label()));
+            processedData.put("score", prediction.score());
+            processedData.put("modelVersion", inlineSentimentScorer.modelVersion());
+            tweet.setProcessedData(processedData);
+            tweet.setProcessedAt(LocalDateTime.now());
+            scoreQuantileTracker.record((String) processedData.get("sentiment"), prediction.score(),
+                    tweet.getProcessedAt());
+            trendingTermTracker.record((String) processedData.get("sentiment"), text);
+            analyticsDataVersion.markChanged();
+            return rawTweetRepository.save(tweet);
+        }
+
+        SentimentResultCache.CachedResult cached = sentimentResultCache.lookup(text);
+        if (cached != null) {
+            Map<String, Object> processedData = new HashMap<>();
+            processedData.put("sentiment", cached.sentiment());
+            processedData.put("score", cached.score());
+            processedData.put("cached", true);
+            tweet.setProcessedData(processedData);
+            tweet.setProcessedAt(tweet.getIngestedAt());
+            scoreQuantileTracker.record(cached.sentiment(), cached.score(), tweet.getProcessedAt());
+            trendingTermTracker.record(cached.sentiment(), text);
+            analyticsDataVersion.markChanged();
+            return rawTweetRepository.save(tweet);
+        }
 
-        // 2. Produce event to Kafka
+        return rawTweetRepository.save(tweet);
+    }
+
+    // ---------------------------------------------------------------
+    // 2. Produce event to Kafka
+    // ---------------------------------------------------------------
+    private void publish(Tweet tweet) {
         TweetEvent event = new TweetEvent(
                 tweet.getId().toString(),
                 (String) tweet.getRawData().get("text"),
                 tweet.getIngestedAt().toEpochSecond(ZoneOffset.UTC));
-        tweetProducer.sendTweet(event);
-
-        return tweet;
+        tweetProducer.sendTweet(event, PipelineLatencyTracker.epochNanos(tweet.getIngestedAt()));
     }
 
     /**
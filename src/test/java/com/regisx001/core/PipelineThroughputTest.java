@@ -0,0 +1,168 @@
+package com.regisx001.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.regisx001.core.domain.dto.PipelineLatency;
+import com.regisx001.core.domain.entities.Tweet;
+import com.regisx001.core.repository.TweetRepository;
+import com.regisx001.core.services.ConsumerBackpressureController;
+import com.regisx001.core.services.PipelineLatencyTracker;
+import com.regisx001.core.services.TweetService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sustained throughput of the whole pipeline, in process: {@link TweetService}
+ * → embedded Kafka → {@link StubSparkProcessor} → embedded Kafka →
+ * {@code TweetConsumer} → H2 (or the database in {@code PERF_DATASOURCE_URL}).
+ * <p>
+ * Tagged {@code perf} and only run with {@code mvn -Pperf test}. Fails if
+ * fewer than {@code perf.pipeline.min-throughput} tweets/s make it through;
+ * see {@code application-perf.yaml} for the other knobs.
+ */
+@Slf4j
+@Tag("perf")
+@ActiveProfiles("perf")
+@SpringBootTest
+@EmbeddedKafka(partitions = 3, topics = { "tweets.raw", "tweets.processed" },
+		bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+class PipelineThroughputTest {
+
+	@Autowired
+	private TweetService tweetService;
+
+	@Autowired
+	private TweetRepository tweetRepository;
+
+	@Autowired
+	private PipelineLatencyTracker pipelineLatencyTracker;
+
+	@Autowired
+	private KafkaListenerEndpointRegistry registry;
+
+	@Autowired
+	private EmbeddedKafkaBroker broker;
+
+	@Value("${perf.pipeline.tweets}")
+	private int tweets;
+
+	@Value("${perf.pipeline.warmup-tweets}")
+	private int warmupTweets;
+
+	@Value("${perf.pipeline.concurrency}")
+	private int concurrency;
+
+	@Value("${perf.pipeline.timeout-seconds}")
+	private long timeoutSeconds;
+
+	@Value("${perf.pipeline.min-throughput}")
+	private double minThroughput;
+
+	private StubSparkProcessor spark;
+
+	@BeforeEach
+	void startSpark() {
+		ContainerTestUtils.waitForAssignment(registry.getListenerContainer(ConsumerBackpressureController.LISTENER_ID),
+				broker.getPartitionsPerTopic());
+		spark = new StubSparkProcessor(broker.getBrokersAsString());
+		spark.start();
+	}
+
+	@AfterEach
+	void stopSpark() throws InterruptedException {
+		spark.close();
+	}
+
+	/**
+	 * Tests that the pipeline sustains the configured minimum throughput.
+	 */
+	@Test
+	void sustainsMinimumThroughput() throws Exception {
+		// JIT, connection pools and consumer assignment settle during warm-up
+		drive("warmup", warmupTweets);
+
+		LocalDateTime since = LocalDateTime.now();
+		long start = System.nanoTime();
+		drive("measured", tweets);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		double throughput = tweets / seconds;
+
+		List<Long> latencies = new ArrayList<>();
+		for (Tweet tweet : tweetRepository.findAll()) {
+			if (!tweet.getIngestedAt().isBefore(since) && tweet.getProcessedAt() != null) {
+				latencies.add(Duration.between(tweet.getIngestedAt(), tweet.getProcessedAt()).toNanos());
+			}
+		}
+		latencies.sort(null);
+		assertEquals(tweets, latencies.size(), "every measured tweet should be processed exactly once");
+
+		String summary = String.format("%d tweets in %.2f s = %.1f tweets/s (floor %.1f), ingest->persisted"
+				+ " p50 %.2f ms, p99 %.2f ms, max %.2f ms", tweets, seconds, throughput, minThroughput,
+				percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 1.0));
+		log.info("Pipeline: {}", summary);
+		for (PipelineLatency.StageLatency stage : pipelineLatencyTracker.report().stages()) {
+			log.info(String.format("  %-11s count %7d  p50 %8.2f ms  p99 %8.2f ms",
+					stage.stage(), stage.count(), stage.p50Ms(), stage.p99Ms()));
+		}
+
+		assertTrue(throughput >= minThroughput, "throughput below the floor: " + summary);
+	}
+
+	/**
+	 * Submits {@code count} tweets from {@code concurrency} callers and waits
+	 * until all of them are persisted with a result.
+	 */
+	private void drive(String label, int count) throws Exception {
+		LocalDateTime since = LocalDateTime.now();
+		try (ExecutorService callers = Executors.newFixedThreadPool(concurrency)) {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int c = 0; c < concurrency; c++) {
+				int caller = c;
+				futures.add(callers.submit(() -> {
+					for (int i = caller; i < count; i += concurrency) {
+						tweetService.createTweet(label + " tweet number " + i + " is great", "perf");
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+
+		long deadline = System.nanoTime() + Duration.ofSeconds(timeoutSeconds).toNanos();
+		long processed;
+		while ((processed = tweetRepository.countProcessedSince(since)) < count) {
+			assertTrue(System.nanoTime() < deadline,
+					String.format("%s: only %d of %d tweets processed within %d s", label, processed, count,
+							timeoutSeconds));
+			Thread.sleep(50);
+		}
+	}
+
+	private static double percentile(List<Long> sorted, double quantile) {
+		int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+		return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1))) / 1e6;
+	}
+}
@@ -0,0 +1,107 @@
+package com.regisx001.core;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.regisx001.core.domain.dto.ProcessedTweetEvent;
+import com.regisx001.core.services.PipelineLatencyTracker;
+
+/**
+ * Stands in for the Spark streaming job: reads {@code tweets.raw} and answers
+ * every tweet on {@code tweets.processed} with a deterministic
+ * {@link ProcessedTweetEvent}, passing the timing headers through the way
+ * {@code run_streaming_spark.py} does.
+ */
+class StubSparkProcessor implements Runnable, AutoCloseable {
+
+	private static final String[] SENTIMENTS = { "Positive", "Negative", "Neutral" };
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicBoolean running = new AtomicBoolean(true);
+	private final KafkaConsumer<String, String> consumer;
+	private final KafkaProducer<String, String> producer;
+	private final Thread thread;
+
+	StubSparkProcessor(String bootstrapServers) {
+		consumer = new KafkaConsumer<>(Map.of(
+				ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+				ConsumerConfig.GROUP_ID_CONFIG, "stub-spark",
+				ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+				ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1000),
+				new StringDeserializer(), new StringDeserializer());
+		producer = new KafkaProducer<>(Map.of(
+				ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+				ProducerConfig.LINGER_MS_CONFIG, 5),
+				new StringSerializer(), new StringSerializer());
+		consumer.subscribe(List.of("tweets.raw"));
+		thread = new Thread(this, "stub-spark");
+	}
+
+	/**
+	 * Starts the processing loop on its own thread.
+	 */
+	void start() {
+		thread.start();
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (running.get()) {
+				ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(100));
+				long sparkIn = PipelineLatencyTracker.epochNanos();
+				for (ConsumerRecord<String, String> record : records) {
+					producer.send(processed(record, sparkIn));
+				}
+			}
+		} catch (Exception ex) {
+			if (running.get()) {
+				throw new IllegalStateException("Stub Spark processor failed", ex);
+			}
+		} finally {
+			consumer.close();
+			producer.close();
+		}
+	}
+
+	private ProducerRecord<String, String> processed(ConsumerRecord<String, String> record, long sparkIn)
+			throws Exception {
+		JsonNode tweet = objectMapper.readTree(record.value());
+		String tweetId = tweet.path("tweetId").asText();
+		int bucket = Math.floorMod(tweet.path("text").asText().hashCode(), SENTIMENTS.length);
+		ProcessedTweetEvent event = new ProcessedTweetEvent(tweetId, SENTIMENTS[bucket], 0.5 + bucket * 0.1, "stub");
+
+		ProducerRecord<String, String> out = new ProducerRecord<>("tweets.processed", tweetId,
+				objectMapper.writeValueAsString(event));
+		Header ingest = record.headers().lastHeader(PipelineLatencyTracker.INGEST_HEADER);
+		if (ingest != null) {
+			out.headers().add(ingest);
+		}
+		out.headers().add(PipelineLatencyTracker.SPARK_IN_HEADER, PipelineLatencyTracker.encode(sparkIn));
+		out.headers().add(PipelineLatencyTracker.SPARK_OUT_HEADER,
+				PipelineLatencyTracker.encode(PipelineLatencyTracker.epochNanos()));
+		return out;
+	}
+
+	@Override
+	public void close() throws InterruptedException {
+		running.set(false);
+		consumer.wakeup();
+		thread.join(10_000);
+	}
+}
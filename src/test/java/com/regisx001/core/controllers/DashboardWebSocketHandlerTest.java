@@ -0,0 +1,267 @@
+package com.regisx001.core.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import com.regisx001.core.domain.dto.AnalyticsSummary;
+import com.regisx001.core.domain.dto.ColumnarAnalyticsReport;
+import com.regisx001.core.domain.dto.ColumnarTimeSeries;
+import com.regisx001.core.domain.dto.HealthReport;
+import com.regisx001.core.domain.dto.HealthSnapshot;
+import com.regisx001.core.domain.dto.ServiceHealth;
+import com.regisx001.core.services.AnalyticsService;
+import com.regisx001.core.services.DashboardTopicHub;
+import com.regisx001.core.services.HealthSnapshotCollector;
+import com.regisx001.core.services.TimeBucket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.scheduler.Schedulers;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Tests for the command handling and data framing of the dashboard WebSocket,
+ * against a recording session.
+ */
+class DashboardWebSocketHandlerTest {
+
+	private final JsonMapper jsonMapper = new JsonMapper();
+	private final CBORMapper cborMapper = new CBORMapper();
+	private final AtomicInteger analyticsTicks = new AtomicInteger();
+
+	private final DashboardTopicHub hub = new DashboardTopicHub(Schedulers.boundedElastic(), new StubAnalytics(),
+			new StubHealth(), jsonMapper, cborMapper, new SimpleMeterRegistry(), 50, 1000);
+
+	private final DashboardWebSocketHandler handler = new DashboardWebSocketHandler(hub, jsonMapper, cborMapper,
+			new SimpleMeterRegistry(), 10, 2, 1000, 64 * 1024);
+
+	private final List<RecordingSession> sessions = new ArrayList<>();
+
+	@AfterEach
+	void closeSessions() {
+		sessions.forEach(s -> handler.afterConnectionClosed(s.session, CloseStatus.NORMAL));
+	}
+
+	/**
+	 * Tests that malformed, {@code null} and unknown commands are answered with
+	 * an error reply and leave the connection open.
+	 */
+	@Test
+	void rejectsMalformedCommands() throws Exception {
+		RecordingSession s = open("ws://localhost/ws/dashboard");
+
+		send(s, "{not json");
+		assertError(s.next(), 0, "Malformed command");
+		send(s, "null");
+		assertError(s.next(), 0, "Malformed command");
+		send(s, "{\"op\":\"explode\",\"id\":3}");
+		assertError(s.next(), 3, "Unknown op 'explode'");
+		send(s, "{\"id\":4}");
+		assertError(s.next(), 4, "Unknown op 'null'");
+		send(s, "{\"op\":\"subscribe\",\"id\":5,\"topic\":\"nope\"}");
+		assertError(s.next(), 5, "Unknown topic 'nope'");
+
+		assertEquals(null, s.closed);
+	}
+
+	/**
+	 * Tests that a connection may hold at most {@code ws.max-channels-per-session}
+	 * channels, that resubscribing under an open ID does not count twice, and
+	 * that unsubscribing frees a slot.
+	 */
+	@Test
+	void limitsChannelsPerConnection() throws Exception {
+		RecordingSession s = open("ws://localhost/ws/dashboard");
+
+		assertEquals("subscribed", subscribe(s, 1, "health").get("op").asString());
+		assertEquals("subscribed", subscribe(s, 2, "health").get("op").asString());
+		assertError(subscribe(s, 3, "health"), 3, "At most 2 channels per connection");
+		assertEquals("subscribed", subscribe(s, 2, "health").get("op").asString());
+
+		send(s, "{\"op\":\"unsubscribe\",\"id\":1}");
+		assertEquals("subscribed", subscribe(s, 3, "health").get("op").asString());
+	}
+
+	/**
+	 * Tests that data frames are JSON {@code [channelId, event, payload]} text
+	 * frames by default, and that the analytics channel names its snapshot and
+	 * delta events.
+	 */
+	@Test
+	void framesJsonWithEventNames() throws Exception {
+		RecordingSession s = open("ws://localhost/ws/dashboard");
+		subscribe(s, 7, "health");
+
+		JsonNode frame = jsonMapper.readTree(assertInstanceOf(TextMessage.class, s.next()).getPayload());
+		assertEquals(3, frame.size());
+		assertEquals(7, frame.get(0).asInt());
+		assertEquals("health", frame.get(1).asString());
+		assertEquals("UP", frame.get(2).get("overall").asString());
+
+		send(s, "{\"op\":\"unsubscribe\",\"id\":7}");
+		subscribe(s, 8, "analytics");
+		JsonNode snapshot = nextDataFrame(s, 8);
+		assertEquals("snapshot", snapshot.get(1).asString());
+		assertNotNull(snapshot.get(2).get("version"));
+		JsonNode delta = nextDataFrame(s, 8);
+		assertEquals("delta", delta.get(1).asString());
+		assertNotNull(delta.get(2).get("baseVersion"));
+	}
+
+	/**
+	 * Tests that {@code ?encoding=cbor} switches data frames to CBOR binary
+	 * frames of the same shape, while control replies stay JSON text.
+	 */
+	@Test
+	void framesCborWhenAsked() throws Exception {
+		RecordingSession s = open("ws://localhost/ws/dashboard?encoding=cbor");
+		assertEquals("subscribed", subscribe(s, 9, "health").get("op").asString());
+
+		BinaryMessage message = assertInstanceOf(BinaryMessage.class, s.next());
+		byte[] bytes = new byte[message.getPayloadLength()];
+		message.getPayload().get(bytes);
+		JsonNode frame = cborMapper.readTree(bytes);
+		assertEquals(3, frame.size());
+		assertEquals(9, frame.get(0).asInt());
+		assertEquals("health", frame.get(1).asString());
+		assertEquals("UP", frame.get(2).get("overall").asString());
+	}
+
+	// ---------------------------------------------------------------
+	// Helpers
+	// ---------------------------------------------------------------
+
+	private RecordingSession open(String uri) throws Exception {
+		RecordingSession s = new RecordingSession("s" + sessions.size(), URI.create(uri));
+		sessions.add(s);
+		handler.afterConnectionEstablished(s.session);
+		return s;
+	}
+
+	private void send(RecordingSession s, String command) {
+		handler.handleTextMessage(s.session, new TextMessage(command));
+	}
+
+	/**
+	 * Subscribes with a short period and returns the control reply.
+	 */
+	private JsonNode subscribe(RecordingSession s, int id, String topic) throws InterruptedException {
+		send(s, "{\"op\":\"subscribe\",\"id\":" + id + ",\"topic\":\"" + topic + "\",\"periodMs\":50}");
+		// data frames of earlier channels may arrive first
+		while (true) {
+			WebSocketMessage<?> message = s.next();
+			if (message instanceof TextMessage text && text.getPayload().startsWith("{")) {
+				return jsonMapper.readTree(text.getPayload());
+			}
+		}
+	}
+
+	private JsonNode nextDataFrame(RecordingSession s, int id) throws InterruptedException {
+		while (true) {
+			WebSocketMessage<?> message = s.next();
+			if (message instanceof TextMessage text && text.getPayload().startsWith("[" + id + ",")) {
+				return jsonMapper.readTree(text.getPayload());
+			}
+		}
+	}
+
+	private void assertError(WebSocketMessage<?> message, int id, String text) {
+		assertError(jsonMapper.readTree(assertInstanceOf(TextMessage.class, message).getPayload()), id, text);
+	}
+
+	private static void assertError(JsonNode reply, int id, String text) {
+		assertEquals("error", reply.get("op").asString());
+		assertEquals(id, reply.get("id").asInt());
+		assertTrue(reply.get("message").asString().startsWith(text), reply.toString());
+	}
+
+	/**
+	 * A session that records what the handler sends it.
+	 */
+	private static final class RecordingSession {
+
+		private final BlockingQueue<WebSocketMessage<?>> sent = new LinkedBlockingQueue<>();
+		private final WebSocketSession session;
+		private volatile CloseStatus closed;
+
+		RecordingSession(String id, URI uri) {
+			session = (WebSocketSession) Proxy.newProxyInstance(WebSocketSession.class.getClassLoader(),
+					new Class<?>[] { WebSocketSession.class }, (proxy, method, args) -> switch (method.getName()) {
+						case "getId" -> id;
+						case "getUri" -> uri;
+						case "isOpen" -> closed == null;
+						case "sendMessage" -> {
+							sent.add((WebSocketMessage<?>) args[0]);
+							yield null;
+						}
+						case "close" -> {
+							closed = args == null ? CloseStatus.NORMAL : (CloseStatus) args[0];
+							yield null;
+						}
+						case "hashCode" -> System.identityHashCode(proxy);
+						case "equals" -> proxy == args[0];
+						case "toString" -> "RecordingSession[" + id + "]";
+						default -> throw new UnsupportedOperationException(method.getName());
+					});
+		}
+
+		WebSocketMessage<?> next() throws InterruptedException {
+			WebSocketMessage<?> message = sent.poll(5, TimeUnit.SECONDS);
+			assertNotNull(message, "no frame within 5 s");
+			return message;
+		}
+	}
+
+	/**
+	 * An analytics report whose first bucket grows every tick.
+	 */
+	private final class StubAnalytics extends AnalyticsService {
+
+		StubAnalytics() {
+			super(null, null, new SimpleMeterRegistry());
+		}
+
+		@Override
+		public ColumnarAnalyticsReport getColumnarReport(TimeBucket bucket, int lookbackMinutes, int maxPoints) {
+			long tick = analyticsTicks.incrementAndGet();
+			return new ColumnarAnalyticsReport(new AnalyticsSummary(tick, tick, 0, 0, 1.0),
+					new ColumnarTimeSeries(0, 60, null, new long[] { tick, 0 }, new long[2], new long[2]));
+		}
+	}
+
+	/**
+	 * A health snapshot of one service that is up.
+	 */
+	private static final class StubHealth extends HealthSnapshotCollector {
+
+		StubHealth() {
+			super(null, null, 100);
+		}
+
+		@Override
+		public HealthSnapshot snapshot() {
+			return new HealthSnapshot(HealthReport.of(List.of(ServiceHealth.up("Kafka", 1))), null, Instant.now());
+		}
+	}
+}
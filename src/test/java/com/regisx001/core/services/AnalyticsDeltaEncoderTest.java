@@ -0,0 +1,106 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+
+import com.regisx001.core.domain.dto.AnalyticsDelta;
+import com.regisx001.core.domain.dto.AnalyticsSnapshot;
+import com.regisx001.core.domain.dto.AnalyticsSummary;
+import com.regisx001.core.domain.dto.ColumnarAnalyticsReport;
+import com.regisx001.core.domain.dto.ColumnarTimeSeries;
+
+/**
+ * Tests for the snapshot and delta events of the delta analytics stream.
+ */
+class AnalyticsDeltaEncoderTest {
+
+	private static final AnalyticsSummary SUMMARY = new AnalyticsSummary(10, 4, 3, 3, 1.5);
+
+	/**
+	 * Tests that the first event is a snapshot and that an unchanged report
+	 * sends nothing.
+	 */
+	@Test
+	void startsWithSnapshotAndSkipsUnchanged() {
+		AnalyticsDeltaEncoder encoder = new AnalyticsDeltaEncoder();
+
+		ServerSentEvent<Object> first = encoder.encode(report(SUMMARY, 600, 1, 2, 3, 4));
+
+		assertEquals(AnalyticsDeltaEncoder.SNAPSHOT_EVENT, first.event());
+		assertEquals("1", first.id());
+		AnalyticsSnapshot snapshot = assertInstanceOf(AnalyticsSnapshot.class, first.data());
+		assertEquals(1, snapshot.version());
+		assertArrayEquals(new long[] { 1, 2, 3, 4 }, snapshot.timeSeries().positive());
+		assertNull(encoder.encode(report(SUMMARY, 600, 1, 2, 3, 4)));
+	}
+
+	/**
+	 * Tests that a delta carries only the changed last bucket and the new
+	 * summary.
+	 */
+	@Test
+	void sendsChangedBuckets() {
+		AnalyticsDeltaEncoder encoder = new AnalyticsDeltaEncoder();
+		encoder.encode(report(SUMMARY, 600, 1, 2, 3, 4));
+		AnalyticsSummary updated = new AnalyticsSummary(12, 6, 3, 3, 1.5);
+
+		ServerSentEvent<Object> event = encoder.encode(report(updated, 600, 1, 2, 3, 6));
+
+		assertEquals(AnalyticsDeltaEncoder.DELTA_EVENT, event.event());
+		assertEquals("2", event.id());
+		AnalyticsDelta delta = assertInstanceOf(AnalyticsDelta.class, event.data());
+		assertEquals(1, delta.baseVersion());
+		assertEquals(2, delta.version());
+		assertEquals(updated, delta.summary());
+		assertNull(delta.removed());
+		assertArrayEquals(new int[] { 3 }, delta.upserts().index());
+		assertArrayEquals(new long[] { 6 }, delta.upserts().positive());
+	}
+
+	/**
+	 * Tests that a window sliding by one bucket sends only the appended bucket,
+	 * indexed from the new start, and no summary if it did not change.
+	 */
+	@Test
+	void slidingWindowAppendsOneBucket() {
+		AnalyticsDeltaEncoder encoder = new AnalyticsDeltaEncoder();
+		encoder.encode(report(SUMMARY, 600, 1, 2, 3, 4));
+
+		ServerSentEvent<Object> event = encoder.encode(report(SUMMARY, 660, 2, 3, 4, 5));
+
+		AnalyticsDelta delta = assertInstanceOf(AnalyticsDelta.class, event.data());
+		assertNull(delta.summary());
+		assertEquals(660, delta.start());
+		assertArrayEquals(new int[] { 3 }, delta.upserts().index());
+		assertArrayEquals(new long[] { 5 }, delta.upserts().positive());
+	}
+
+	/**
+	 * Tests that a report where most points changed is sent as a snapshot.
+	 */
+	@Test
+	void largeChangeSendsSnapshot() {
+		AnalyticsDeltaEncoder encoder = new AnalyticsDeltaEncoder();
+		encoder.encode(report(SUMMARY, 600, 1, 2, 3, 4));
+
+		ServerSentEvent<Object> event = encoder.encode(report(SUMMARY, 600, 5, 6, 7, 4));
+
+		assertEquals(AnalyticsDeltaEncoder.SNAPSHOT_EVENT, event.event());
+		assertEquals(2, assertInstanceOf(AnalyticsSnapshot.class, event.data()).version());
+	}
+
+	/**
+	 * Builds a dense one-minute report whose positive counts are
+	 * {@code positive} and other counts zero.
+	 */
+	private static ColumnarAnalyticsReport report(AnalyticsSummary summary, long start, long... positive) {
+		long[] zeros = new long[positive.length];
+		return new ColumnarAnalyticsReport(summary,
+				new ColumnarTimeSeries(start, 60, null, positive, zeros, zeros.clone()));
+	}
+}
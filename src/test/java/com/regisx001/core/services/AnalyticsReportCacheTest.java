@@ -0,0 +1,65 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for the validators of the cached analytics reports.
+ */
+class AnalyticsReportCacheTest {
+
+	private final AnalyticsDataVersion dataVersion = new AnalyticsDataVersion();
+
+	// version() never builds a report, so no AnalyticsService is needed
+	private final AnalyticsReportCache cache = new AnalyticsReportCache(null, dataVersion, true, 16,
+			new SimpleMeterRegistry());
+
+	/**
+	 * Tests that stored results change the ETag and that the parameters are
+	 * part of it.
+	 */
+	@Test
+	void etagFollowsDataVersionAndParameters() {
+		TimeBucket day = TimeBucket.parse("day");
+		AnalyticsReportCache.Version before = cache.version(day, 60, 0, false);
+
+		dataVersion.markChanged();
+		AnalyticsReportCache.Version after = cache.version(day, 60, 0, false);
+
+		assertNotEquals(before.etag(), after.etag());
+		assertNotEquals(after.etag(), cache.version(day, 60, 500, false).etag());
+		assertNotEquals(after.etag(), cache.version(day, 120, 0, false).etag());
+		assertNotEquals(after.etag(), cache.version(day, 60, 0, true).etag());
+		assertTrue(after.etag().startsWith("W/\""));
+	}
+
+	/**
+	 * Tests that the ETag is stable while nothing changes and the throughput
+	 * has settled.
+	 */
+	@Test
+	void etagIsStableWhileIdle() throws Exception {
+		// Last change two minutes ago, so the throughput has settled
+		long changedAt = System.currentTimeMillis() - 120_000;
+		AnalyticsDataVersion idle = new AnalyticsDataVersion() {
+			@Override
+			public long changedAtMillis() {
+				return changedAt;
+			}
+		};
+		AnalyticsReportCache idleCache = new AnalyticsReportCache(null, idle, true, 16, new SimpleMeterRegistry());
+		TimeBucket week = TimeBucket.parse("week");
+
+		AnalyticsReportCache.Version first = idleCache.version(week, 60, 0, false);
+		Thread.sleep(1_100);
+		AnalyticsReportCache.Version second = idleCache.version(week, 60, 0, false);
+
+		assertEquals(first.etag(), second.etag());
+		assertEquals(first.lastModifiedMillis(), second.lastModifiedMillis());
+	}
+}
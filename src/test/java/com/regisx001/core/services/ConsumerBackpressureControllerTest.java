@@ -0,0 +1,89 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.regisx001.core.services.ConsumerBackpressureController.State;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for the backpressure state machine, fed write latencies around the
+ * watermarks.
+ */
+class ConsumerBackpressureControllerTest {
+
+	// limits 200 ms acquire / 500 ms write, throttle at 0.5, calm below 0.25 for
+	// 3 checks; update() never touches the listener, so no registry is needed
+	private final ConsumerBackpressureController controller = new ConsumerBackpressureController(null,
+			new SimpleMeterRegistry(), true, 200, 500, 0.5, 0.25, 3, 500);
+
+	private final List<State> transitions = new ArrayList<>();
+
+	/**
+	 * Tests that crossing the high mark pauses once, that the listener stays
+	 * paused while the pressure moves around inside the band, and that it
+	 * steps down only after enough consecutive checks below the low mark.
+	 */
+	@Test
+	void pausesAndResumesWithHysteresis() {
+		feed(100, 150, 600);
+		assertEquals(List.of(State.PAUSED), transitions);
+
+		// around the high mark and inside the band: still paused, no flapping
+		feed(450, 550, 300, 499, 1000, 200, 130);
+		assertEquals(List.of(State.PAUSED), transitions);
+
+		// two calm checks then a spike restart the count
+		feed(50, 50, 200, 50, 50);
+		assertEquals(State.PAUSED, controller.state());
+
+		feed(50);
+		assertEquals(List.of(State.PAUSED, State.THROTTLED), transitions);
+
+		feed(50, 50, 50);
+		assertEquals(List.of(State.PAUSED, State.THROTTLED, State.RUNNING), transitions);
+	}
+
+	/**
+	 * Tests that pressure between the throttle and pause marks only throttles,
+	 * and that the throttle holds until the pressure drops below the low mark.
+	 */
+	@Test
+	void throttlesBelowThePauseMark() {
+		feed(260, 400, 300, 200, 130);
+		assertEquals(List.of(State.THROTTLED), transitions);
+
+		feed(100, 100, 100, 100);
+		assertEquals(List.of(State.THROTTLED, State.RUNNING), transitions);
+		assertEquals(State.RUNNING, controller.state());
+	}
+
+	/**
+	 * Tests that the connection-acquire wait drives the pressure on its own,
+	 * e.g. while the listener is paused and makes no writes.
+	 */
+	@Test
+	void acquireWaitPauses() {
+		assertEquals(State.PAUSED, controller.update(250, 0));
+		assertEquals(State.PAUSED, controller.update(120, 0));
+		for (int i = 0; i < 3; i++) {
+			controller.update(10, 0);
+		}
+		assertEquals(State.THROTTLED, controller.state());
+	}
+
+	private void feed(double... writeLatencyMillis) {
+		for (double latency : writeLatencyMillis) {
+			State previous = controller.state();
+			State next = controller.update(0, latency);
+			if (next != previous) {
+				transitions.add(next);
+			}
+		}
+	}
+}
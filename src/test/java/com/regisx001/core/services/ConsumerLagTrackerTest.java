@@ -0,0 +1,67 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import com.regisx001.core.domain.dto.ConsumerGroupLag;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for turning sampled offsets into per-group lag.
+ */
+class ConsumerLagTrackerTest {
+
+	private static final TopicPartition RAW_0 = new TopicPartition("tweets.raw", 0);
+	private static final TopicPartition RAW_1 = new TopicPartition("tweets.raw", 1);
+	private static final TopicPartition PROCESSED_0 = new TopicPartition("tweets.processed", 0);
+
+	private final ConsumerLagTracker tracker = new ConsumerLagTracker(new SimpleMeterRegistry());
+
+	/**
+	 * Tests that every group gets an entry for each topic it has committed on,
+	 * including the Spark job's progress group, and none for the others.
+	 */
+	@Test
+	void lagPerGroupAndTopic() {
+		List<ConsumerGroupLag> lags = tracker.record(
+				Map.of(RAW_0, 50L, RAW_1, 50L, PROCESSED_0, 90L),
+				Map.of("spark-tweet-sentiment", Map.of(RAW_0, 40L, RAW_1, 45L),
+						"core-consumer", Map.of(PROCESSED_0, 90L)));
+
+		assertEquals(2, lags.size());
+		ConsumerGroupLag core = lags.get(0);
+		assertEquals("core-consumer", core.groupId());
+		assertEquals("tweets.processed", core.topic());
+		assertEquals(0, core.totalLag());
+		assertEquals(0L, core.secondsToCatchUp());
+
+		ConsumerGroupLag spark = lags.get(1);
+		assertEquals("spark-tweet-sentiment", spark.groupId());
+		assertEquals("tweets.raw", spark.topic());
+		assertEquals(15, spark.totalLag());
+		assertEquals(List.of(10L, 5L), spark.partitions().stream().map(ConsumerGroupLag.PartitionLag::lag).toList());
+		assertNull(spark.lagRatePerSecond(), "no trend from a single sample");
+	}
+
+	/**
+	 * Tests that a shrinking lag yields a negative rate and a catch-up estimate.
+	 */
+	@Test
+	void catchUpFromTrend() throws InterruptedException {
+		tracker.record(Map.of(RAW_0, 1000L), Map.of("spark-tweet-sentiment", Map.of(RAW_0, 0L)));
+		Thread.sleep(50);
+		ConsumerGroupLag lag = tracker.record(Map.of(RAW_0, 1000L),
+				Map.of("spark-tweet-sentiment", Map.of(RAW_0, 500L))).get(0);
+
+		assertTrue(lag.lagRatePerSecond() < 0, "lag is falling");
+		assertTrue(lag.secondsToCatchUp() > 0);
+	}
+}
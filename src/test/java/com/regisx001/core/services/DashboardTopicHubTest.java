@@ -0,0 +1,167 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.regisx001.core.domain.dto.HealthReport;
+import com.regisx001.core.domain.dto.HealthSnapshot;
+import com.regisx001.core.domain.dto.LiveTweetDto;
+import com.regisx001.core.domain.dto.ServiceHealth;
+import com.regisx001.core.services.DashboardTopicHub.TopicMessage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Tests for the sharing and teardown of the dashboard topic producers.
+ */
+class DashboardTopicHubTest {
+
+	private static final Duration PERIOD = Duration.ofMillis(100);
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AtomicInteger healthTicks = new AtomicInteger();
+	private final AtomicInteger feedTicks = new AtomicInteger();
+
+	private final DashboardTopicHub hub = new DashboardTopicHub(Schedulers.boundedElastic(), new StubAnalytics(),
+			new StubHealth(), new JsonMapper(), new CBORMapper(), registry, 50, 1000);
+
+	/**
+	 * Tests that connections subscribing to the same topic, parameters and
+	 * period share one producer: they receive the same messages, a late one
+	 * starts with the latest message, and each tick is computed once.
+	 */
+	@Test
+	void sharesOneProducerPerTopicAndPeriod() {
+		Flux<TopicMessage> first = hub.topic("health", null, PERIOD);
+		assertSame(first, hub.topic("health", Map.of("ignored", "x"), PERIOD));
+		assertNotSame(first, hub.topic("health", null, PERIOD.multipliedBy(2)));
+
+		List<TopicMessage> a = new CopyOnWriteArrayList<>();
+		List<TopicMessage> b = new CopyOnWriteArrayList<>();
+		Disposable subA = first.subscribe(a::add);
+		await(() -> a.size() >= 2);
+		Disposable subB = hub.topic("health", null, PERIOD).subscribe(b::add);
+		await(() -> !b.isEmpty());
+		// the late subscriber is replayed the latest message, not a new tick
+		assertTrue(a.contains(b.get(0)));
+
+		await(() -> b.size() >= 3);
+		subA.dispose();
+		subB.dispose();
+		assertTrue(a.containsAll(b.subList(0, 3)));
+		assertTrue(healthTicks.get() <= a.size() + 2, healthTicks.get() + " ticks for " + a.size() + " messages");
+		assertSame(a.get(0).json(), a.get(0).json(), "serialized once");
+	}
+
+	/**
+	 * Tests that a producer keeps running while one subscriber remains, stops
+	 * one period after the last one leaves, and is started afresh by the next
+	 * subscriber.
+	 */
+	@Test
+	void stopsAfterTheLastSubscriberLeaves() throws InterruptedException {
+		Flux<TopicMessage> feed = hub.topic("live-feed", null, PERIOD);
+		Disposable subA = feed.subscribe();
+		Disposable subB = feed.subscribe();
+		await(() -> feedTicks.get() >= 1);
+		assertEquals(1.0, producers());
+
+		subA.dispose();
+		int ticks = feedTicks.get();
+		await(() -> feedTicks.get() > ticks + 2);
+		assertEquals(1.0, producers(), "still subscribed");
+
+		subB.dispose();
+		await(() -> producers() == 0.0);
+		int stopped = feedTicks.get();
+		TimeUnit.MILLISECONDS.sleep(PERIOD.toMillis() * 3);
+		assertEquals(stopped, feedTicks.get(), "no ticks after teardown");
+
+		Flux<TopicMessage> restarted = hub.topic("live-feed", null, PERIOD);
+		assertNotSame(feed, restarted);
+		Disposable subC = restarted.subscribe();
+		await(() -> feedTicks.get() > stopped);
+		subC.dispose();
+	}
+
+	/**
+	 * Tests that unknown topics and invalid parameters are rejected before a
+	 * producer is started.
+	 */
+	@Test
+	void rejectsUnknownTopicsAndInvalidParams() {
+		assertThrows(IllegalArgumentException.class, () -> hub.topic("nope", null, null));
+		assertThrows(IllegalArgumentException.class, () -> hub.topic(null, null, null));
+		assertThrows(IllegalArgumentException.class,
+				() -> hub.topic("analytics", Map.of("maxPoints", "2"), null));
+		assertThrows(IllegalArgumentException.class,
+				() -> hub.topic("analytics", Map.of("bucket", "fortnight"), null));
+		assertEquals(0.0, producers());
+	}
+
+	private double producers() {
+		return registry.get("ws.producers").gauge().value();
+	}
+
+	private static void await(BooleanSupplier condition) {
+		Instant deadline = Instant.now().plusSeconds(5);
+		while (!condition.getAsBoolean()) {
+			if (Instant.now().isAfter(deadline)) {
+				throw new AssertionError("Condition not met within 5 s");
+			}
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+	}
+
+	/**
+	 * A live feed counting its ticks.
+	 */
+	private final class StubAnalytics extends AnalyticsService {
+
+		StubAnalytics() {
+			super(null, null, new SimpleMeterRegistry());
+		}
+
+		@Override
+		public List<LiveTweetDto> getLiveFeed(int limit) {
+			feedTicks.incrementAndGet();
+			return List.of(new LiveTweetDto(1L, "hello", "POSITIVE", 0.9, "2026-01-01T00:00:00"));
+		}
+	}
+
+	/**
+	 * A health snapshot counting its reads.
+	 */
+	private final class StubHealth extends HealthSnapshotCollector {
+
+		StubHealth() {
+			super(null, null, 100);
+		}
+
+		@Override
+		public HealthSnapshot snapshot() {
+			healthTicks.incrementAndGet();
+			return new HealthSnapshot(HealthReport.of(List.of(ServiceHealth.up("Kafka", 1))), null, Instant.now());
+		}
+	}
+}
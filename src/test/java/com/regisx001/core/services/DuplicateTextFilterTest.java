@@ -0,0 +1,50 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for the two-generation duplicate-text filter and its settings checks.
+ */
+class DuplicateTextFilterTest {
+
+	/**
+	 * Tests that a text is recognised in the window it was seen and the next
+	 * one, and forgotten after that.
+	 */
+	@Test
+	void recognisesTextsForTwoWindows() {
+		DuplicateTextFilter filter = new DuplicateTextFilter("count", 1000, 0.01, new SimpleMeterRegistry());
+
+		assertFalse(filter.checkAndRecord("Great launch today!"));
+		assertTrue(filter.checkAndRecord("great launch today"), "cleans to the same text");
+
+		filter.rotate();
+		assertTrue(filter.checkAndRecord("Great launch today!"));
+		filter.rotate();
+		filter.rotate();
+		assertFalse(filter.checkAndRecord("Great launch today!"));
+	}
+
+	/**
+	 * Tests that settings needing more bits than a filter can address, or out
+	 * of range, are rejected up front, and ignored while the filter is off.
+	 */
+	@Test
+	void rejectsOversizedSettings() {
+		IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+				() -> new DuplicateTextFilter("drop", 200_000_000, 0.001, new SimpleMeterRegistry()));
+		assertTrue(ex.getMessage().contains("ingest.dedup.expected-insertions=200000000"), ex.getMessage());
+
+		assertThrows(IllegalArgumentException.class,
+				() -> new DuplicateTextFilter("drop", 1000, 1.5, new SimpleMeterRegistry()));
+		assertThrows(IllegalArgumentException.class,
+				() -> new DuplicateTextFilter("drop", 0, 0.01, new SimpleMeterRegistry()));
+		new DuplicateTextFilter("off", 200_000_000, 0.001, new SimpleMeterRegistry());
+	}
+}
@@ -0,0 +1,108 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.regisx001.core.domain.dto.HealthSnapshot;
+import com.regisx001.core.domain.dto.IntentHealthResponse;
+import com.regisx001.core.domain.dto.KafkaMetrics;
+import com.regisx001.core.domain.dto.PostgresMetrics;
+import com.regisx001.core.domain.dto.SparkMetrics;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Tests that a collection round always publishes a snapshot, whatever the
+ * intent service does.
+ */
+class HealthSnapshotCollectorTest {
+
+	private final StubProbes probes = new StubProbes();
+
+	@AfterEach
+	void closeProbes() {
+		probes.close();
+	}
+
+	/**
+	 * Tests that an intent probe that never answers is reported as TIMEOUT
+	 * while the other services are reported normally.
+	 */
+	@Test
+	void intentTimeoutStillPublishes() {
+		HealthSnapshotCollector collector = new HealthSnapshotCollector(probes, intent(Mono.never()), 200);
+
+		HealthSnapshot snapshot = collector.snapshot();
+
+		assertEquals("TIMEOUT", snapshot.service("Intent").status());
+		assertEquals("UP", snapshot.service("PostgreSQL").status());
+		assertEquals("UP", snapshot.service("Kafka").status());
+		assertEquals("DEGRADED", snapshot.report().overall());
+	}
+
+	/**
+	 * Tests that an intent probe completing without a response is reported as
+	 * unreachable.
+	 */
+	@Test
+	void emptyIntentResponseIsDown() {
+		HealthSnapshotCollector collector = new HealthSnapshotCollector(probes, intent(Mono.empty()), 1000);
+
+		HealthSnapshot snapshot = collector.snapshot();
+
+		assertEquals("DOWN", snapshot.service("Intent").status());
+		assertEquals("Unreachable", snapshot.service("Intent").message());
+	}
+
+	/**
+	 * Tests that the intent latency is reported when the probe answers.
+	 */
+	@Test
+	void intentUp() {
+		HealthSnapshotCollector collector = new HealthSnapshotCollector(probes,
+				intent(Mono.just(new IntentHealthResponse("ok", true, null))), 1000);
+
+		collector.refresh();
+
+		assertEquals("UP", collector.snapshot().service("Intent").status());
+		assertEquals("UP", collector.snapshot().report().overall());
+	}
+
+	private static IntentHealthService intent(Mono<IntentHealthResponse> response) {
+		return new IntentHealthService(null) {
+			@Override
+			public Mono<IntentHealthResponse> fetchHealth() {
+				return response;
+			}
+		};
+	}
+
+	/**
+	 * Probes answering UP at once; the admin client it creates never connects.
+	 */
+	private static final class StubProbes extends HealthCheckService {
+
+		StubProbes() {
+			super(null, null, null, null, "localhost:1", "http://localhost:1", List.of(), 100, "spark");
+		}
+
+		@Override
+		public PostgresMetrics postgresMetrics() {
+			return new PostgresMetrics("UP", 1L, null, "stub", 0, 100, 0, null, 0);
+		}
+
+		@Override
+		public KafkaMetrics kafkaMetrics() {
+			return new KafkaMetrics("UP", 1L, null, 1, 0, List.of(), List.of());
+		}
+
+		@Override
+		public SparkMetrics sparkMetrics() {
+			return new SparkMetrics("UP", 1L, null, null, 0, 0, 0, 0, 0, 0, 0, List.of(), List.of());
+		}
+	}
+}
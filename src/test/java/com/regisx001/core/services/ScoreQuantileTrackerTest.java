@@ -0,0 +1,127 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.regisx001.core.domain.dto.ColumnarTimeSeries;
+import com.regisx001.core.domain.dto.SentimentScoreQuantiles;
+import com.regisx001.core.repository.TweetRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for the per-minute score digests and their merging.
+ */
+class ScoreQuantileTrackerTest {
+
+	// no backfill runs, so no repository is needed
+	private final ScoreQuantileTracker tracker = new ScoreQuantileTracker(null, new AnalyticsDataVersion(), true, 100,
+			24, 30, 0, new SimpleMeterRegistry());
+
+	/**
+	 * Tests that the quantiles of a minute come from its own scores, that
+	 * UNKNOWN counts as neutral and that empty points are null.
+	 */
+	@Test
+	void quantilesPerMinute() {
+		LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(5);
+		for (int i = 0; i < 1000; i++) {
+			tracker.record("POSITIVE", i / 1000.0, minute.plusSeconds(i % 60));
+		}
+		tracker.record("UNKNOWN", 0.3, minute);
+
+		SentimentScoreQuantiles q = tracker.quantiles(series(minute, 60, 2));
+
+		assertEquals(0.1, q.positive().p10()[0], 0.01);
+		assertEquals(0.5, q.positive().p50()[0], 0.01);
+		assertEquals(0.9, q.positive().p90()[0], 0.01);
+		assertEquals(0.3, q.neutral().p50()[0], 1e-4);
+		assertNull(q.negative().p50()[0]);
+		assertNull(q.positive().p50()[1], "the next minute has no scores");
+	}
+
+	/**
+	 * Tests that a bucket spanning several minutes merges their digests, and
+	 * that sealing and rolling up hours keep the answer.
+	 */
+	@Test
+	void mergesMinutesAndHours() {
+		LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(2);
+		// the first half hour scores 0 .. 0.5, the second 0.5 .. 1
+		for (int i = 0; i < 3600; i++) {
+			tracker.record("NEGATIVE", i / 3600.0, hour.plusSeconds(i));
+		}
+
+		SentimentScoreQuantiles halves = tracker.quantiles(series(hour, 1800, 2));
+		assertEquals(0.25, halves.negative().p50()[0], 0.01);
+		assertEquals(0.75, halves.negative().p50()[1], 0.01);
+
+		double beforeRoll = tracker.quantiles(series(hour, 3600, 1)).negative().p90()[0];
+		tracker.roll();
+		SentimentScoreQuantiles whole = tracker.quantiles(series(hour, 3600, 1));
+
+		assertEquals(0.9, whole.negative().p90()[0], 0.01);
+		assertEquals(beforeRoll, whole.negative().p90()[0], 0.01);
+		assertEquals(0.75, tracker.quantiles(series(hour, 1800, 2)).negative().p50()[1], 0.01);
+	}
+
+	/**
+	 * Tests that backfilled scores bump the data version, so a quantile report
+	 * cached before the backfill is not revalidated afterwards.
+	 */
+	@Test
+	void backfillInvalidatesCachedReports() {
+		LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(90);
+		List<Object[]> stored = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			stored.add(new Object[] { minute.plusSeconds(i % 60), "NEGATIVE", i / 100.0 });
+		}
+		AnalyticsDataVersion dataVersion = new AnalyticsDataVersion();
+		ScoreQuantileTracker backfilled = new ScoreQuantileTracker(repository(stored), dataVersion, true, 100, 24, 30,
+				3, new SimpleMeterRegistry());
+		// version() never builds a report, so no AnalyticsService is needed
+		AnalyticsReportCache cache = new AnalyticsReportCache(null, dataVersion, true, 16, new SimpleMeterRegistry());
+		TimeBucket bucket = TimeBucket.parse("minute");
+
+		String before = cache.version(bucket, 180, 0, true).etag();
+		assertNull(backfilled.quantiles(series(minute, 60, 1)).negative().p50()[0]);
+
+		backfilled.load();
+
+		assertNotEquals(before, cache.version(bucket, 180, 0, true).etag());
+		assertEquals(0.5, backfilled.quantiles(series(minute, 60, 1)).negative().p50()[0], 0.02);
+	}
+
+	/**
+	 * A repository answering only {@code sentimentScoresBetween}, from the
+	 * given rows.
+	 */
+	private static TweetRepository repository(List<Object[]> rows) {
+		return (TweetRepository) Proxy.newProxyInstance(TweetRepository.class.getClassLoader(),
+				new Class<?>[] { TweetRepository.class }, (proxy, method, args) -> {
+					if (!method.getName().equals("sentimentScoresBetween")) {
+						throw new UnsupportedOperationException(method.getName());
+					}
+					LocalDateTime from = (LocalDateTime) args[0];
+					LocalDateTime to = (LocalDateTime) args[1];
+					return rows.stream()
+							.filter(r -> !((LocalDateTime) r[0]).isBefore(from) && ((LocalDateTime) r[0]).isBefore(to))
+							.toList();
+				});
+	}
+
+	private static ColumnarTimeSeries series(LocalDateTime start, long step, int points) {
+		return new ColumnarTimeSeries(start.toEpochSecond(ZoneOffset.UTC), step, null, new long[points],
+				new long[points], new long[points]);
+	}
+}
@@ -0,0 +1,98 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Parity tests for SentimentModel.
+ * <p>
+ * The multinomial and binomial fixtures are produced by
+ * {@code scripts/scoring/generate_parity_fixture.py}. The {@code scoring/spark}
+ * fixture is a model export and the predictions Spark MLlib made with it, in
+ * the format the training job writes to {@code data/models}. Setting
+ * {@code -Dscoring.parity.dir=data/models} checks a training run's output
+ * instead.
+ */
+class SentimentModelParityTest {
+
+	private static final double TOLERANCE = 1e-9;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	/**
+	 * Tests multinomial scoring against the reference predictions.
+	 */
+	@Test
+	void multinomialMatchesReference() throws IOException {
+		try (InputStream model = resource("multinomial-model.json");
+				InputStream expected = resource("multinomial-predictions.jsonl")) {
+			assertParity(SentimentModel.load(model), expected);
+		}
+	}
+
+	/**
+	 * Tests binomial scoring against the reference predictions.
+	 */
+	@Test
+	void binomialMatchesReference() throws IOException {
+		try (InputStream model = resource("binomial-model.json");
+				InputStream expected = resource("binomial-predictions.jsonl")) {
+			assertParity(SentimentModel.load(model), expected);
+		}
+	}
+
+	/**
+	 * Tests scoring against the predictions Spark made during training: the
+	 * bundled export, or the one in {@code scoring.parity.dir} if given.
+	 */
+	@Test
+	void matchesSparkExport() throws IOException {
+		String dir = System.getProperty("scoring.parity.dir");
+		try (InputStream model = sparkExport(dir, "spark_sentiment_model_export.json");
+				InputStream expected = sparkExport(dir, "spark_sentiment_parity.jsonl")) {
+			assertParity(SentimentModel.load(model), expected);
+		}
+	}
+
+	private void assertParity(SentimentModel model, InputStream expected) throws IOException {
+		List<JsonNode> samples = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(expected, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.isBlank()) {
+					samples.add(objectMapper.readTree(line));
+				}
+			}
+		}
+		assertFalse(samples.isEmpty(), "no parity samples");
+		for (JsonNode sample : samples) {
+			String text = sample.path("text").asText();
+			SentimentModel.Prediction prediction = model.predict(text);
+			assertEquals(sample.path("label").asText(), prediction.label(), () -> "label for: " + text);
+			assertEquals(sample.path("score").asDouble(), prediction.score(), TOLERANCE, () -> "score for: " + text);
+		}
+	}
+
+	private InputStream resource(String name) {
+		return getClass().getResourceAsStream("/scoring/" + name);
+	}
+
+	private InputStream sparkExport(String dir, String name) throws IOException {
+		return dir == null ? resource("spark/" + name) : Files.newInputStream(Path.of(dir, name));
+	}
+}
@@ -0,0 +1,101 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.regisx001.core.domain.dto.SourceRateStats;
+
+/**
+ * Tests for the per-source token buckets, driven with explicit nanoTime
+ * values.
+ */
+class SourceRateLimiterTest {
+
+	private static final long T0 = 1_000_000_000_000L;
+	private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/**
+	 * Tests that a bucket admits its burst at once, then one request per
+	 * emission interval, and reports the wait until the next token.
+	 */
+	@Test
+	void refillsAfterBurst() {
+		SourceRateLimiter limiter = limiter(10);
+
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, limiter.tryAcquire("api", T0), "request " + i + " is within the burst");
+		}
+		assertEquals(100 * MS, limiter.tryAcquire("api", T0));
+		assertEquals(50 * MS, limiter.tryAcquire("api", T0 + 50 * MS));
+		assertEquals(0, limiter.tryAcquire("api", T0 + 100 * MS));
+		assertTrue(limiter.tryAcquire("api", T0 + 100 * MS) > 0, "the refilled token was used");
+
+		// an idle bucket refills up to the burst, not beyond
+		long later = T0 + 10_000 * MS;
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, limiter.tryAcquire("api", later));
+		}
+		assertTrue(limiter.tryAcquire("api", later) > 0);
+	}
+
+	/**
+	 * Tests that sources beyond the cap share the overflow bucket, while a
+	 * source with an override keeps its own limit.
+	 */
+	@Test
+	void capsSources() {
+		SourceRateLimiter limiter = limiter(2);
+
+		limiter.tryAcquire("a", T0);
+		limiter.tryAcquire("b", T0);
+		limiter.tryAcquire("c", T0);
+		limiter.tryAcquire("d", T0);
+		limiter.tryAcquire("firehose", T0);
+
+		List<SourceRateStats> stats = limiter.stats();
+		assertEquals(List.of(SourceRateLimiter.OVERFLOW_SOURCE, "a", "b", "firehose"),
+				stats.stream().map(SourceRateStats::source).toList());
+		SourceRateStats overflow = stats.get(0);
+		assertEquals(2, overflow.admitted(), "c and d share the overflow bucket");
+		assertEquals(5, overflow.burst());
+		assertEquals(1000, stats.get(3).burst(), "the override keeps its own limit");
+	}
+
+	/**
+	 * Tests that buckets idle for longer than the timeout are evicted, so their
+	 * sources no longer count toward the cap.
+	 */
+	@Test
+	void sweepsIdleBuckets() {
+		SourceRateLimiter limiter = limiter(2);
+		limiter.tryAcquire("a", T0);
+		limiter.tryAcquire("b", T0 + 30_000 * MS);
+
+		limiter.sweep(T0 + 61_000 * MS);
+
+		assertEquals(List.of("b"), limiter.stats().stream().map(SourceRateStats::source).toList());
+		limiter.tryAcquire("c", T0 + 61_000 * MS);
+		assertEquals(List.of("b", "c"), limiter.stats().stream().map(SourceRateStats::source).toList());
+	}
+
+	/**
+	 * Tests that a disabled limiter admits everything.
+	 */
+	@Test
+	void disabledAdmitsAll() {
+		SourceRateLimiter limiter = new SourceRateLimiter(false, 1, 1, new String[0], 1, 60);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(0, limiter.tryAcquire("api", T0));
+		}
+	}
+
+	private static SourceRateLimiter limiter(int maxSources) {
+		// 10/s with a burst of 5; "firehose" gets 5000/s with a burst of 1000
+		return new SourceRateLimiter(true, 10, 5, new String[] { "firehose:5000:1000" }, maxSources, 60);
+	}
+}
@@ -0,0 +1,135 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.regisx001.core.domain.dto.StreamingQueryMetrics;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests for SparkStreamingMonitor against a stub driver UI serving
+ * {@code /metrics/json/}.
+ */
+class SparkStreamingMonitorTest {
+
+	private static final String APP = "app-20250101120000-0001";
+
+	private HttpServer driver;
+	private volatile String metrics;
+
+	@BeforeEach
+	void startDriver() throws IOException {
+		driver = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		driver.createContext("/metrics/json/", exchange -> {
+			byte[] body = metrics.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		});
+		driver.start();
+	}
+
+	@AfterEach
+	void stopDriver() {
+		driver.stop(0);
+	}
+
+	/**
+	 * Tests that the streaming gauges are parsed and samples accumulate.
+	 */
+	@Test
+	void parsesGaugesAndKeepsHistory() {
+		SparkStreamingMonitor monitor = monitor(driverUrl());
+
+		metrics = gauges("tweet-sentiment", 50.0, 120.0, 350);
+		monitor.poll().block(Duration.ofSeconds(5));
+		metrics = gauges("tweet-sentiment", 60.0, 110.0, 420);
+		List<StreamingQueryMetrics> queries = monitor.poll().block(Duration.ofSeconds(5));
+
+		assertEquals(1, queries.size());
+		StreamingQueryMetrics query = queries.get(0);
+		assertEquals(APP, query.application());
+		assertEquals("tweet-sentiment", query.query());
+		assertEquals(60.0, query.inputRowsPerSecond());
+		assertEquals(110.0, query.processedRowsPerSecond());
+		assertEquals(420, query.batchDurationMs());
+		assertTrue(query.keepingUp());
+		assertEquals(2, query.history().size());
+		assertEquals(350, query.history().get(0).batchDurationMs());
+	}
+
+	/**
+	 * Tests that a query processing slower than its input is reported as
+	 * falling behind, and that the history is bounded.
+	 */
+	@Test
+	void detectsFallingBehind() {
+		SparkStreamingMonitor monitor = monitor(driverUrl());
+
+		metrics = gauges("tweet-sentiment", 200.0, 80.0, 2500);
+		List<StreamingQueryMetrics> queries = null;
+		for (int i = 0; i < 5; i++) {
+			queries = monitor.poll().block(Duration.ofSeconds(5));
+		}
+
+		StreamingQueryMetrics query = queries.get(0);
+		assertFalse(query.keepingUp());
+		assertEquals(3, query.history().size());
+	}
+
+	/**
+	 * Tests that a driver without a metrics page contributes nothing while
+	 * others are still reported.
+	 */
+	@Test
+	void ignoresFailingDrivers() throws IOException {
+		HttpServer bare = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		bare.start();
+		try {
+			SparkStreamingMonitor monitor = monitor("http://127.0.0.1:" + bare.getAddress().getPort(), driverUrl());
+
+			metrics = gauges("tweet-sentiment", 10.0, 10.0, 100);
+			List<StreamingQueryMetrics> queries = monitor.poll().block(Duration.ofSeconds(5));
+
+			assertEquals(1, queries.size());
+			assertEquals("tweet-sentiment", queries.get(0).query());
+		} finally {
+			bare.stop(0);
+		}
+	}
+
+	private SparkStreamingMonitor monitor(String... driverUrls) {
+		return new SparkStreamingMonitor(WebClient.builder().build(), List.of(driverUrls), 3);
+	}
+
+	private String driverUrl() {
+		return "http://127.0.0.1:" + driver.getAddress().getPort();
+	}
+
+	private static String gauges(String query, double inputRate, double processingRate, long latencyMs) {
+		String prefix = APP + ".driver.spark.streaming." + query + ".";
+		return """
+				{"version":"4.0.0","gauges":{
+				  "%1$s.driver.BlockManager.memory.memUsed_MB":{"value":12},
+				  "%2$sinputRate-total":{"value":%3$s},
+				  "%2$sprocessingRate-total":{"value":%4$s},
+				  "%2$slatency":{"value":%5$d},
+				  "%2$seventTime-watermark":{"value":0}
+				}}""".formatted(APP, prefix, inputRate, processingRate, latencyMs);
+	}
+}
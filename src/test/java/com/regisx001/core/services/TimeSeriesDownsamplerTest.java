@@ -0,0 +1,97 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.regisx001.core.domain.dto.SentimentTimePoint;
+
+/**
+ * Tests for the time-series bucketing, gap filling and LTTB downsampling.
+ */
+class TimeSeriesDownsamplerTest {
+
+	private static final long FIRST = LocalDateTime.of(2026, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+
+	/**
+	 * Tests that named units and suffixed amounts parse to seconds, and that
+	 * malformed buckets are rejected.
+	 */
+	@Test
+	void parsesBuckets() {
+		assertEquals(60, TimeBucket.parse("minute").seconds());
+		assertEquals(5, TimeBucket.parse("5s").seconds());
+		assertEquals(900, TimeBucket.parse("15m").seconds());
+		assertEquals(21_600, TimeBucket.parse("6H").seconds());
+		assertEquals(86_400, TimeBucket.parse("1d").seconds());
+		assertThrows(IllegalArgumentException.class, () -> TimeBucket.parse("0s"));
+		assertThrows(IllegalArgumentException.class, () -> TimeBucket.parse("5x"));
+		assertThrows(IllegalArgumentException.class, () -> TimeBucket.parse("month"));
+		assertThrows(IllegalArgumentException.class, () -> TimeBucket.parse("1s").count(43_200));
+	}
+
+	/**
+	 * Tests that buckets without rows are returned with zero counts.
+	 */
+	@Test
+	void fillsGapsWithZeros() {
+		List<Object[]> rows = List.of(
+				new Object[] { FIRST, "POSITIVE", 3L },
+				new Object[] { FIRST, "NEGATIVE", 1L },
+				new Object[] { FIRST + 3 * 300, "NEUTRAL", 2L });
+
+		List<SentimentTimePoint> points = AnalyticsService.pivotTimeSeries(rows, FIRST, 300, 5, 0);
+
+		assertEquals(5, points.size());
+		assertEquals("2026-01-01T00:00:00", points.get(0).time());
+		assertEquals(3, points.get(0).positive());
+		assertEquals(1, points.get(0).negative());
+		assertEquals("2026-01-01T00:05:00", points.get(1).time());
+		assertEquals(0, points.get(1).positive() + points.get(1).negative() + points.get(1).neutral());
+		assertEquals(2, points.get(3).neutral());
+		assertEquals("2026-01-01T00:20:00", points.get(4).time());
+	}
+
+	/**
+	 * Tests that LTTB keeps the end points, stays within the threshold and
+	 * keeps an isolated spike.
+	 */
+	@Test
+	void downsamplingKeepsEndsAndSpikes() {
+		double[] values = new double[1000];
+		Arrays.fill(values, 10);
+		values[637] = 500;
+
+		int[] kept = TimeSeriesDownsampler.lttb(values, 50);
+
+		assertEquals(50, kept.length);
+		assertEquals(0, kept[0]);
+		assertEquals(999, kept[49]);
+		assertTrue(Arrays.stream(kept).anyMatch(i -> i == 637), "the spike should survive");
+		for (int i = 1; i < kept.length; i++) {
+			assertTrue(kept[i] > kept[i - 1], "indices should be strictly increasing");
+		}
+		assertArrayEquals(new int[] { 0, 1, 2 }, TimeSeriesDownsampler.lttb(new double[] { 1, 2, 3 }, 50));
+	}
+
+	/**
+	 * Tests that a report with more buckets than maxPoints is downsampled.
+	 */
+	@Test
+	void limitsPoints() {
+		List<Object[]> rows = List.<Object[]>of(new Object[] { FIRST + 700 * 60, "POSITIVE", 40L });
+
+		List<SentimentTimePoint> points = AnalyticsService.pivotTimeSeries(rows, FIRST, 60, 1440, 100);
+
+		assertEquals(100, points.size());
+		assertTrue(points.stream().anyMatch(p -> p.positive() == 40));
+	}
+}
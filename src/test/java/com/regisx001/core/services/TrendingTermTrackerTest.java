@@ -0,0 +1,118 @@
+package com.regisx001.core.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.regisx001.core.domain.dto.TrendingTerm;
+import com.regisx001.core.domain.dto.TrendingTerms;
+import com.regisx001.core.services.TrendingTermTracker.Window;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tests for the trending-term tokenizing, heavy-hitter sketches and window
+ * rotation.
+ */
+class TrendingTermTrackerTest {
+
+	private static final long NOW = 1_767_225_600L;
+
+	private final TrendingTermTracker tracker = new TrendingTermTracker(true, 1024, 4, 16, 50,
+			new SimpleMeterRegistry());
+
+	@BeforeEach
+	void startClock() {
+		tracker.rotate(NOW);
+	}
+
+	/**
+	 * Tests that hashtags keep their #, and that URLs, mentions, stop words,
+	 * short words and repeats are dropped.
+	 */
+	@Test
+	void extractsTerms() {
+		assertEquals(List.of("#outage", "login", "broken", "#fixit"),
+				TrendingTermTracker.terms("#Outage: @support the LOGIN is broken, broken again! "
+						+ "https://t.co/x #fixit #a"));
+	}
+
+	/**
+	 * Tests that a term repeated across many tweets beats the noise and that
+	 * sentiments are counted apart.
+	 */
+	@Test
+	void findsHeavyHitters() {
+		for (int i = 0; i < 200; i++) {
+			tracker.record("NEGATIVE", i % 2 == 0 ? "checkout outage" : "checkout", NOW);
+			tracker.record("NEGATIVE", noise(i) + " " + noise(i + 200), NOW);
+		}
+		tracker.record("POSITIVE", "great checkout", NOW);
+
+		TrendingTerms trending = tracker.trending(Window.FIVE_MINUTES, null, 3, NOW);
+
+		List<TrendingTerm> negative = trending.negative();
+		assertEquals(3, negative.size());
+		assertEquals("checkout", negative.get(0).term());
+		assertTrue(negative.get(0).count() >= 200, "Count-Min never underestimates");
+		assertEquals("outage", negative.get(1).term());
+		assertTrue(negative.get(1).count() >= 100);
+		assertTrue(negative.get(2).count() < 10, "the rest is noise");
+		assertEquals(1, trending.positive().get(0).count());
+		assertNull(tracker.trending(Window.ONE_HOUR, "positive", 3, NOW).negative());
+		assertThrows(IllegalArgumentException.class, () -> tracker.trending(Window.ONE_HOUR, "angry", 3, NOW));
+	}
+
+	/**
+	 * Tests that terms leave the window once their slot is out of it, while
+	 * the longer windows still count them.
+	 */
+	@Test
+	void slidesWindows() {
+		tracker.record("NEUTRAL", "#launch", NOW);
+		tracker.record("NEUTRAL", "#launch", NOW + 60);
+
+		long later = NOW + 5 * 60;
+		tracker.rotate(later);
+		tracker.record("NEUTRAL", "#launch", later);
+
+		assertEquals(2, tracker.trending(Window.FIVE_MINUTES, "NEUTRAL", 5, later).neutral().get(0).count());
+		assertEquals(3, tracker.trending(Window.ONE_HOUR, "NEUTRAL", 5, later).neutral().get(0).count());
+
+		long nextDay = NOW + 25 * 3600;
+		tracker.rotate(nextDay);
+		assertTrue(tracker.trending(Window.ONE_DAY, "NEUTRAL", 5, nextDay).neutral().isEmpty());
+	}
+
+	/**
+	 * Tests that a term recorded in a slot that rotation has not cleared yet
+	 * claims the slot instead of counting into the time it held before.
+	 */
+	@Test
+	void claimsSlotsRotationSkipped() {
+		for (int i = 0; i < 3; i++) {
+			tracker.record("NEUTRAL", "#launch", NOW);
+		}
+
+		// the 5-minute ring has 6 slots: this reuses NOW's slot, unrotated
+		long wrapped = NOW + 6 * 60;
+		tracker.record("NEUTRAL", "#launch", wrapped);
+
+		assertEquals(1, tracker.trending(Window.FIVE_MINUTES, "NEUTRAL", 5, wrapped).neutral().get(0).count());
+		assertEquals(4, tracker.trending(Window.ONE_HOUR, "NEUTRAL", 5, wrapped).neutral().get(0).count());
+
+		// a late term from the slot's previous time is dropped, not counted now
+		tracker.record("NEUTRAL", "#launch", NOW);
+		assertEquals(1, tracker.trending(Window.FIVE_MINUTES, "NEUTRAL", 5, wrapped).neutral().get(0).count());
+	}
+
+	private static String noise(int i) {
+		return "qx" + (char) ('a' + i % 26) + (char) ('a' + i / 26 % 26);
+	}
+}
@@ -1,5 +1,6 @@
 import { writable, derived } from 'svelte/store';
 import { browser } from '$app/environment';
+import { onSocketState, subscribe } from './dashboardSocket';
 
 // ---------------------------------------------------------------
 // Types (mirrors Java DTOs)
@@ -24,6 +25,85 @@ export interface AnalyticsReport {
   timeSeries: SentimentTimePoint[];
 }
 
+// format=columnar: bucket i starts at start + i * step (epoch seconds of the
+// backend's local time); index lists the kept buckets when downsampled
+interface ColumnarTimeSeries {
+  start: number;
+  step: number;
+  index?: number[];
+  positive: number[];
+  negative: number[];
+  neutral: number[];
+}
+
+// analytics channel: a snapshot first, then deltas that apply to the version
+// they name; bucket numbers in a delta are relative to its start
+interface AnalyticsSnapshot {
+  version: number;
+  summary: AnalyticsSummary;
+  timeSeries: ColumnarTimeSeries;
+}
+
+interface AnalyticsDelta {
+  version: number;
+  baseVersion: number;
+  summary?: AnalyticsSummary;
+  start: number;
+  removed?: number[];
+  upserts: ColumnarTimeSeries;
+}
+
+// Client copy of the streamed state, keyed by absolute bucket (epoch / step)
+interface DeltaState {
+  version: number;
+  summary: AnalyticsSummary;
+  step: number;
+  buckets: Map<number, [number, number, number]>;
+}
+
+let _state: DeltaState | null = null;
+
+function putPoints(buckets: Map<number, [number, number, number]>, series: ColumnarTimeSeries) {
+  const first = series.start / series.step;
+  for (let k = 0; k < series.positive.length; k++) {
+    const i = series.index ? series.index[k] : k;
+    buckets.set(first + i, [series.positive[k], series.negative[k], series.neutral[k]]);
+  }
+}
+
+function applySnapshot(snapshot: AnalyticsSnapshot) {
+  const buckets = new Map<number, [number, number, number]>();
+  putPoints(buckets, snapshot.timeSeries);
+  _state = { version: snapshot.version, summary: snapshot.summary, step: snapshot.timeSeries.step, buckets };
+}
+
+// Returns false if the delta does not apply to the state we hold
+function applyDelta(delta: AnalyticsDelta): boolean {
+  if (!_state || delta.baseVersion !== _state.version) return false;
+  const first = delta.start / _state.step;
+  for (const bucket of _state.buckets.keys()) {
+    if (bucket < first) _state.buckets.delete(bucket);
+  }
+  for (const i of delta.removed ?? []) _state.buckets.delete(first + i);
+  putPoints(_state.buckets, delta.upserts);
+  _state.version = delta.version;
+  if (delta.summary) _state.summary = delta.summary;
+  return true;
+}
+
+function toReport(state: DeltaState): AnalyticsReport {
+  const timeSeries = [...state.buckets.entries()]
+    .sort((a, b) => a[0] - b[0])
+    .map(([bucket, [positive, negative, neutral]]) => ({
+      // ISO local date-time, as the default format sends it
+      time: new Date(bucket * state.step * 1000).toISOString().slice(0, 19),
+      positive,
+      negative,
+      neutral,
+    }));
+  return { summary: state.summary, timeSeries };
+}
+
 type ConnectionState = 'connecting' | 'connected' | 'error' | 'closed';
 
 // ---------------------------------------------------------------
@@ -41,57 +121,55 @@ export const analyticsConnectionState = derived(_connectionState, ($s) => $s);
 export const analyticsLastUpdated = derived(_lastUpdated, ($d) => $d);
 
 // ---------------------------------------------------------------
-// SSE connection
+// Dashboard socket channel
 // ---------------------------------------------------------------
-const API_BASE = import.meta.env.VITE_API_BASE_URL ?? 'http://localhost:8090';
 
-let es: EventSource | null = null;
-let retryTimer: ReturnType<typeof setTimeout> | null = null;
-let retryDelay = 3_000;
+// The chart is a few hundred pixels wide; the backend downsamples longer series
+const MAX_POINTS = 500;
+
+let unsubscribe: (() => void) | null = null;
+let stopStateUpdates: (() => void) | null = null;
 
 // Track current params so reconnect can reuse them
 let _currentBucket = 'minute';
 let _currentMinutes = 60;
 
+function publish() {
+  if (!_state) return;
+  _report.set(toReport(_state));
+  _lastUpdated.set(new Date());
+}
+
+// The analytics channel sends a snapshot event, then delta events
+function onData(payload: unknown, event: string) {
+  if (event === 'snapshot') {
+    applySnapshot(payload as AnalyticsSnapshot);
+    publish();
+  } else if (applyDelta(payload as AnalyticsDelta)) {
+    publish();
+  } else {
+    // Missed a message: a new subscription starts with a fresh snapshot
+    reconnectAnalytics(_currentBucket, _currentMinutes);
+  }
+}
+
 function connect(bucket = _currentBucket, minutes = _currentMinutes) {
   if (!browser) return;
   _currentBucket = bucket;
   _currentMinutes = minutes;
-  _connectionState.set('connecting');
-  es = new EventSource(`${API_BASE}/api/analytics/stream?bucket=${bucket}&minutes=${minutes}`);
-
-  es.addEventListener('analytics', (e: MessageEvent) => {
-    try {
-      _report.set(JSON.parse(e.data) as AnalyticsReport);
-      _lastUpdated.set(new Date());
-      _connectionState.set('connected');
-      retryDelay = 3_000;
-    } catch {
-      /* ignore parse errors */
-    }
-  });
-
-  es.onerror = () => {
-    _connectionState.set('error');
-    es?.close();
-    es = null;
-    retryTimer = setTimeout(() => {
-      retryDelay = Math.min(retryDelay * 2, 30_000);
-      connect(bucket, minutes);
-    }, retryDelay);
-  };
+  stopStateUpdates ??= onSocketState((state) => _connectionState.set(state));
+  unsubscribe = subscribe('analytics', onData, { bucket, minutes, maxPoints: MAX_POINTS });
 }
 
 function disconnect() {
-  if (retryTimer) clearTimeout(retryTimer);
-  es?.close();
-  es = null;
+  unsubscribe?.();
+  unsubscribe = null;
+  _state = null;
   _connectionState.set('closed');
 }
 
 export function reconnectAnalytics(bucket: string, minutes: number) {
   disconnect();
-  retryDelay = 3_000;
   connect(bucket, minutes);
 }
 
@@ -0,0 +1,110 @@
+import { browser } from '$app/environment';
+
+// ---------------------------------------------------------------
+// One WebSocket (/ws/dashboard) multiplexing every dashboard stream.
+// Data frames are [channelId, event, payload]; control replies are
+// {op: 'subscribed' | 'error', id, message?}.
+// ---------------------------------------------------------------
+const API_BASE = import.meta.env.VITE_API_BASE_URL ?? 'http://localhost:8090';
+const WS_URL = `${API_BASE.replace(/^http/, 'ws')}/ws/dashboard`;
+
+export type SocketState = 'connecting' | 'connected' | 'error' | 'closed';
+
+interface Channel {
+  topic: string;
+  params?: Record<string, string | number>;
+  periodMs?: number;
+  onData: (payload: unknown, event: string) => void;
+}
+
+const channels = new Map<number, Channel>();
+const stateListeners = new Set<(state: SocketState) => void>();
+let nextId = 1;
+let ws: WebSocket | null = null;
+let retryTimer: ReturnType<typeof setTimeout> | null = null;
+let retryDelay = 3_000;
+
+function setState(state: SocketState) {
+  for (const listener of stateListeners) listener(state);
+}
+
+function send(command: object) {
+  if (ws?.readyState === WebSocket.OPEN) ws.send(JSON.stringify(command));
+}
+
+function sendSubscribe(id: number, channel: Channel) {
+  send({ op: 'subscribe', id, topic: channel.topic, params: channel.params, periodMs: channel.periodMs });
+}
+
+function connect() {
+  if (!browser || ws) return;
+  setState('connecting');
+  ws = new WebSocket(WS_URL);
+
+  ws.onopen = () => {
+    retryDelay = 3_000;
+    setState('connected');
+    // Channels survive reconnects; the server starts each one afresh
+    for (const [id, channel] of channels) sendSubscribe(id, channel);
+  };
+
+  ws.onmessage = (e: MessageEvent) => {
+    let frame: unknown;
+    try {
+      frame = JSON.parse(e.data);
+    } catch {
+      return; /* ignore parse errors */
+    }
+    if (Array.isArray(frame)) {
+      channels.get(frame[0])?.onData(frame[2], frame[1]);
+    } else {
+      const control = frame as { op: string; id: number; message?: string };
+      if (control.op === 'error') console.warn(`dashboard channel ${control.id}: ${control.message}`);
+    }
+  };
+
+  ws.onclose = () => {
+    ws = null;
+    if (channels.size === 0) {
+      setState('closed');
+      return;
+    }
+    setState('error');
+    retryTimer = setTimeout(() => {
+      retryTimer = null;
+      retryDelay = Math.min(retryDelay * 2, 30_000);
+      connect();
+    }, retryDelay);
+  };
+}
+
+// Subscribes to a topic; returns the function that unsubscribes. onData gets
+// each payload with its event name. The socket opens with the first channel
+// and closes with the last.
+export function subscribe(
+  topic: string,
+  onData: (payload: unknown, event: string) => void,
+  params?: Record<string, string | number>,
+  periodMs?: number
+): () => void {
+  const id = nextId++;
+  const channel: Channel = { topic, params, periodMs, onData };
+  channels.set(id, channel);
+  if (ws) sendSubscribe(id, channel);
+  else if (!retryTimer) connect();
+  return () => {
+    if (!channels.delete(id)) return;
+    send({ op: 'unsubscribe', id });
+    if (channels.size === 0) {
+      if (retryTimer) clearTimeout(retryTimer);
+      retryTimer = null;
+      ws?.close();
+    }
+  };
+}
+
+// Reports the socket state to the listener; returns the function that stops.
+export function onSocketState(listener: (state: SocketState) => void): () => void {
+  stateListeners.add(listener);
+  return () => stateListeners.delete(listener);
+}
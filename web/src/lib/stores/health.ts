@@ -1,12 +1,13 @@
 import { writable, derived } from 'svelte/store';
 import { browser } from '$app/environment';
+import { onSocketState, subscribe } from './dashboardSocket';
 
 // ---------------------------------------------------------------
 // Types (mirrors Java DTOs)
 // ---------------------------------------------------------------
 export interface ServiceHealth {
   service: string;
-  status: 'UP' | 'DOWN';
+  status: 'UP' | 'DOWN' | 'TIMEOUT';
   message?: string;
   latencyMs?: number;
 }
@@ -23,13 +24,30 @@ export interface KafkaTopicInfo {
   replicationFactor: number;
 }
 
+export interface KafkaPartitionLag {
+  partition: number;
+  endOffset: number;
+  committedOffset?: number;
+  lag: number;
+}
+
+export interface ConsumerGroupLag {
+  groupId: string;
+  topic: string;
+  totalLag: number;
+  lagRatePerSecond?: number;
+  secondsToCatchUp?: number;
+  partitions: KafkaPartitionLag[];
+}
+
 export interface KafkaMetrics {
-  status: 'UP' | 'DOWN';
+  status: 'UP' | 'DOWN' | 'TIMEOUT';
   latencyMs?: number;
   message?: string;
   brokerCount: number;
   topicCount: number;
   topics: KafkaTopicInfo[];
+  consumerGroups: ConsumerGroupLag[];
 }
 
 export interface SparkWorkerInfo {
@@ -43,8 +61,25 @@ export interface SparkWorkerInfo {
   state: string;
 }
 
+export interface StreamingSample {
+  timestamp: string;
+  inputRowsPerSecond: number;
+  processedRowsPerSecond: number;
+  batchDurationMs: number;
+}
+
+export interface StreamingQueryMetrics {
+  application: string;
+  query: string;
+  inputRowsPerSecond: number;
+  processedRowsPerSecond: number;
+  batchDurationMs: number;
+  keepingUp: boolean;
+  history: StreamingSample[];
+}
+
 export interface SparkMetrics {
-  status: 'UP' | 'DOWN';
+  status: 'UP' | 'DOWN' | 'TIMEOUT';
   latencyMs?: number;
   message?: string;
   masterUrl?: string;
@@ -56,10 +91,11 @@ export interface SparkMetrics {
   activeApps: number;
   completedApps: number;
   workers: SparkWorkerInfo[];
+  streamingQueries: StreamingQueryMetrics[];
 }
 
 export interface PostgresMetrics {
-  status: 'UP' | 'DOWN';
+  status: 'UP' | 'DOWN' | 'TIMEOUT';
   latencyMs?: number;
   message?: string;
   version?: string;
@@ -76,6 +112,7 @@ export interface DetailedHealthReport {
   postgres: PostgresMetrics;
   kafka: KafkaMetrics;
   spark: SparkMetrics;
+  intent: IntentHealthResponse;
 }
 
 export interface RamGb {
@@ -136,102 +173,31 @@ export const serviceMap = derived(_report, ($r): Record<string, ServiceHealth> =
 });
 
 // ---------------------------------------------------------------
-// SSE connections
+// Dashboard socket channels
 // ---------------------------------------------------------------
-const API_BASE = import.meta.env.VITE_API_BASE_URL ?? 'http://localhost:8090';
-
-let simpleEs: EventSource | null = null;
-let detailEs: EventSource | null = null;
-let intentEs: EventSource | null = null;
-let simpleRetry: ReturnType<typeof setTimeout> | null = null;
-let detailRetry: ReturnType<typeof setTimeout> | null = null;
-let intentRetry: ReturnType<typeof setTimeout> | null = null;
-let simpleDelay = 3_000;
-let detailDelay = 3_000;
-let intentDelay = 3_000;
-
-function connectSimple() {
-  if (!browser) return;
-  _connectionState.set('connecting');
-  simpleEs = new EventSource(`${API_BASE}/api/health/stream`);
+let unsubscribers: (() => void)[] = [];
 
-  simpleEs.addEventListener('health', (e: MessageEvent) => {
-    try {
-      _report.set(JSON.parse(e.data));
-      _lastUpdated.set(new Date());
-      _connectionState.set('connected');
-      simpleDelay = 3_000;
-    } catch { /* ignore parse errors */ }
-  });
-
-  simpleEs.onerror = () => {
-    _connectionState.set('error');
-    simpleEs?.close();
-    simpleEs = null;
-    simpleRetry = setTimeout(() => {
-      simpleDelay = Math.min(simpleDelay * 2, 30_000);
-      connectSimple();
-    }, simpleDelay);
-  };
-}
-
-function connectDetails() {
-  if (!browser) return;
-  detailEs = new EventSource(`${API_BASE}/api/health/details/stream`);
-
-  detailEs.addEventListener('health-details', (e: MessageEvent) => {
-    try {
-      _detailed.set(JSON.parse(e.data));
-      detailDelay = 3_000;
-    } catch { /* ignore parse errors */ }
-  });
-
-  detailEs.onerror = () => {
-    detailEs?.close();
-    detailEs = null;
-    detailRetry = setTimeout(() => {
-      detailDelay = Math.min(detailDelay * 2, 30_000);
-      connectDetails();
-    }, detailDelay);
-  };
-}
-
-function connectIntent() {
+function connect() {
   if (!browser) return;
-  intentEs = new EventSource(`${API_BASE}/api/health/intent/stream`);
-
-  intentEs.addEventListener('intent-health', (e: MessageEvent) => {
-    try {
-      _intent.set(JSON.parse(e.data));
-      intentDelay = 3_000;
-    } catch { /* ignore parse errors */ }
-  });
-
-  intentEs.onerror = () => {
-    intentEs?.close();
-    intentEs = null;
-    intentRetry = setTimeout(() => {
-      intentDelay = Math.min(intentDelay * 2, 30_000);
-      connectIntent();
-    }, intentDelay);
-  };
+  unsubscribers = [
+    onSocketState((state) => _connectionState.set(state)),
+    subscribe('health', (report) => {
+      _report.set(report as HealthReport);
+      _lastUpdated.set(new Date());
+    }),
+    subscribe('health-details', (report) => _detailed.set(report as DetailedHealthReport)),
+    subscribe('intent-health', (intent) => _intent.set(intent as IntentHealthResponse)),
+  ];
 }
 
 function disconnect() {
-  if (simpleRetry) clearTimeout(simpleRetry);
-  if (detailRetry) clearTimeout(detailRetry);
-  if (intentRetry) clearTimeout(intentRetry);
-  simpleEs?.close();
-  detailEs?.close();
-  intentEs?.close();
-  simpleEs = detailEs = intentEs = null;
+  for (const stop of unsubscribers) stop();
+  unsubscribers = [];
   _connectionState.set('closed');
 }
 
 if (browser) {
-  connectSimple();
-  connectDetails();
-  connectIntent();
+  connect();
 }
 
 export const healthStore = { disconnect };
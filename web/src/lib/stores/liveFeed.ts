@@ -1,5 +1,6 @@
 import { writable, derived } from 'svelte/store';
 import { browser } from '$app/environment';
+import { subscribe } from './dashboardSocket';
 
 // ---------------------------------------------------------------
 // Types
@@ -23,42 +24,18 @@ const _feed = writable<LiveTweet[]>([]);
 export const liveFeed = derived(_feed, ($f) => $f);
 
 // ---------------------------------------------------------------
-// SSE connection
+// Dashboard socket channel
 // ---------------------------------------------------------------
-const API_BASE = import.meta.env.VITE_API_BASE_URL ?? 'http://localhost:8090';
-
-let es: EventSource | null = null;
-let retryTimer: ReturnType<typeof setTimeout> | null = null;
-let retryDelay = 3_000;
+let unsubscribe: (() => void) | null = null;
 
 function connect() {
   if (!browser) return;
-  es = new EventSource(`${API_BASE}/api/analytics/live-feed/stream`);
-
-  es.addEventListener('live-feed', (e: MessageEvent) => {
-    try {
-      const tweets = JSON.parse(e.data) as LiveTweet[];
-      _feed.set(tweets);
-      retryDelay = 3_000;
-    } catch {
-      /* ignore parse errors */
-    }
-  });
-
-  es.onerror = () => {
-    es?.close();
-    es = null;
-    retryTimer = setTimeout(() => {
-      retryDelay = Math.min(retryDelay * 2, 30_000);
-      connect();
-    }, retryDelay);
-  };
+  unsubscribe = subscribe('live-feed', (tweets) => _feed.set(tweets as LiveTweet[]));
 }
 
 function disconnect() {
-  if (retryTimer) clearTimeout(retryTimer);
-  es?.close();
-  es = null;
+  unsubscribe?.();
+  unsubscribe = null;
 }
 
 if (browser) {